@@ -0,0 +1,137 @@
+package edu.kit.ifgg.vegapp.common;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+
+/**
+ * VegX export of several projects, one document per project. The exports share the data source,
+ * e.g. one database connection, and the lookup tables read through it (custom fields, layer
+ * systems and cover scales); up to a number of projects are exported at the same time.
+ *
+ * The settings apply to every project; their parallelism is that of each export, so a batch
+ * with several workers usually keeps it at 1.
+ */
+
+public class BatchExporter {
+
+    public interface Target {
+        // writes the document of the project with exporter.write, and what belongs next to it
+        void write(int projectId, VegXExporter exporter) throws IOException;
+    }
+
+    public static class Result {
+        private final int projectId;
+        private final VegXExporter exporter;
+        private final Exception error;
+
+        Result(int projectId, VegXExporter exporter, Exception error) {
+            this.projectId = projectId;
+            this.exporter = exporter;
+            this.error = error;
+        }
+
+        public int getProjectId() {
+            return projectId;
+        }
+
+        // the written export with its write error, metrics and index, null if the project could not be read
+        public VegXExporter getExporter() {
+            return exporter;
+        }
+
+        // the exception that kept the project from being read or its document from being written
+        // out by the target; errors while writing the document are the exporter's write error
+        public Exception getError() {
+            return error;
+        }
+
+        public boolean isComplete() {
+            return error == null && exporter.getWriteError() == null;
+        }
+    }
+
+    private final ExportDataSource dataSource;
+    private final ExportSettings settings;
+    private final int workers;
+    private final ExportMonitor monitor;
+
+    // monitor is shared by all exports of the batch, cancelling it stops the batch
+    public BatchExporter(ExportDataSource dataSource, ExportSettings settings, int workers, ExportMonitor monitor) {
+        if (workers < 1) {
+            throw new IllegalArgumentException("workers must be at least 1: " + workers);
+        }
+        this.dataSource = new CachingExportDataSource(dataSource);
+        this.settings = settings;
+        this.workers = workers;
+        this.monitor = monitor;
+    }
+
+    // exports the projects, at most workers at a time, and returns their results in the order of
+    // projectIds; throws a CancellationException once the monitor was cancelled
+    public List<Result> export(List<Integer> projectIds, final Target target) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(workers, projectIds.size())), new ThreadFactory() {
+            private int count;
+
+            @Override
+            public synchronized Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "VegX batch export " + ++count);
+                thread.setPriority(Thread.MIN_PRIORITY);
+                return thread;
+            }
+        });
+        try {
+            List<Future<Result>> futures = new ArrayList<>(projectIds.size());
+            for (final int projectId : projectIds) {
+                futures.add(executor.submit(new Callable<Result>() {
+                    @Override
+                    public Result call() {
+                        return export(projectId, target);
+                    }
+                }));
+            }
+            List<Result> results = new ArrayList<>(projectIds.size());
+            for (Future<Result> future : futures) {
+                try {
+                    results.add(future.get());
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof CancellationException) {
+                        throw (CancellationException) e.getCause();
+                    }
+                    // errors are results, only an Error gets here
+                    throw new IllegalStateException(e.getCause());
+                }
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Result export(int projectId, Target target) {
+        monitor.checkCancelled();
+        VegXExporter exporter;
+        try {
+            exporter = new VegXExporter(dataSource, projectId, settings, monitor);
+        } catch (CancellationException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            // like a single export, a project that cannot be read has no document
+            return new Result(projectId, null, e);
+        }
+        try {
+            target.write(projectId, exporter);
+            return new Result(projectId, exporter, null);
+        } catch (IOException e) {
+            return new Result(projectId, exporter, e);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package edu.kit.ifgg.vegapp.common;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+
+/**
+ * Gzip output made of independent members, one per block of the uncompressed data, like BGZF.
+ * The concatenation is a valid gzip file. The offset of every member in the compressed and in
+ * the uncompressed data is kept, so an offset in the document can be found without inflating
+ * what comes before it.
+ */
+
+class BlockGzipOutputStream extends OutputStream {
+    static final int BLOCK_SIZE = 64 * 1024;
+
+    // gzip header without name or time, deflate, unknown OS
+    private static final byte[] HEADER = {0x1f, (byte) 0x8b, 8, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+
+    private final OutputStream out;
+    private final Deflater deflater;
+    private final CRC32 crc = new CRC32();
+    private final byte[] block = new byte[BLOCK_SIZE];
+    private final byte[] compressed = new byte[BLOCK_SIZE];
+    private int length;
+    private long compressedOffset;
+    // compressed offset of the member of each block, the uncompressed one is BLOCK_SIZE times the index
+    private long[] blocks = new long[64];
+    private int blockCount;
+
+    // level as for Deflater, e.g. Deflater.DEFAULT_COMPRESSION
+    BlockGzipOutputStream(OutputStream out, int level) {
+        this.out = out;
+        deflater = new Deflater(level, true);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        if (length == BLOCK_SIZE) {
+            writeBlock();
+        }
+        block[length++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        while (len > 0) {
+            if (length == BLOCK_SIZE) {
+                writeBlock();
+            }
+            int n = Math.min(len, BLOCK_SIZE - length);
+            System.arraycopy(b, off, block, length, n);
+            length += n;
+            off += n;
+            len -= n;
+        }
+    }
+
+    // the members are only cut at full blocks, flush passes on what was written before
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    // writes the last block; the stream underneath stays open
+    void finish() throws IOException {
+        writeBlock();
+        out.flush();
+    }
+
+    // releases the deflater, whether the stream was finished or not
+    void end() {
+        deflater.end();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            finish();
+        } finally {
+            end();
+        }
+        out.close();
+    }
+
+    int getBlockCount() {
+        return blockCount;
+    }
+
+    // offset of the member of a block in the compressed data
+    long getCompressedOffset(int block) {
+        return blocks[block];
+    }
+
+    long getUncompressedOffset(int block) {
+        return (long) block * BLOCK_SIZE;
+    }
+
+    private void writeBlock() throws IOException {
+        if (length == 0) {
+            return;
+        }
+        if (blockCount == blocks.length) {
+            blocks = Arrays.copyOf(blocks, blocks.length * 2);
+        }
+        blocks[blockCount++] = compressedOffset;
+
+        out.write(HEADER);
+        long size = HEADER.length;
+        deflater.reset();
+        deflater.setInput(block, 0, length);
+        deflater.finish();
+        while (!deflater.finished()) {
+            int n = deflater.deflate(compressed);
+            out.write(compressed, 0, n);
+            size += n;
+        }
+        crc.reset();
+        crc.update(block, 0, length);
+        writeInt((int) crc.getValue());
+        writeInt(length);
+        compressedOffset += size + 8;
+        length = 0;
+    }
+
+    // little endian, as gzip wants it
+    private void writeInt(int value) throws IOException {
+        out.write(value);
+        out.write(value >>> 8);
+        out.write(value >>> 16);
+        out.write(value >>> 24);
+    }
+}
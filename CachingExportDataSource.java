@@ -0,0 +1,151 @@
+package edu.kit.ifgg.vegapp.common;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+
+/**
+ * Passes the queries of the exports of a batch to one data source and keeps the lookup tables
+ * they share: the custom fields of a profile, the layer systems and the cover scales. Each of
+ * them is read once for the whole batch; the tables of the projects are read as before.
+ *
+ * The exports of a batch run concurrently, so the tables are kept in concurrent maps. A table read
+ * by two exports at the same time is read twice, one of the two is kept.
+ */
+
+class CachingExportDataSource implements ExportDataSource {
+    private final ExportDataSource dataSource;
+    private final ConcurrentMap<Integer, TableSnapshot> customFields = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, TableSnapshot> layerSystems = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, TableSnapshot> coverScaleNames = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, TableSnapshot> coverCodes = new ConcurrentHashMap<>();
+
+    CachingExportDataSource(ExportDataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    ExportDataSource getDataSource() {
+        return dataSource;
+    }
+
+    @Override
+    public TableSnapshot project(int projectId) {
+        return dataSource.project(projectId);
+    }
+
+    @Override
+    public TableSnapshot plots(int projectId, String[] columns) {
+        return dataSource.plots(projectId, columns);
+    }
+
+    @Override
+    public TableSnapshot plotChildren(String table, int projectId, String[] columns) {
+        return dataSource.plotChildren(table, projectId, columns);
+    }
+
+    @Override
+    public TableSnapshot individuals(int projectId, String[] columns) {
+        return dataSource.individuals(projectId, columns);
+    }
+
+    @Override
+    public TableSnapshot observers(int projectId) {
+        return dataSource.observers(projectId);
+    }
+
+    @Override
+    public int plotCount(int projectId) {
+        return dataSource.plotCount(projectId);
+    }
+
+    @Override
+    public TableSnapshot plots(int projectId, long afterId, int limit, String[] columns) {
+        return dataSource.plots(projectId, afterId, limit, columns);
+    }
+
+    @Override
+    public TableSnapshot plotChildren(String table, int projectId, long afterId, int limit, String[] columns) {
+        return dataSource.plotChildren(table, projectId, afterId, limit, columns);
+    }
+
+    @Override
+    public int plotChildCount(String table, int projectId) {
+        return dataSource.plotChildCount(table, projectId);
+    }
+
+    @Override
+    public TableSnapshot individuals(int projectId, long afterId, int limit, String[] columns) {
+        return dataSource.individuals(projectId, afterId, limit, columns);
+    }
+
+    @Override
+    public int individualCount(int projectId) {
+        return dataSource.individualCount(projectId);
+    }
+
+    @Override
+    public int observerCount(int projectId) {
+        return dataSource.observerCount(projectId);
+    }
+
+    @Override
+    public TableSnapshot observers(int projectId, long afterId, int limit) {
+        return dataSource.observers(projectId, afterId, limit);
+    }
+
+    @Override
+    public TableSnapshot plotObservers(int projectId, long afterId, int limit) {
+        return dataSource.plotObservers(projectId, afterId, limit);
+    }
+
+    @Override
+    public TableSnapshot customFields(int profileId) {
+        TableSnapshot rows = customFields.get(profileId);
+        if (rows == null) {
+            rows = keep(customFields, profileId, dataSource.customFields(profileId));
+        }
+        return rows;
+    }
+
+    @Override
+    public TableSnapshot layerSystem(String layerSystemId) {
+        if (layerSystemId == null) {
+            return dataSource.layerSystem(null);
+        }
+        TableSnapshot rows = layerSystems.get(layerSystemId);
+        if (rows == null) {
+            rows = keep(layerSystems, layerSystemId, dataSource.layerSystem(layerSystemId));
+        }
+        return rows;
+    }
+
+    @Override
+    public TableSnapshot coverScaleNames(String codes) {
+        if (codes == null) {
+            return dataSource.coverScaleNames(null);
+        }
+        TableSnapshot rows = coverScaleNames.get(codes);
+        if (rows == null) {
+            rows = keep(coverScaleNames, codes, dataSource.coverScaleNames(codes));
+        }
+        return rows;
+    }
+
+    @Override
+    public TableSnapshot coverCodes(String codeId) {
+        if (codeId == null) {
+            return dataSource.coverCodes(null);
+        }
+        TableSnapshot rows = coverCodes.get(codeId);
+        if (rows == null) {
+            rows = keep(coverCodes, codeId, dataSource.coverCodes(codeId));
+        }
+        return rows;
+    }
+
+    // the rows that are kept for key, those of another export if it was first
+    private static <K> TableSnapshot keep(ConcurrentMap<K, TableSnapshot> tables, K key, TableSnapshot rows) {
+        TableSnapshot kept = tables.putIfAbsent(key, rows);
+        return kept != null ? kept : rows;
+    }
+}
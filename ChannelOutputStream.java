@@ -0,0 +1,89 @@
+package edu.kit.ifgg.vegapp.common;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+
+/**
+ * Output of an export file: the bytes are collected in a direct buffer and written to the file's
+ * channel once the buffer is full, so the storage sees few large writes instead of one per chunk
+ * the writer hands on. {@link #sync()} writes the rest and forces it to the storage, once at the
+ * end of the export.
+ *
+ * It serves the exports to a path and to a document of the storage access framework alike, both
+ * are a FileOutputStream underneath.
+ */
+
+public class ChannelOutputStream extends OutputStream {
+    // what the export uses, the writer hands on 64 KiB at a time
+    public static final int DEFAULT_BUFFER_SIZE = 1024 * 1024;
+
+    private final FileOutputStream file;
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+
+    public ChannelOutputStream(FileOutputStream file) {
+        this(file, DEFAULT_BUFFER_SIZE);
+    }
+
+    // bufferSize bytes are collected before they are written to the file
+    public ChannelOutputStream(FileOutputStream file, int bufferSize) {
+        this.file = file;
+        channel = file.getChannel();
+        buffer = ByteBuffer.allocateDirect(bufferSize);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        if (!buffer.hasRemaining()) {
+            drain();
+        }
+        buffer.put((byte) b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        while (len > 0) {
+            if (!buffer.hasRemaining()) {
+                drain();
+            }
+            int n = Math.min(len, buffer.remaining());
+            buffer.put(b, off, n);
+            off += n;
+            len -= n;
+        }
+    }
+
+    // the buffer is only written when it is full, by sync() or by close(); flushing every chunk of
+    // the writer would bring back the small writes
+    @Override
+    public void flush() {
+    }
+
+    // writes what is buffered and forces it and the file's size to the storage
+    public void sync() throws IOException {
+        drain();
+        channel.force(true);
+    }
+
+    // writes what is buffered and closes the file, without forcing it to the storage
+    @Override
+    public void close() throws IOException {
+        try {
+            drain();
+        } finally {
+            file.close();
+        }
+    }
+
+    private void drain() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
@@ -0,0 +1,14 @@
+package edu.kit.ifgg.vegapp.common;
+
+
+/**
+ * How the document is compressed while it is written. BLOCK_GZIP writes a gzip member for every
+ * 64 KiB of the document; any gzip reader reads it as one file, and with the index of the export
+ * a reader can start inflating at the member that holds a section or plot.
+ */
+
+public enum Compression {
+    NONE,
+    GZIP,
+    BLOCK_GZIP
+}
@@ -0,0 +1,160 @@
+package edu.kit.ifgg.vegapp.common;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * The custom_fields of one profile, read once at the start of an export and indexed by type,
+ * type and scope, and level. Each field also knows the index of its value column in the rows of
+ * its scope (plot, species or individuals), see {@link #resolveColumns(String, TableSnapshot)}.
+ *
+ * Lists keep the order in which the database returned the fields.
+ */
+
+public class CustomFieldCatalog {
+
+    public static class Field {
+        private final String name;
+        private final String attribute;
+        private final String type;
+        private final String scope;
+        private final String level;
+        private final String method;
+        private final String units;
+        private int columnIndex = -1;
+
+        Field(String name, String attribute, String type, String scope, String level, String method, String units) {
+            this.name = name;
+            this.attribute = attribute;
+            this.type = type;
+            this.scope = scope;
+            this.level = level;
+            this.method = method;
+            this.units = units;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getAttribute() {
+            return attribute;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public String getScope() {
+            return scope;
+        }
+
+        public String getLevel() {
+            return level;
+        }
+
+        public String getMethod() {
+            return method;
+        }
+
+        public String getUnits() {
+            return units;
+        }
+
+        // value column in the plot, species or individuals table; plot columns carry the scope as suffix
+        public String getColumnName() {
+            return name + ("individuals".equals(scope) || "species".equals(scope) ? "" : "_" + scope);
+        }
+
+        // index of the value column in the rows of the field's scope, -1 if there is no such column
+        public int getColumnIndex() {
+            return columnIndex;
+        }
+    }
+
+    private final List<Field> fields = new ArrayList<>();
+    private final Map<String, List<Field>> byTypeAndScope = new HashMap<>();
+    private final Map<String, List<Field>> byType = new HashMap<>();
+    private final Map<String, List<Field>> byLevel = new HashMap<>();
+
+    // rows are the custom_fields of one profile
+    public CustomFieldCatalog(TableSnapshot rows) {
+        int name = rows.getColumnIndex("name");
+        int attribute = rows.getColumnIndex("attribute");
+        int type = rows.getColumnIndex("type");
+        int scope = rows.getColumnIndex("scope");
+        int level = rows.getColumnIndex("level");
+        int method = rows.getColumnIndex("method");
+        int units = rows.getColumnIndex("units");
+        SnapshotCursor c = rows.cursor();
+        while (c.moveToNext()) {
+            add(new Field(value(c, name), value(c, attribute), value(c, type), value(c, scope),
+                    value(c, level), value(c, method), value(c, units)));
+        }
+    }
+
+    // looks up the value column of every field with the given scope in rows
+    public void resolveColumns(String scope, TableSnapshot rows) {
+        for (Field field : fields) {
+            if (scope.equals(field.getScope())) {
+                field.columnIndex = rows.getColumnIndex(field.getColumnName());
+            }
+        }
+    }
+
+    // the value columns of the fields with the given scope, to read them with the rows of the scope
+    public List<String> getColumnNames(String scope) {
+        List<String> columns = new ArrayList<>();
+        for (Field field : fields) {
+            if (scope.equals(field.getScope())) {
+                columns.add(field.getColumnName());
+            }
+        }
+        return columns;
+    }
+
+    public List<Field> getFields() {
+        return Collections.unmodifiableList(fields);
+    }
+
+    public List<Field> get(String type, String scope) {
+        return list(byTypeAndScope, type + '\u0000' + scope);
+    }
+
+    public List<Field> getByType(String type) {
+        return list(byType, type);
+    }
+
+    public List<Field> getByLevel(String level) {
+        return list(byLevel, level);
+    }
+
+    private void add(Field field) {
+        fields.add(field);
+        index(byTypeAndScope, field.getType() + '\u0000' + field.getScope(), field);
+        index(byType, field.getType(), field);
+        index(byLevel, field.getLevel(), field);
+    }
+
+    private static void index(Map<String, List<Field>> map, String key, Field field) {
+        List<Field> list = map.get(key);
+        if (list == null) {
+            list = new ArrayList<>();
+            map.put(key, list);
+        }
+        list.add(field);
+    }
+
+    private static List<Field> list(Map<String, List<Field>> map, String key) {
+        List<Field> list = map.get(key);
+        return list != null ? Collections.unmodifiableList(list) : Collections.<Field>emptyList();
+    }
+
+    private static String value(SnapshotCursor cursor, int column) {
+        return column >= 0 ? cursor.getString(column) : null;
+    }
+}
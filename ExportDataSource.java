@@ -0,0 +1,65 @@
+package edu.kit.ifgg.vegapp.common;
+
+
+/**
+ * The tables a VegX export reads. The Android app reads them from its SQLite database
+ * ({@link SQLiteExportDataSource}); {@link JdbcExportDataSource} reads a copy of that database on
+ * a plain JVM, e.g. for benchmarks.
+ *
+ * Every method returns all matching rows. The plots, their child rows and the individuals have the
+ * columns the export asks for, or all columns of the table for null; a column the table does not
+ * have is left out. An export with a memory budget reads the plots, and the rows that belong to
+ * them, in windows of plots ordered by _id.
+ */
+
+public interface ExportDataSource {
+
+    // the row of the project
+    TableSnapshot project(int projectId);
+
+    TableSnapshot plots(int projectId, String[] columns);
+
+    // rows of a table with a plot_id column (species, individuals, plot_layer) that belong to the
+    // plots of the project, ordered by plot_id and _id
+    TableSnapshot plotChildren(String table, int projectId, String[] columns);
+
+    // individuals of the project in the order they are stored
+    TableSnapshot individuals(int projectId, String[] columns);
+
+    // _id, givenname, surname and plot of the project's observers
+    TableSnapshot observers(int projectId);
+
+    // the windows of an export with a memory budget
+    int plotCount(int projectId);
+
+    // the first limit plots of the project with an _id above afterId, ordered by _id
+    TableSnapshot plots(int projectId, long afterId, int limit, String[] columns);
+
+    // rows of plotChildren(table, projectId, columns) that belong to the plots of plots(projectId, afterId, limit, ...)
+    TableSnapshot plotChildren(String table, int projectId, long afterId, int limit, String[] columns);
+
+    int plotChildCount(String table, int projectId);
+
+    // the first limit individuals of the project with an _id above afterId, ordered by _id
+    TableSnapshot individuals(int projectId, long afterId, int limit, String[] columns);
+
+    int individualCount(int projectId);
+
+    int observerCount(int projectId);
+
+    // the first limit observers of the project with an _id above afterId, ordered by _id
+    TableSnapshot observers(int projectId, long afterId, int limit);
+
+    // observers of the plots of plots(projectId, afterId, limit) ordered by _id
+    TableSnapshot plotObservers(int projectId, long afterId, int limit);
+
+    TableSnapshot customFields(int profileId);
+
+    TableSnapshot layerSystem(String layerSystemId);
+
+    // names of the cover scale with the given codes, from cover_scale_lu
+    TableSnapshot coverScaleNames(String codes);
+
+    // entries of the cover scale, from cover_code_lu
+    TableSnapshot coverCodes(String codeId);
+}
@@ -0,0 +1,196 @@
+package edu.kit.ifgg.vegapp.common;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+
+/**
+ * Prepares a Vegapp database for the export: creates the indexes the export queries filter and
+ * join on where the database has none with the same leading columns, and runs ANALYZE so the
+ * query planner uses them. Older databases have none of them, and every plot's children are
+ * then found by scanning the whole table.
+ *
+ * The queries select many columns, so no index covers them; each index ends with the rowid
+ * SQLite appends to it, which is the _id order the plot children and windows are read in. The
+ * count queries and the plot windows only need the index.
+ *
+ * {@link #explain(int)} lists the query plan of every export query, for debugging.
+ */
+
+public class ExportIndexAdvisor {
+    // name, table and columns of the indexes
+    private static final String[][] INDEXES = {
+            {"vegx_plot_project", "plot", "project_id"},
+            {"vegx_species_plot", "species", "plot_id"},
+            {"vegx_individuals_plot", "individuals", "plot_id"},
+            {"vegx_individuals_project", "individuals", "project_id"},
+            {"vegx_plot_layer_plot", "plot_layer", "plot_id"},
+            {"vegx_custom_fields_profile", "custom_fields", "profile", "type", "scope", "level"},
+            {"vegx_observer_project", "observer", "project"},
+            {"vegx_observer_plot", "observer", "plot"}
+    };
+
+    private static final String[] PLOT_CHILDREN = {"species", "individuals", "plot_layer"};
+
+    private final SqlExportDataSource dataSource;
+
+    public ExportIndexAdvisor(SqlExportDataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    // creates the missing indexes and analyzes the database if it has no statistics or an index
+    // was created; returns what was done, one line per index
+    public List<String> prepare() {
+        List<String> report = new ArrayList<>();
+        boolean created = false;
+        for (String[] index : INDEXES) {
+            String table = index[1];
+            List<String> columns = Arrays.asList(index).subList(2, index.length);
+            if (!tableExists(table)) {
+                report.add(table + ": no such table");
+                continue;
+            }
+            String existing = findIndex(table, columns);
+            if (existing != null) {
+                report.add(table + columns + ": " + existing);
+                continue;
+            }
+            try {
+                dataSource.execute("CREATE INDEX IF NOT EXISTS " + index[0] + " ON " + table + " (" + join(columns) + ")");
+                report.add(table + columns + ": created " + index[0]);
+                created = true;
+            } catch (RuntimeException e) {
+                // a database from before one of the columns
+                report.add(table + columns + ": not created, " + e.getMessage());
+            }
+        }
+        if (created || !tableExists("sqlite_stat1")) {
+            dataSource.execute("ANALYZE");
+            report.add("analyzed");
+        }
+        return report;
+    }
+
+    // the plan of each query an export of the project runs, the query followed by its plan indented
+    public List<String> explain(int projectId) {
+        final List<String> queries = new ArrayList<>();
+        final List<String[]> queryArgs = new ArrayList<>();
+        // records the queries instead of running them
+        SqlExportDataSource recorder = new SqlExportDataSource() {
+            @Override
+            protected TableSnapshot query(String sql, String... args) {
+                if (sql.startsWith("PRAGMA")) {
+                    // the columns of the tables, to select those the exporter reads
+                    return dataSource.query(sql, args);
+                }
+                queries.add(sql);
+                queryArgs.add(args);
+                return new TableSnapshot(new String[0], new ArrayList<String[]>());
+            }
+
+            @Override
+            protected void execute(String sql) {
+            }
+        };
+
+        // the lookups of the project, as the exporter reads them
+        int profileId = 0;
+        String layerSystemId = "0";
+        String coverScale = "";
+        SnapshotCursor project = dataSource.project(projectId).cursor();
+        if (project.moveToFirst()) {
+            profileId = project.getInt(project.getColumnIndexOrThrow("profile_id"));
+            layerSystemId = value(project, "layer_system_id", layerSystemId);
+            String scale = value(project, "cover_scale_id", "");
+            if (scale.length() >= 2) {
+                coverScale = scale.substring(1, scale.length() - 1);
+            }
+        }
+
+        // the queries select the columns the exporter reads for the profile's custom fields, whether
+        // an index covers them depends on it
+        CustomFieldCatalog customFields = new CustomFieldCatalog(dataSource.customFields(profileId));
+        String[] plotColumns = VegXExporter.plotColumns(customFields);
+        String[] individualColumns = VegXExporter.individualColumns(customFields);
+        String[][] plotChildColumns = {VegXExporter.speciesColumns(customFields), individualColumns,
+                VegXExporter.PLOT_LAYER_COLUMNS};
+        recorder.project(projectId);
+        recorder.plots(projectId, plotColumns);
+        recorder.individuals(projectId, individualColumns);
+        recorder.observers(projectId);
+        recorder.plotCount(projectId);
+        recorder.plots(projectId, WindowedCursor.START_ID, WindowedCursor.FIRST_WINDOW, plotColumns);
+        recorder.individuals(projectId, WindowedCursor.START_ID, WindowedCursor.FIRST_WINDOW, individualColumns);
+        recorder.individualCount(projectId);
+        recorder.observerCount(projectId);
+        recorder.observers(projectId, WindowedCursor.START_ID, WindowedCursor.FIRST_WINDOW);
+        recorder.plotObservers(projectId, WindowedCursor.START_ID, WindowedCursor.FIRST_WINDOW);
+        for (int i = 0; i < PLOT_CHILDREN.length; i++) {
+            recorder.plotChildren(PLOT_CHILDREN[i], projectId, plotChildColumns[i]);
+            recorder.plotChildCount(PLOT_CHILDREN[i], projectId);
+            recorder.plotChildren(PLOT_CHILDREN[i], projectId, WindowedCursor.START_ID, WindowedCursor.FIRST_WINDOW, plotChildColumns[i]);
+        }
+        recorder.customFields(profileId);
+        recorder.layerSystem(layerSystemId);
+        recorder.coverScaleNames(coverScale);
+        recorder.coverCodes(coverScale);
+
+        List<String> plans = new ArrayList<>();
+        for (int i = 0; i < queries.size(); i++) {
+            String sql = queries.get(i);
+            plans.add(sql);
+            try {
+                SnapshotCursor plan = dataSource.query("EXPLAIN QUERY PLAN " + sql, queryArgs.get(i)).cursor();
+                int detail = plan.getColumnIndex("detail");
+                while (plan.moveToNext()) {
+                    plans.add("    " + plan.getString(detail));
+                }
+            } catch (RuntimeException e) {
+                plans.add("    " + e.getMessage());
+            }
+        }
+        return plans;
+    }
+
+    // the name of an index of the table that starts with the columns, null if there is none
+    private String findIndex(String table, List<String> columns) {
+        SnapshotCursor indexes = dataSource.query("PRAGMA index_list(" + table + ")").cursor();
+        int nameColumn = indexes.getColumnIndex("name");
+        while (indexes.moveToNext()) {
+            String name = indexes.getString(nameColumn);
+            SnapshotCursor info = dataSource.query("PRAGMA index_info(\"" + name + "\")").cursor();
+            int seqno = info.getColumnIndex("seqno");
+            int column = info.getColumnIndex("name");
+            String[] indexed = new String[info.getCount()];
+            while (info.moveToNext()) {
+                indexed[info.getInt(seqno)] = info.getString(column);
+            }
+            if (indexed.length >= columns.size() && Arrays.asList(indexed).subList(0, columns.size()).equals(columns)) {
+                return name;
+            }
+        }
+        return null;
+    }
+
+    private boolean tableExists(String name) {
+        return dataSource.query("SELECT name FROM sqlite_master WHERE type = 'table' AND name = '" + name + "'").getCount() > 0;
+    }
+
+    private static String value(SnapshotCursor cursor, String column, String fallback) {
+        int index = cursor.getColumnIndex(column);
+        String value = index >= 0 ? cursor.getString(index) : null;
+        return value != null ? value : fallback;
+    }
+
+    private static String join(List<String> columns) {
+        StringBuilder sb = new StringBuilder();
+        for (String column : columns) {
+            if (sb.length() > 0) {
+                sb.append(", ");
+            }
+            sb.append(column);
+        }
+        return sb.toString();
+    }
+}
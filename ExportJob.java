@@ -0,0 +1,550 @@
+package edu.kit.ifgg.vegapp.common;
+
+import android.content.Context;
+import android.database.sqlite.SQLiteDatabase;
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.ParcelFileDescriptor;
+import androidx.documentfile.provider.DocumentFile;
+import android.util.Log;
+import android.widget.Toast;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+import java.util.zip.Deflater;
+
+import edu.kit.ifgg.vegapp.activities.MainActivity;
+import edu.kit.ifgg.vegapp.models.Layer;
+import edu.kit.ifgg.vegapp.BuildConfig;
+import edu.kit.ifgg.vegapp.R;
+
+
+/**
+ * Runs a VegX export of the project in MainActivity.exportedProjectId on a worker thread, so the
+ * UI stays responsive on large projects. Progress and the outcome are posted to the main thread,
+ * the result is also available as a {@link Future}.
+ *
+ * {@link #cancel()} stops the export between two phases or two plots and deletes the partial file.
+ * A document the exporter could not write completely is deleted as well, the result then has the
+ * write error and no location.
+ *
+ * With the preference export_metrics set to "true" the {@link ExportMetrics} are added to the
+ * document as a note, and written next to it as .metrics.json where the export writes to a path.
+ *
+ * The preference export_compression set to "gzip" or "gzip_blocks" compresses the document; a
+ * path export then ends in .xml.gz, and with gzip_blocks the index is written next to it as .index.
+ *
+ * The preference export_encoding set to "utf-8" writes the document in UTF-8 instead of ISO-8859-1,
+ * export_compact set to "true" writes it without line breaks and indentation, and
+ * export_distinct_names set to "true" writes each organism name once instead of once per species
+ * and individual.
+ *
+ * With the preference export_incremental set to "true" the plots of each export are kept in the
+ * cache, and a later export of the project copies the plots that did not change from there. This
+ * pays off for repeated exports of large projects; other exports write the plot sections in chunks
+ * on all threads instead and skip the fingerprints of the plots.
+ *
+ * A batch job ({@link #startBatch}) exports several projects with the same settings, one file per
+ * project, over one database connection; see {@link BatchExporter}.
+ *
+ * The export reads on a read-only connection of its own and leaves the app's database helper open.
+ * A single export on a database in WAL mode reads a snapshot of it, see
+ * {@link SQLiteExportDataSource#openReadOnly(SQLiteDatabase, boolean)}.
+ */
+
+public class ExportJob {
+
+    public interface Callback {
+        // called on the main thread when the export has ended without being cancelled
+        void onFinished(Result result);
+
+        // called on the main thread when the export was cancelled
+        void onCancelled();
+    }
+
+    public static class Result {
+        private final String location;
+        private final Exception writeError;
+        private final IOException fileError;
+        private final boolean noQuantities;
+        private final ExportMetrics metrics;
+        private final List<Result> projects;
+
+        Result(String location, Exception writeError, IOException fileError, boolean noQuantities, ExportMetrics metrics) {
+            this(location, writeError, fileError, noQuantities, metrics, Collections.<Result>emptyList());
+        }
+
+        Result(String location, Exception writeError, IOException fileError, boolean noQuantities, ExportMetrics metrics, List<Result> projects) {
+            this.location = location;
+            this.writeError = writeError;
+            this.fileError = fileError;
+            this.noQuantities = noQuantities;
+            this.metrics = metrics;
+            this.projects = projects;
+        }
+
+        // where the file was written, null if it could not be created or closed
+        public String getLocation() {
+            return location;
+        }
+
+        // the exception that stopped writing the document, the file is closed nevertheless
+        public Exception getWriteError() {
+            return writeError;
+        }
+
+        // the exception that kept the file from being created or closed
+        public IOException getFileError() {
+            return fileError;
+        }
+
+        // species were observed but none of them has a quantity
+        public boolean hasNoQuantities() {
+            return noQuantities;
+        }
+
+        // null if the project could not be read
+        public ExportMetrics getMetrics() {
+            return metrics;
+        }
+
+        // the result of each project of a batch in the order they were given, empty for a single
+        // project; the batch's own result has the first errors of them
+        public List<Result> getProjectResults() {
+            return projects;
+        }
+
+        public boolean isComplete() {
+            return writeError == null && fileError == null;
+        }
+    }
+
+    /**
+     * Shows the toasts the export has always shown.
+     */
+    public static class ToastCallback implements Callback {
+        private final Context context;
+
+        public ToastCallback(Context context) {
+            this.context = context;
+        }
+
+        @Override
+        public void onFinished(Result result) {
+            if (result.hasNoQuantities()) {
+                Toast.makeText(context, R.string.export_project_vegx_toast_d, Toast.LENGTH_SHORT).show();
+            }
+            if (result.getWriteError() != null) {
+                Toast.makeText(context, R.string.export_project_vegx_toast_a, Toast.LENGTH_SHORT).show();
+            }
+            if (result.getFileError() != null) {
+                Toast.makeText(context, R.string.export_project_vegx_toast_c, Toast.LENGTH_SHORT).show();
+            } else if (result.getLocation() != null) {
+                Toast.makeText(context, context.getString(R.string.export_project_vegx_toast_b) + result.getLocation(), Toast.LENGTH_SHORT).show();
+            }
+        }
+
+        @Override
+        public void onCancelled() {
+        }
+    }
+
+    // at most this many sections of one export, or projects of a batch, are written at the same time
+    private static final int PARALLEL_SECTIONS = 4;
+    // the plots of earlier exports kept in the cache, of all projects together
+    private static final long FRAGMENT_CACHE_BYTES = 256L * 1024 * 1024;
+    // below this heap the project is read in windows, with a quarter of the heap as budget
+    private static final long STREAMING_HEAP = 128L * 1024 * 1024;
+
+    // one export at a time, they share the database
+    private static final ExecutorService executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "VegX export");
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        }
+    });
+
+    private final Context context;
+    private final Uri uri;
+    private final String path;
+    // read when the job is created, the export must not follow later changes
+    private final int exportedProjectId;
+    // the projects of a batch job, null for a single project
+    private final List<Integer> projectIds;
+    private final String speciesListName, speciesListTerms;
+    private final List<Stratum> strata;
+    private final boolean metrics;
+    private final Compression compression;
+    private final String encoding;
+    private final boolean compact;
+    private final boolean distinctNames;
+    private final boolean incremental;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final ExportMonitor monitor;
+    private final Callback callback;
+    private final ResultTask task;
+
+    private ExportJob(Context context, Uri uri, String path, List<Integer> projectIds, Callback callback, final ExportMonitor.ProgressListener progressListener) {
+        this.context = context;
+        this.uri = uri;
+        this.path = path;
+        this.callback = callback;
+        exportedProjectId = MainActivity.exportedProjectId;
+        this.projectIds = projectIds == null ? null : new ArrayList<Integer>(projectIds);
+        speciesListName = SharedPrefs.getString(MainActivity.mContext, "species_lu_version");
+        speciesListTerms = SharedPrefs.getString(MainActivity.mContext, "species_terms");
+        metrics = "true".equals(SharedPrefs.getString(MainActivity.mContext, "export_metrics"));
+        String compressionPref = SharedPrefs.getString(MainActivity.mContext, "export_compression");
+        if ("gzip".equals(compressionPref)) {
+            compression = Compression.GZIP;
+        } else if ("gzip_blocks".equals(compressionPref)) {
+            compression = Compression.BLOCK_GZIP;
+        } else {
+            compression = Compression.NONE;
+        }
+        encoding = "utf-8".equals(SharedPrefs.getString(MainActivity.mContext, "export_encoding"))
+                ? VegXWriter.UTF_8 : VegXWriter.ISO_8859_1;
+        compact = "true".equals(SharedPrefs.getString(MainActivity.mContext, "export_compact"));
+        distinctNames = "true".equals(SharedPrefs.getString(MainActivity.mContext, "export_distinct_names"));
+        incremental = "true".equals(SharedPrefs.getString(MainActivity.mContext, "export_incremental"));
+        if (MainActivity.layerArrayList == null) {
+            MainActivity.layerArrayList = LayerArrayListHelper.getList();
+        }
+        strata = new ArrayList<Stratum>();
+        for (Layer layer : MainActivity.layerArrayList) {
+            strata.add(new Stratum(layer.getID(), layer.getName(), layer.getCriteria(), layer.getCriteriaDefault(), layer.getMaxHeight(), layer.getMinHeight()));
+        }
+        monitor = new ExportMonitor(progressListener == null ? null : new ExportMonitor.ProgressListener() {
+            @Override
+            public void onProgress(final ExportPhase phase, final int plotsProcessed, final int plotsTotal) {
+                mainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        progressListener.onProgress(phase, plotsProcessed, plotsTotal);
+                    }
+                });
+            }
+        });
+        task = new ResultTask(new Callable<Result>() {
+            @Override
+            public Result call() {
+                return export();
+            }
+        });
+    }
+
+    // >=API30
+    public static ExportJob start(Context context, Uri uri, Callback callback, ExportMonitor.ProgressListener progressListener) {
+        ExportJob job = new ExportJob(context, uri, null, null, callback, progressListener);
+        executor.execute(job.task);
+        return job;
+    }
+
+    // < API 30, path without the .xml extension
+    public static ExportJob start(Context context, String path, Callback callback, ExportMonitor.ProgressListener progressListener) {
+        ExportJob job = new ExportJob(context, null, path, null, callback, progressListener);
+        executor.execute(job.task);
+        return job;
+    }
+
+    // < API 30, the file of each project is path_<project id> with the .xml extension; the projects
+    // are exported concurrently, so there is no progress to report
+    public static ExportJob startBatch(Context context, List<Integer> projectIds, String path, Callback callback) {
+        ExportJob job = new ExportJob(context, null, path, projectIds, callback, null);
+        executor.execute(job.task);
+        return job;
+    }
+
+    public Future<Result> getResult() {
+        return task;
+    }
+
+    public void cancel() {
+        // cancel the future first, so the worker's CancellationException never becomes the result
+        task.cancel(false);
+        monitor.cancel();
+    }
+
+    public boolean isCancelled() {
+        return monitor.isCancelled();
+    }
+
+    private Result export() {
+        //open db; the app's connection, which stays open, only prepares it for the export
+        SQLiteDatabase db = DBhelper.getInstance(context).getWritableDatabase();
+        prepare(new SQLiteExportDataSource(db));
+        // a read transaction belongs to the thread that began it, a batch reads on the threads of its projects
+        SQLiteExportDataSource dataSource = SQLiteExportDataSource.openReadOnly(db, projectIds == null);
+        try {
+            return export(dataSource);
+        } finally {
+            dataSource.close();
+        }
+    }
+
+    private Result export(SQLiteExportDataSource dataSource) {
+        if (!dataSource.isSnapshot()) {
+            Log.d("ExportJob", "The export reads without a snapshot of the database.");
+        }
+        // the first note names the app as the export always did
+        String application = uri != null ? "Vegapp" : "the VegApp";
+        ExportSettings settings = new ExportSettings(application, String.valueOf(BuildConfig.VERSION_CODE), speciesListName, speciesListTerms, strata);
+        settings.setMetricsNote(metrics);
+        // storage and upload are slower than deflating at the default level
+        settings.setCompression(compression, Deflater.DEFAULT_COMPRESSION);
+        settings.setEncoding(encoding);
+        settings.setCompact(compact);
+        settings.setDistinctOrganismNames(distinctNames);
+        // the observation sections on all cores but one, the UI keeps the other; they wait in the cache until assembled.
+        // A batch runs its projects on these threads instead, each of them written in turn.
+        int threads = Math.max(1, Math.min(PARALLEL_SECTIONS, Runtime.getRuntime().availableProcessors() - 1));
+        settings.setParallelism(projectIds == null ? threads : 1);
+        settings.setFragmentDirectory(context.getCacheDir());
+        if (incremental) {
+            // plots that did not change since the last export of the project are copied from there
+            settings.setFragmentStore(new FragmentStore(new File(context.getCacheDir(), "vegx-fragments"), FRAGMENT_CACHE_BYTES));
+        }
+        long maxHeap = Runtime.getRuntime().maxMemory();
+        if (maxHeap < STREAMING_HEAP) {
+            // the projects of a batch share the quarter
+            settings.setMemoryBudget(maxHeap / 4 / (projectIds == null ? 1 : threads));
+        }
+        if (projectIds != null) {
+            return exportBatch(dataSource, settings, threads);
+        }
+        VegXExporter exporter = new VegXExporter(dataSource, exportedProjectId, settings, monitor);
+
+        //start file
+        try {
+            String location;
+            if (uri != null) {
+                ParcelFileDescriptor pfd = context.getContentResolver().openFileDescriptor(uri, "w");
+                ChannelOutputStream fileos = new ChannelOutputStream(new FileOutputStream(pfd.getFileDescriptor()));
+                boolean complete = false;
+                try {
+                    exporter.write(fileos);
+                    fileos.sync();
+                    fileos.close();
+                    pfd.close();
+                    // the exporter stops at a write error and leaves the document truncated
+                    complete = exporter.getWriteError() == null;
+                } finally {
+                    if (!complete) {
+                        // a partial document is no export, whether writing failed, was cancelled or the
+                        // file could not be written
+                        closeQuietly(fileos);
+                        closeQuietly(pfd);
+                        DocumentFile.fromSingleUri(context, uri).delete();
+                    }
+                }
+                location = complete ? "/Documents/" + DocumentFile.fromSingleUri(context, uri).getName() : null;
+            } else {
+                location = writeFile(exporter, path);
+            }
+            return new Result(location, exporter.getWriteError(), null, exporter.hasNoQuantities(), exporter.getMetrics());
+        } catch (IOException e) {
+            Log.e("IOException", "Could not create file. " + e);
+            return new Result(null, exporter.getWriteError(), e, exporter.hasNoQuantities(), exporter.getMetrics());
+        }
+    }
+
+    private Result exportBatch(SQLiteExportDataSource dataSource, ExportSettings settings, int threads) {
+        BatchExporter batch = new BatchExporter(dataSource, settings, threads, monitor);
+        List<BatchExporter.Result> results;
+        try {
+            results = batch.export(projectIds, new BatchExporter.Target() {
+                @Override
+                public void write(int projectId, VegXExporter exporter) throws IOException {
+                    writeFile(exporter, path + "_" + projectId);
+                }
+            });
+        } catch (InterruptedException e) {
+            throw new CancellationException("export interrupted");
+        }
+
+        List<Result> projects = new ArrayList<Result>();
+        Exception writeError = null;
+        IOException fileError = null;
+        boolean noQuantities = false;
+        for (BatchExporter.Result result : results) {
+            VegXExporter exporter = result.getExporter();
+            Result project;
+            if (exporter == null) {
+                Log.e("Exception", "Could not export project " + result.getProjectId() + ". " + result.getError());
+                project = new Result(null, result.getError(), null, false, null);
+            } else if (result.getError() != null) {
+                Log.e("IOException", "Could not create file. " + result.getError());
+                project = new Result(null, exporter.getWriteError(), (IOException) result.getError(),
+                        exporter.hasNoQuantities(), exporter.getMetrics());
+            } else {
+                // a document with a write error was deleted
+                String location = exporter.getWriteError() == null ? filepath(path + "_" + result.getProjectId()) : null;
+                project = new Result(location, exporter.getWriteError(), null,
+                        exporter.hasNoQuantities(), exporter.getMetrics());
+            }
+            projects.add(project);
+            if (writeError == null) {
+                writeError = project.getWriteError();
+            }
+            if (fileError == null) {
+                fileError = project.getFileError();
+            }
+            noQuantities |= project.hasNoQuantities();
+        }
+        return new Result(new File(path).getParent(), writeError, fileError, noQuantities, null, projects);
+    }
+
+    // creates the indexes the export queries need in databases of older versions; debug builds log
+    // the plans of the queries. The export runs without the indexes, only slower. It writes, so it
+    // runs on the app's connection before the export's read-only one is opened.
+    private void prepare(SQLiteExportDataSource dataSource) {
+        try {
+            ExportIndexAdvisor advisor = new ExportIndexAdvisor(dataSource);
+            for (String line : advisor.prepare()) {
+                Log.d("ExportIndexAdvisor", line);
+            }
+            if (BuildConfig.DEBUG) {
+                for (int projectId : projectIds != null ? projectIds : Collections.singletonList(exportedProjectId)) {
+                    for (String line : advisor.explain(projectId)) {
+                        Log.d("ExportIndexAdvisor", line);
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            Log.e("Exception", "Could not prepare the database for the export. " + e);
+        }
+    }
+
+    // writes the document to path with the extension, and the metrics and index next to it;
+    // returns where it was written, null if the exporter had a write error and the file was deleted
+    private String writeFile(VegXExporter exporter, String path) throws IOException {
+        String filepath = filepath(path);
+        File newxmlfile = new File(filepath);
+        newxmlfile.createNewFile();
+        ChannelOutputStream fileos = new ChannelOutputStream(new FileOutputStream(newxmlfile));
+        boolean complete = false;
+        try {
+            exporter.write(fileos);
+            fileos.sync();
+            fileos.close();
+            // the exporter stops at a write error and leaves the document truncated
+            complete = exporter.getWriteError() == null;
+        } finally {
+            if (!complete) {
+                closeQuietly(fileos);
+                newxmlfile.delete();
+            }
+        }
+        if (!complete) {
+            return null;
+        }
+        ScanStorage.scan(newxmlfile, context);
+        if (metrics) {
+            writeMetrics(new File(path + ".metrics.json"), exporter.getMetrics());
+        }
+        if (compression == Compression.BLOCK_GZIP) {
+            writeIndex(new File(filepath + ".index"), exporter);
+        }
+        return filepath;
+    }
+
+    private String filepath(String path) {
+        return path + (compression == Compression.NONE ? ".xml" : ".xml.gz");
+    }
+
+    // the metrics are a diagnostic, the export has succeeded without them
+    private static void writeMetrics(File file, ExportMetrics metrics) {
+        try {
+            Writer writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+            try {
+                writer.write(metrics.toJson());
+            } finally {
+                writer.close();
+            }
+        } catch (IOException e) {
+            Log.e("IOException", "Could not write export metrics. " + e);
+        }
+    }
+
+    // like the metrics, the document is complete without its index
+    private static void writeIndex(File file, VegXExporter exporter) {
+        try {
+            Writer writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+            try {
+                exporter.writeIndex(writer);
+            } finally {
+                writer.close();
+            }
+        } catch (IOException e) {
+            Log.e("IOException", "Could not write export index. " + e);
+        }
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            Log.e("IOException", "Could not close file. " + e);
+        }
+    }
+
+    // hands the outcome to the callback on the main thread
+    private class ResultTask extends FutureTask<Result> {
+        ResultTask(Callable<Result> callable) {
+            super(callable);
+        }
+
+        @Override
+        protected void done() {
+            if (callback == null) {
+                return;
+            }
+            if (isCancelled()) {
+                mainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        callback.onCancelled();
+                    }
+                });
+                return;
+            }
+            Result result;
+            try {
+                result = get();
+            } catch (ExecutionException e) {
+                // the project could not be read, nothing was written
+                Log.e("Exception", "Could not export project. " + e.getCause());
+                Throwable cause = e.getCause();
+                result = new Result(null, cause instanceof Exception ? (Exception) cause : e, null, false, null);
+            } catch (InterruptedException e) {
+                // the task is done, get() does not wait
+                return;
+            }
+            final Result finished = result;
+            mainHandler.post(new Runnable() {
+                @Override
+                public void run() {
+                    callback.onFinished(finished);
+                }
+            });
+        }
+    }
+}
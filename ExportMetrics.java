@@ -0,0 +1,192 @@
+package edu.kit.ifgg.vegapp.common;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+
+/**
+ * Timing and counters of one export, per phase: wall time, queries issued to the data source and
+ * the rows they returned, elements and attributes written and the bytes of the document. Phases
+ * written in parallel overlap, their wall times add up to more than the export took.
+ *
+ * For an SQL data source it also has the distinct statements of the export's queries and how
+ * often the queries ran. Whether a run reused a prepared statement is up to the connection's
+ * statement cache, the counts do not tell. The exports of a batch share the statements, a later
+ * export mostly runs those of the ones before.
+ *
+ * The exporter fills it while it runs; read it from {@link VegXExporter#getMetrics()} or
+ * {@link ExportJob.Result#getMetrics()} once the export is done.
+ */
+
+public class ExportMetrics {
+
+    public static class Phase {
+        private final ExportPhase phase;
+        private long wallNanos;
+        private int queries;
+        private long rowsRead;
+        private long elements;
+        private long attributes;
+        private long bytes;
+
+        Phase(ExportPhase phase) {
+            this.phase = phase;
+        }
+
+        public ExportPhase getPhase() {
+            return phase;
+        }
+
+        public long getWallNanos() {
+            return wallNanos;
+        }
+
+        public int getQueries() {
+            return queries;
+        }
+
+        public long getRowsRead() {
+            return rowsRead;
+        }
+
+        public long getElements() {
+            return elements;
+        }
+
+        public long getAttributes() {
+            return attributes;
+        }
+
+        // bytes of the document written during the phase, before compression
+        public long getBytes() {
+            return bytes;
+        }
+    }
+
+    private final Map<ExportPhase, Phase> phases = new EnumMap<>(ExportPhase.class);
+    private Phase current;
+    private long startNanos;
+    private long elementsAtStart, attributesAtStart, bytesAtStart;
+    private long distinctStatements, statementRuns;
+
+    // ends the running phase and starts the next one; writer is null while nothing is written
+    void startPhase(ExportPhase phase, VegXWriter writer) {
+        finish(writer);
+        current = phases.get(phase);
+        if (current == null) {
+            current = new Phase(phase);
+            phases.put(phase, current);
+        }
+        startNanos = System.nanoTime();
+        if (writer != null) {
+            elementsAtStart = writer.getElementCount();
+            attributesAtStart = writer.getAttributeCount();
+            bytesAtStart = writer.getByteCount();
+        }
+    }
+
+    // ends the running phase, if any
+    void finish(VegXWriter writer) {
+        if (current == null) {
+            return;
+        }
+        current.wallNanos += System.nanoTime() - startNanos;
+        if (writer != null) {
+            current.elements += writer.getElementCount() - elementsAtStart;
+            current.attributes += writer.getAttributeCount() - attributesAtStart;
+            current.bytes += writer.getByteCount() - bytesAtStart;
+        }
+        current = null;
+    }
+
+    // a phase that was written in a fragment on another thread
+    void addPhase(ExportPhase phase, long wallNanos, long elements, long attributes, long bytes) {
+        Phase added = phases.get(phase);
+        if (added == null) {
+            added = new Phase(phase);
+            phases.put(phase, added);
+        }
+        added.wallNanos += wallNanos;
+        added.elements += elements;
+        added.attributes += attributes;
+        added.bytes += bytes;
+    }
+
+    // a query of the running phase that returned rows rows
+    void query(int rows) {
+        if (current != null) {
+            current.queries++;
+            current.rowsRead += rows;
+        }
+    }
+
+    // the distinct statements the export ran so far and how often it ran statements
+    void statements(long distinct, long runs) {
+        distinctStatements = distinct;
+        statementRuns = runs;
+    }
+
+    public long getDistinctStatements() {
+        return distinctStatements;
+    }
+
+    public long getStatementRuns() {
+        return statementRuns;
+    }
+
+    // the phases that ran, in the order of ExportPhase
+    public List<Phase> getPhases() {
+        return new ArrayList<>(phases.values());
+    }
+
+    // null if the phase did not run
+    public Phase get(ExportPhase phase) {
+        return phases.get(phase);
+    }
+
+    // sum of the phases, more than the export took if sections were written in parallel
+    public long getWallNanos() {
+        long sum = 0;
+        for (Phase phase : phases.values()) {
+            sum += phase.wallNanos;
+        }
+        return sum;
+    }
+
+    // one line per phase, for the metrics note of the document
+    public String toText() {
+        StringBuilder text = new StringBuilder("Export metrics (phase: ms, queries, rows read, elements, attributes, bytes):");
+        for (Phase phase : phases.values()) {
+            text.append('\n').append(String.format(Locale.ROOT, "%s: %d, %d, %d, %d, %d, %d", phase.phase.name(),
+                    phase.wallNanos / 1000000, phase.queries, phase.rowsRead, phase.elements, phase.attributes, phase.bytes));
+        }
+        if (statementRuns > 0) {
+            text.append('\n').append(String.format(Locale.ROOT, "Statements: %d distinct, %d runs",
+                    distinctStatements, statementRuns));
+        }
+        return text.toString();
+    }
+
+    // the metrics as JSON object, for the file written next to the document
+    public String toJson() {
+        StringBuilder json = new StringBuilder("{\n  \"wallNanos\": ").append(getWallNanos())
+                .append(",\n  \"distinctStatements\": ").append(distinctStatements)
+                .append(",\n  \"statementRuns\": ").append(statementRuns)
+                .append(",\n  \"phases\": [");
+        String separator = "\n";
+        for (Phase phase : phases.values()) {
+            json.append(separator).append("    {\"phase\": \"").append(phase.phase.name())
+                    .append("\", \"wallNanos\": ").append(phase.wallNanos)
+                    .append(", \"queries\": ").append(phase.queries)
+                    .append(", \"rowsRead\": ").append(phase.rowsRead)
+                    .append(", \"elements\": ").append(phase.elements)
+                    .append(", \"attributes\": ").append(phase.attributes)
+                    .append(", \"bytes\": ").append(phase.bytes).append('}');
+            separator = ",\n";
+        }
+        return json.append("\n  ]\n}\n").toString();
+    }
+}
@@ -0,0 +1,76 @@
+package edu.kit.ifgg.vegapp.common;
+
+import java.util.concurrent.CancellationException;
+
+
+/**
+ * Progress and cancellation of a running export. The exporter calls {@link #startPhase} before
+ * each phase and {@link #nextPlot()} for each plot of a plot loop; both throw a
+ * CancellationException once the export was cancelled.
+ *
+ * Progress is passed on when the phase changes and when the percentage of plots changes, so a
+ * listener does not see one call per plot. Sections written in parallel share one phase, their
+ * threads call {@link #nextPlot()} concurrently and the listener on the thread that reports.
+ */
+
+public class ExportMonitor {
+
+    public interface ProgressListener {
+        // plotsTotal is 0 for phases without a plot loop
+        void onProgress(ExportPhase phase, int plotsProcessed, int plotsTotal);
+    }
+
+    private final ProgressListener listener;
+    private volatile boolean cancelled;
+    private ExportPhase phase;
+    private int plotsProcessed;
+    private int plotsTotal;
+    private int percent;
+
+    // listener may be null
+    public ExportMonitor(ProgressListener listener) {
+        this.listener = listener;
+    }
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    void checkCancelled() {
+        if (cancelled || Thread.currentThread().isInterrupted()) {
+            throw new CancellationException("export cancelled");
+        }
+    }
+
+    // plotsTotal is 0 for phases without a plot loop
+    synchronized void startPhase(ExportPhase phase, int plotsTotal) {
+        checkCancelled();
+        this.phase = phase;
+        this.plotsTotal = plotsTotal;
+        plotsProcessed = 0;
+        percent = 0;
+        report();
+    }
+
+    synchronized void nextPlot() {
+        checkCancelled();
+        plotsProcessed++;
+        if (plotsTotal > 0) {
+            int p = (int) (100L * plotsProcessed / plotsTotal);
+            if (p != percent) {
+                percent = p;
+                report();
+            }
+        }
+    }
+
+    private void report() {
+        if (listener != null) {
+            listener.onProgress(phase, plotsProcessed, plotsTotal);
+        }
+    }
+}
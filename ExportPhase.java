@@ -0,0 +1,43 @@
+package edu.kit.ifgg.vegapp.common;
+
+
+/**
+ * The phases of a VegX export in the order they are written. Phases with a plot loop report
+ * their progress per plot.
+ */
+
+public enum ExportPhase {
+    READ(false),
+    PARTIES(false),
+    LITERATURE_CITATIONS(true),
+    METHODS(true),
+    ATTRIBUTES(false),
+    STRATA(false),
+    SURFACE_TYPES(false),
+    ORGANISM_NAMES(true),
+    TAXON_CONCEPTS(true),
+    ORGANISM_IDENTITIES(true),
+    COMMUNITY_CONCEPTS(true),
+    COMMUNITY_DETERMINATIONS(true),
+    PROJECT(false),
+    PLOTS(true),
+    INDIVIDUAL_ORGANISMS(true),
+    PLOT_OBSERVATIONS(true),
+    INDIVIDUAL_ORGANISM_OBSERVATIONS(true),
+    AGGREGATE_ORGANISM_OBSERVATIONS(true),
+    STRATUM_OBSERVATIONS(true),
+    COMMUNITY_OBSERVATIONS(true),
+    SURFACE_COVER_OBSERVATIONS(true),
+    SITE_OBSERVATIONS(true),
+    NOTES(false);
+
+    private final boolean plotLoop;
+
+    ExportPhase(boolean plotLoop) {
+        this.plotLoop = plotLoop;
+    }
+
+    public boolean isPlotLoop() {
+        return plotLoop;
+    }
+}
@@ -0,0 +1,170 @@
+package edu.kit.ifgg.vegapp.common;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.Deflater;
+
+
+/**
+ * What the export needs besides the database: the app named in the first note, the species list
+ * named in the second one and the strata of the layer system.
+ *
+ * The options that only change how the document is produced have setters; their defaults give
+ * the plain sequential export.
+ */
+
+public class ExportSettings {
+    private final String application;
+    private final String version;
+    private final String speciesListName;
+    private final String speciesListTerms;
+    private final List<Stratum> strata;
+    private boolean metricsNote;
+    private int parallelism = 1;
+    private File fragmentDirectory;
+    private long memoryBudget;
+    private FragmentStore fragmentStore;
+    private Compression compression = Compression.NONE;
+    private int compressionLevel = Deflater.DEFAULT_COMPRESSION;
+    private String encoding = VegXWriter.ISO_8859_1;
+    private boolean compact;
+    private boolean distinctOrganismNames;
+
+    // application as it appears in "Data collection and export were done using <application> for Android <version>."
+    public ExportSettings(String application, String version, String speciesListName, String speciesListTerms, List<Stratum> strata) {
+        this.application = application;
+        this.version = version;
+        this.speciesListName = speciesListName;
+        this.speciesListTerms = speciesListTerms;
+        this.strata = Collections.unmodifiableList(new ArrayList<>(strata));
+    }
+
+    public String getApplication() {
+        return application;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    public String getSpeciesListName() {
+        return speciesListName;
+    }
+
+    public String getSpeciesListTerms() {
+        return speciesListTerms;
+    }
+
+    public List<Stratum> getStrata() {
+        return strata;
+    }
+
+    // add the ExportMetrics as last note of the document
+    public void setMetricsNote(boolean metricsNote) {
+        this.metricsNote = metricsNote;
+    }
+
+    public boolean isMetricsNote() {
+        return metricsNote;
+    }
+
+    // threads that write the sections from organismNames to siteObservations, 1 writes them in turn
+    public void setParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be at least 1: " + parallelism);
+        }
+        this.parallelism = parallelism;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    // sections written in parallel are kept in temporary files there, null keeps them in memory
+    public void setFragmentDirectory(File fragmentDirectory) {
+        this.fragmentDirectory = fragmentDirectory;
+    }
+
+    public File getFragmentDirectory() {
+        return fragmentDirectory;
+    }
+
+    // heap in bytes the export may hold of the project: plots are read in windows that fit in it and
+    // the parties spill to a temporary file in the fragment directory. The sections are then written
+    // in turn whatever the parallelism. 0, the default, reads the whole project at once.
+    public void setMemoryBudget(long memoryBudget) {
+        if (memoryBudget < 0) {
+            throw new IllegalArgumentException("memory budget must not be negative: " + memoryBudget);
+        }
+        this.memoryBudget = memoryBudget;
+    }
+
+    public long getMemoryBudget() {
+        return memoryBudget;
+    }
+
+    // the plots of the last export of the project, those that did not change are copied from there;
+    // null, the default, writes every plot
+    public void setFragmentStore(FragmentStore fragmentStore) {
+        this.fragmentStore = fragmentStore;
+    }
+
+    public FragmentStore getFragmentStore() {
+        return fragmentStore;
+    }
+
+    // level 0 to 9 as for Deflater, -1 for its default
+    public void setCompression(Compression compression, int level) {
+        if (level < Deflater.DEFAULT_COMPRESSION || level > Deflater.BEST_COMPRESSION) {
+            throw new IllegalArgumentException("compression level must be -1 to 9: " + level);
+        }
+        this.compression = compression;
+        this.compressionLevel = level;
+    }
+
+    public Compression getCompression() {
+        return compression;
+    }
+
+    public int getCompressionLevel() {
+        return compressionLevel;
+    }
+
+    // VegXWriter.ISO_8859_1, the default, or VegXWriter.UTF_8, which writes the characters beyond
+    // ISO-8859-1 as they are instead of as character references
+    public void setEncoding(String encoding) {
+        if (VegXWriter.ISO_8859_1.equalsIgnoreCase(encoding)) {
+            this.encoding = VegXWriter.ISO_8859_1;
+        } else if (VegXWriter.UTF_8.equalsIgnoreCase(encoding)) {
+            this.encoding = VegXWriter.UTF_8;
+        } else {
+            throw new IllegalArgumentException("unsupported encoding " + encoding);
+        }
+    }
+
+    public String getEncoding() {
+        return encoding;
+    }
+
+    // write the document without line breaks and indentation, for documents only programs read
+    public void setCompact(boolean compact) {
+        this.compact = compact;
+    }
+
+    public boolean isCompact() {
+        return compact;
+    }
+
+    // write each distinct organism name once instead of once per species and individual; the
+    // organism identities and taxon concepts refer to the one written. The name sections then do
+    // not use the FragmentStore, which of the rows writes a name depends on the other plots.
+    public void setDistinctOrganismNames(boolean distinctOrganismNames) {
+        this.distinctOrganismNames = distinctOrganismNames;
+    }
+
+    public boolean isDistinctOrganismNames() {
+        return distinctOrganismNames;
+    }
+}
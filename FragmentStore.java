@@ -0,0 +1,291 @@
+package edu.kit.ifgg.vegapp.common;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileFilter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+
+
+/**
+ * The XML of each plot in the plot sections of the last export of a project, for incremental
+ * exports. Every fragment is stored with the plot's _id and the fingerprint of the rows it was
+ * written from (the plot, its species, individuals and layers); the next export copies it instead
+ * of writing the plot again as long as the fingerprint is the same.
+ *
+ * A section of a project is kept in one file of the directory. It also holds the fingerprint of
+ * what all plots depend on, the project, its custom fields, the settings with the app version and
+ * the methods of the document; a file with another one is not used. The file is replaced once the
+ * section was written completely.
+ *
+ * The files of all projects share the directory up to a size; beyond it the ones used least
+ * recently are deleted.
+ */
+
+public class FragmentStore {
+    private static final int MAGIC = 0x56657846;
+    // increase when the exporter writes the plots differently
+    private static final int FORMAT = 1;
+    // length of a SHA-1 fingerprint
+    private static final int FINGERPRINT = 20;
+    private static final String SUFFIX = ".fragments";
+
+    private final File directory;
+    private final long maxBytes;
+
+    public FragmentStore(File directory) {
+        this(directory, Long.MAX_VALUE);
+    }
+
+    // maxBytes for the files of all sections together
+    public FragmentStore(File directory, long maxBytes) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+    }
+
+    // the stored fragments of a section, and the file its new ones are written to
+    Section open(String name, byte[] context) throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("cannot create " + directory);
+        }
+        return new Section(this, new File(directory, name + SUFFIX), context);
+    }
+
+    // deletes the files used least recently until the others fit in maxBytes
+    synchronized void evict() {
+        File[] files = directory.listFiles(new FileFilter() {
+            @Override
+            public boolean accept(File file) {
+                return file.getName().endsWith(SUFFIX);
+            }
+        });
+        if (files == null) {
+            return;
+        }
+        long total = 0;
+        for (File file : files) {
+            total += file.length();
+        }
+        if (total <= maxBytes) {
+            return;
+        }
+        Arrays.sort(files, new Comparator<File>() {
+            @Override
+            public int compare(File a, File b) {
+                return Long.compare(a.lastModified(), b.lastModified());
+            }
+        });
+        for (int i = 0; i < files.length && total > maxBytes; i++) {
+            long length = files[i].length();
+            if (files[i].delete()) {
+                total -= length;
+            }
+        }
+    }
+
+    // fingerprint of the current row of plot, of what else it is written from and of all rows of its children
+    static byte[] fingerprint(SnapshotCursor plot, String more, SnapshotCursor... children) {
+        MessageDigest digest = digest();
+        update(digest, plot);
+        update(digest, more);
+        for (SnapshotCursor child : children) {
+            digest.update((byte) '\n');
+            while (child.moveToNext()) {
+                update(digest, child);
+            }
+        }
+        return digest.digest();
+    }
+
+    // the current row of a cursor
+    static void update(MessageDigest digest, SnapshotCursor cursor) {
+        int columns = cursor.getColumnCount();
+        for (int i = 0; i < columns; i++) {
+            update(digest, cursor.getString(i));
+        }
+        digest.update((byte) '\n');
+    }
+
+    static void update(MessageDigest digest, String value) {
+        if (value == null) {
+            digest.update((byte) 0);
+            return;
+        }
+        digest.update((byte) 1);
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            digest.update((byte) (c >> 8));
+            digest.update((byte) c);
+        }
+        digest.update((byte) 0);
+    }
+
+    static MessageDigest digest() {
+        try {
+            return MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // a plot of a stored section
+    static class Fragment {
+        final boolean started;
+        final boolean quantity;
+        final boolean indent;
+        final long elements;
+        final long attributes;
+        private final byte[] fingerprint;
+        private final long position;
+        private final int length;
+
+        Fragment(byte[] fingerprint, int flags, long elements, long attributes, long position, int length) {
+            this.fingerprint = fingerprint;
+            started = (flags & 1) != 0;
+            quantity = (flags & 2) != 0;
+            indent = (flags & 4) != 0;
+            this.elements = elements;
+            this.attributes = attributes;
+            this.position = position;
+            this.length = length;
+        }
+    }
+
+    static class Section {
+        private final FragmentStore store;
+        private final File file;
+        private final File next;
+        private final byte[] context;
+        private final Map<String, Fragment> fragments = new HashMap<>();
+        private RandomAccessFile stored;
+        private final DataOutputStream out;
+        private final byte[] buffer = new byte[8192];
+
+        Section(FragmentStore store, File file, byte[] context) throws IOException {
+            this.store = store;
+            this.file = file;
+            this.context = context;
+            next = new File(file.getPath() + ".new");
+            if (file.isFile()) {
+                read();
+            }
+            out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(next)));
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT);
+            out.write(context);
+        }
+
+        // the stored fragment of the plot if it was written from rows with this fingerprint, null otherwise
+        Fragment find(String plotId, byte[] fingerprint) {
+            Fragment fragment = fragments.get(plotId);
+            return fragment != null && Arrays.equals(fragment.fingerprint, fingerprint) ? fragment : null;
+        }
+
+        // copies a stored fragment to out and keeps it for the next export
+        void copy(String plotId, Fragment fragment, OutputStream to) throws IOException {
+            writeHeader(plotId, fragment.fingerprint, fragment.started, fragment.quantity, fragment.indent,
+                    fragment.elements, fragment.attributes, fragment.length);
+            stored.seek(fragment.position);
+            int remaining = fragment.length;
+            while (remaining > 0) {
+                int n = Math.min(buffer.length, remaining);
+                stored.readFully(buffer, 0, n);
+                out.write(buffer, 0, n);
+                to.write(buffer, 0, n);
+                remaining -= n;
+            }
+        }
+
+        // a plot that was written again
+        void add(String plotId, byte[] fingerprint, boolean started, boolean quantity, boolean indent,
+                 long elements, long attributes, byte[] bytes, int length) throws IOException {
+            writeHeader(plotId, fingerprint, started, quantity, indent, elements, attributes, length);
+            out.write(bytes, 0, length);
+        }
+
+        // replaces the stored fragments with the ones of this export
+        void commit() throws IOException {
+            close();
+            if (file.exists() && !file.delete() || !next.renameTo(file)) {
+                throw new IOException("cannot replace " + file);
+            }
+            // the new file is the one used last
+            file.setLastModified(System.currentTimeMillis());
+            store.evict();
+        }
+
+        // keeps the stored fragments, e.g. after the section failed
+        void abort() {
+            try {
+                close();
+            } catch (IOException e) {
+                // the file is deleted anyway
+            }
+            next.delete();
+        }
+
+        private void close() throws IOException {
+            try {
+                out.close();
+            } finally {
+                if (stored != null) {
+                    stored.close();
+                    stored = null;
+                }
+            }
+        }
+
+        private void writeHeader(String plotId, byte[] fingerprint, boolean started, boolean quantity, boolean indent,
+                                 long elements, long attributes, int length) throws IOException {
+            out.writeUTF(plotId);
+            out.write(fingerprint);
+            out.writeByte((started ? 1 : 0) | (quantity ? 2 : 0) | (indent ? 4 : 0));
+            out.writeLong(elements);
+            out.writeLong(attributes);
+            out.writeInt(length);
+        }
+
+        // the index of the stored fragments, nothing if they belong to another context or format
+        private void read() throws IOException {
+            stored = new RandomAccessFile(file, "r");
+            try {
+                byte[] storedContext = new byte[FINGERPRINT];
+                if (stored.readInt() != MAGIC || stored.readInt() != FORMAT) {
+                    return;
+                }
+                stored.readFully(storedContext);
+                if (!Arrays.equals(storedContext, context)) {
+                    return;
+                }
+                long end = stored.length();
+                while (stored.getFilePointer() < end) {
+                    String plotId = stored.readUTF();
+                    byte[] fingerprint = new byte[FINGERPRINT];
+                    stored.readFully(fingerprint);
+                    int flags = stored.readByte();
+                    long elements = stored.readLong();
+                    long attributes = stored.readLong();
+                    int length = stored.readInt();
+                    long position = stored.getFilePointer();
+                    if (position + length > end) {
+                        break;
+                    }
+                    fragments.put(plotId, new Fragment(fingerprint, flags, elements, attributes, position, length));
+                    stored.seek(position + length);
+                }
+            } catch (EOFException e) {
+                // a file cut short, the fragments read so far are complete
+            }
+        }
+    }
+}
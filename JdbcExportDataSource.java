@@ -0,0 +1,129 @@
+package edu.kit.ifgg.vegapp.common;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * Reads the export tables over JDBC, so the export runs on a plain JVM against a copy of the
+ * Vegapp database (with the sqlite-jdbc driver on the class path). Each query is prepared once and
+ * its statement kept until {@link #close()}; the connection is used by one query at a time.
+ *
+ * Usage: java edu.kit.ifgg.vegapp.common.JdbcExportDataSource vegapp.db projectId out.xml
+ */
+
+public class JdbcExportDataSource extends SqlExportDataSource {
+    private final Connection connection;
+    private final Map<String, PreparedStatement> statements = new HashMap<>();
+
+    public JdbcExportDataSource(Connection connection) {
+        this.connection = connection;
+    }
+
+    // opens an SQLite database file, the caller closes it with close()
+    public static JdbcExportDataSource open(String databasePath) throws SQLException {
+        return new JdbcExportDataSource(DriverManager.getConnection("jdbc:sqlite:" + databasePath));
+    }
+
+    public Connection getConnection() {
+        return connection;
+    }
+
+    // closes the prepared statements and the connection
+    public synchronized void close() throws SQLException {
+        try {
+            for (PreparedStatement statement : statements.values()) {
+                statement.close();
+            }
+            statements.clear();
+        } finally {
+            connection.close();
+        }
+    }
+
+    @Override
+    protected synchronized TableSnapshot query(String sql, String... args) {
+        try {
+            PreparedStatement statement = statements.get(sql);
+            if (statement == null) {
+                statement = connection.prepareStatement(sql);
+                statements.put(sql, statement);
+            }
+            for (int i = 0; i < args.length; i++) {
+                statement.setString(i + 1, args[i]);
+            }
+            return read(statement.executeQuery());
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not run query " + sql, e);
+        }
+    }
+
+    // reads all rows of the result set and closes it
+    private static TableSnapshot read(ResultSet resultSet) throws SQLException {
+        try {
+            ResultSetMetaData meta = resultSet.getMetaData();
+            String[] names = new String[meta.getColumnCount()];
+            boolean[] blob = new boolean[names.length];
+            for (int i = 0; i < names.length; i++) {
+                names[i] = meta.getColumnLabel(i + 1);
+                int type = meta.getColumnType(i + 1);
+                // blobs are never exported
+                blob[i] = type == Types.BLOB || type == Types.BINARY || type == Types.VARBINARY || type == Types.LONGVARBINARY;
+            }
+            List<String[]> rows = new ArrayList<>();
+            while (resultSet.next()) {
+                String[] row = new String[names.length];
+                for (int i = 0; i < names.length; i++) {
+                    if (!blob[i]) {
+                        row[i] = resultSet.getString(i + 1);
+                    }
+                }
+                rows.add(row);
+            }
+            return new TableSnapshot(names, rows);
+        } finally {
+            resultSet.close();
+        }
+    }
+
+    @Override
+    protected synchronized void execute(String sql) {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not run statement " + sql, e);
+        }
+    }
+
+    public static void main(String[] args) throws SQLException, IOException {
+        if (args.length != 3) {
+            System.err.println("usage: JdbcExportDataSource <database> <project id> <output file>");
+            System.exit(2);
+        }
+        JdbcExportDataSource dataSource = open(args[0]);
+        try (ChannelOutputStream out = new ChannelOutputStream(new FileOutputStream(args[2]))) {
+            ExportSettings settings = new ExportSettings("Vegapp", "JVM", "", "", Collections.<Stratum>emptyList());
+            VegXExporter exporter = new VegXExporter(dataSource, Integer.parseInt(args[1]), settings);
+            exporter.write(out);
+            out.sync();
+            if (exporter.getWriteError() != null) {
+                System.err.println("Could not write file. " + exporter.getWriteError());
+            }
+        } finally {
+            dataSource.close();
+        }
+    }
+}
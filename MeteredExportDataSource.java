@@ -0,0 +1,118 @@
+package edu.kit.ifgg.vegapp.common;
+
+
+/**
+ * Passes the queries of an export to its data source and counts them and their rows in the
+ * running phase of {@link ExportMetrics}.
+ */
+
+class MeteredExportDataSource implements ExportDataSource {
+    private final ExportDataSource dataSource;
+    private final ExportMetrics metrics;
+
+    MeteredExportDataSource(ExportDataSource dataSource, ExportMetrics metrics) {
+        this.dataSource = dataSource;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public TableSnapshot project(int projectId) {
+        return count(dataSource.project(projectId));
+    }
+
+    @Override
+    public TableSnapshot plots(int projectId, String[] columns) {
+        return count(dataSource.plots(projectId, columns));
+    }
+
+    @Override
+    public TableSnapshot plotChildren(String table, int projectId, String[] columns) {
+        return count(dataSource.plotChildren(table, projectId, columns));
+    }
+
+    @Override
+    public TableSnapshot individuals(int projectId, String[] columns) {
+        return count(dataSource.individuals(projectId, columns));
+    }
+
+    @Override
+    public TableSnapshot observers(int projectId) {
+        return count(dataSource.observers(projectId));
+    }
+
+    @Override
+    public int plotCount(int projectId) {
+        return count(dataSource.plotCount(projectId));
+    }
+
+    @Override
+    public TableSnapshot plots(int projectId, long afterId, int limit, String[] columns) {
+        return count(dataSource.plots(projectId, afterId, limit, columns));
+    }
+
+    @Override
+    public TableSnapshot plotChildren(String table, int projectId, long afterId, int limit, String[] columns) {
+        return count(dataSource.plotChildren(table, projectId, afterId, limit, columns));
+    }
+
+    @Override
+    public int plotChildCount(String table, int projectId) {
+        return count(dataSource.plotChildCount(table, projectId));
+    }
+
+    @Override
+    public TableSnapshot individuals(int projectId, long afterId, int limit, String[] columns) {
+        return count(dataSource.individuals(projectId, afterId, limit, columns));
+    }
+
+    @Override
+    public int individualCount(int projectId) {
+        return count(dataSource.individualCount(projectId));
+    }
+
+    @Override
+    public int observerCount(int projectId) {
+        return count(dataSource.observerCount(projectId));
+    }
+
+    @Override
+    public TableSnapshot observers(int projectId, long afterId, int limit) {
+        return count(dataSource.observers(projectId, afterId, limit));
+    }
+
+    @Override
+    public TableSnapshot plotObservers(int projectId, long afterId, int limit) {
+        return count(dataSource.plotObservers(projectId, afterId, limit));
+    }
+
+    @Override
+    public TableSnapshot customFields(int profileId) {
+        return count(dataSource.customFields(profileId));
+    }
+
+    @Override
+    public TableSnapshot layerSystem(String layerSystemId) {
+        return count(dataSource.layerSystem(layerSystemId));
+    }
+
+    @Override
+    public TableSnapshot coverScaleNames(String codes) {
+        return count(dataSource.coverScaleNames(codes));
+    }
+
+    @Override
+    public TableSnapshot coverCodes(String codeId) {
+        return count(dataSource.coverCodes(codeId));
+    }
+
+    private TableSnapshot count(TableSnapshot rows) {
+        metrics.query(rows.getCount());
+        return rows;
+    }
+
+    // a count query reads one row
+    private int count(int count) {
+        metrics.query(1);
+        return count;
+    }
+}
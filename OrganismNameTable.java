@@ -0,0 +1,141 @@
+package edu.kit.ifgg.vegapp.common;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+
+/**
+ * The organism names of an export ("cf. Genus cf. species"), one entry per distinct genus, species
+ * and cf. flags. The same taxa occur in many plots; each name is assembled once, and its entry is
+ * shared by all species and individual rows with that taxon and by the sections that refer to it.
+ *
+ * An entry also knows the row it was first resolved for. An export that writes each name only once
+ * (see {@link ExportSettings#setDistinctOrganismNames(boolean)}) writes it with that row and lets
+ * the other rows refer to it; the rows are then resolved in document order before any section is
+ * written in parallel, so the first row does not depend on the threads.
+ *
+ * Names are resolved on the threads of a parallel export at the same time, the entries are kept in
+ * a concurrent map.
+ */
+
+public class OrganismNameTable {
+
+    public static class Entry {
+        private final String name;
+        private final String firstId;
+        private final boolean firstIndividual;
+        private final String nameId;
+
+        Entry(String name, String firstId, boolean firstIndividual) {
+            this.name = name;
+            this.firstId = firstId;
+            this.firstIndividual = firstIndividual;
+            nameId = "organismName_" + firstId + (firstIndividual ? "_i" : "");
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        // id of the organismName written for the row the entry was first resolved for
+        public String getNameId() {
+            return nameId;
+        }
+
+        // whether the species (individual false) or individual row is the one the entry was first resolved for
+        public boolean isFirst(String rowId, boolean individual) {
+            return firstIndividual == individual && firstId.equals(rowId);
+        }
+    }
+
+    private static class Key {
+        private final String genus;
+        private final boolean genusCf;
+        private final String spec;
+        private final boolean specCf;
+
+        Key(String genus, boolean genusCf, String spec, boolean specCf) {
+            this.genus = genus;
+            this.genusCf = genusCf;
+            this.spec = spec;
+            this.specCf = specCf;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return genusCf == other.genusCf && specCf == other.specCf && equal(genus, other.genus) && equal(spec, other.spec);
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = genus == null ? 0 : genus.hashCode();
+            hash = 31 * hash + (spec == null ? 0 : spec.hashCode());
+            return 4 * hash + (genusCf ? 2 : 0) + (specCf ? 1 : 0);
+        }
+    }
+
+    private final ConcurrentMap<Key, Entry> entries = new ConcurrentHashMap<>();
+    // assembles the names that were not resolved before
+    private final StringBuilder builder = new StringBuilder();
+
+    // the entry of the name of a species or individual row; a cf. flag of 1 marks the genus or
+    // species as uncertain, an empty genus or species is left out like a missing one
+    public Entry resolve(String genus, int genusCf, String spec, int specCf, String rowId, boolean individual) {
+        Key key = new Key(value(genus), genusCf == 1, value(spec), specCf == 1);
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            Entry added = new Entry(assemble(key), rowId, individual);
+            entry = entries.putIfAbsent(key, added);
+            if (entry == null) {
+                entry = added;
+            }
+        }
+        return entry;
+    }
+
+    // the number of distinct names
+    public int size() {
+        return entries.size();
+    }
+
+    private String assemble(Key key) {
+        synchronized (builder) {
+            builder.setLength(0);
+            if (key.genusCf) {
+                append("cf.");
+            }
+            if (key.genus != null) {
+                append(key.genus);
+            }
+            if (key.specCf) {
+                append("cf.");
+            }
+            if (key.spec != null) {
+                append(key.spec);
+            }
+            return builder.toString();
+        }
+    }
+
+    private void append(String part) {
+        if (builder.length() > 0) {
+            builder.append(' ');
+        }
+        builder.append(part);
+    }
+
+    private static String value(String s) {
+        return s == null || s.isEmpty() ? null : s;
+    }
+
+    private static boolean equal(String a, String b) {
+        return a == null ? b == null : a.equals(b);
+    }
+}
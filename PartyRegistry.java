@@ -0,0 +1,80 @@
+package edu.kit.ifgg.vegapp.common;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+
+/**
+ * The parties of an export, filled while the parties section is written. Observers with the same
+ * name are written once; the plot observations refer to them through the id of the party that
+ * was written, which {@link #canonicalId(String)} finds in constant time.
+ *
+ * An export with a memory budget keeps the names of the parties written in a
+ * {@link SpillableIndex} and only knows the observers of the plots it is working on, which it
+ * names through {@link #nameObserver(String, String)}.
+ */
+
+public class PartyRegistry {
+    // observer party id -> name
+    private final Map<String, String> names = new HashMap<>();
+    // name -> id of the party written for it
+    private final SpillableIndex canonicalIds;
+    private final Set<String> dataOwners = new HashSet<>();
+    private final boolean keepNames;
+
+    public PartyRegistry() {
+        this(new SpillableIndex(Integer.MAX_VALUE, null), true);
+    }
+
+    PartyRegistry(SpillableIndex canonicalIds, boolean keepNames) {
+        this.canonicalIds = canonicalIds;
+        this.keepNames = keepNames;
+    }
+
+    // registers an observer, returns true if it is the first one with this name and has to be written
+    public boolean addObserver(String id, String name) throws IOException {
+        if (keepNames) {
+            names.put(id, name);
+        }
+        if (canonicalIds.containsKey(name)) {
+            return false;
+        }
+        canonicalIds.put(name, id);
+        return true;
+    }
+
+    // an observer of the plots being written, when the names of addObserver are not kept
+    void nameObserver(String id, String name) {
+        names.put(id, name);
+    }
+
+    void forgetObserverNames() {
+        names.clear();
+    }
+
+    public void addDataOwner(String id) {
+        dataOwners.add(id);
+    }
+
+    public boolean isDataOwner(String id) {
+        return dataOwners.contains(id);
+    }
+
+    // id of the party written for this observer's name, the id itself if the observer is unknown
+    public String canonicalId(String id) throws IOException {
+        String name = names.get(id);
+        if (name == null) {
+            return id;
+        }
+        String canonical = canonicalIds.get(name);
+        return canonical != null ? canonical : id;
+    }
+
+    // deletes the file of the index, if it spilled to one
+    void close() throws IOException {
+        canonicalIds.close();
+    }
+}
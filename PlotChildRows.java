@@ -0,0 +1,66 @@
+package edu.kit.ifgg.vegapp.common;
+
+import java.util.HashMap;
+import java.util.Map;
+
+
+/**
+ * Rows of a child table (species, individuals, plot_layer) for all plots of a project. They are
+ * read with a single query ordered by plot id, so the rows of one plot form a contiguous run
+ * which {@link #forPlot(String)} hands out without another query.
+ */
+
+public class PlotChildRows {
+    private final TableSnapshot rows;
+    // plot id -> {first row, end row}
+    private final Map<String, int[]> plotRanges = new HashMap<>();
+
+    // rows have to be ordered by plotIdColumn
+    public PlotChildRows(TableSnapshot rows, String plotIdColumn) {
+        this.rows = rows;
+        int column = rows.getColumnIndex(plotIdColumn);
+        if (column < 0) {
+            throw new IllegalArgumentException("column '" + plotIdColumn + "' does not exist");
+        }
+        String current = null;
+        int start = 0;
+        for (int i = 0; i < rows.getCount(); i++) {
+            String plotId = rows.get(i, column);
+            if (i > 0 && !equal(plotId, current)) {
+                addRange(current, start, i);
+                start = i;
+            }
+            current = plotId;
+        }
+        if (rows.getCount() > 0) {
+            addRange(current, start, rows.getCount());
+        }
+    }
+
+    // rows belonging to the given plot, empty if there are none
+    public SnapshotCursor forPlot(String plotId) {
+        int[] range = plotRanges.get(plotId);
+        if (range == null) {
+            return rows.cursor(0, 0);
+        }
+        return rows.cursor(range[0], range[1]);
+    }
+
+    public int getCount() {
+        return rows.getCount();
+    }
+
+    public TableSnapshot getRows() {
+        return rows;
+    }
+
+    private void addRange(String plotId, int start, int end) {
+        if (plotId != null) {
+            plotRanges.put(plotId, new int[]{start, end});
+        }
+    }
+
+    private static boolean equal(String a, String b) {
+        return a == null ? b == null : a.equals(b);
+    }
+}
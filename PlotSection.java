@@ -0,0 +1,55 @@
+package edu.kit.ifgg.vegapp.common;
+
+import java.io.IOException;
+
+
+/**
+ * The plot loop of one section of the document, e.g. aggregateOrganismObservations. The loop
+ * calls {@link #start()} before it writes its first element, the section's tag is only written
+ * if one of the plots did.
+ *
+ * {@link VegXExporter} runs the loop over all plots at once, over chunks of plots on several
+ * threads whose output is appended in plot order, or plot by plot for a {@link FragmentStore}; the
+ * loop itself does not know which.
+ */
+
+class PlotSection {
+
+    interface Body {
+        // writes the elements of the plots of plotCursor
+        void write(VegXWriter serializer, SnapshotCursor plotCursor, PlotSection section) throws IOException;
+    }
+
+    // null for a chunk, the tag is written when the chunks are appended
+    private final VegXWriter serializer;
+    private final String name;
+    private boolean started;
+    private boolean quantity;
+
+    PlotSection(VegXWriter serializer, String name) {
+        this.serializer = serializer;
+        this.name = name;
+    }
+
+    void start() throws IOException {
+        if (!started) {
+            started = true;
+            if (serializer != null) {
+                serializer.startTag(null, name);
+            }
+        }
+    }
+
+    boolean isStarted() {
+        return started;
+    }
+
+    // aggregateOrganismObservations found a species with a quantity
+    void foundQuantity() {
+        quantity = true;
+    }
+
+    boolean hasQuantity() {
+        return quantity;
+    }
+}
@@ -0,0 +1,109 @@
+package edu.kit.ifgg.vegapp.common;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.os.Build;
+
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * Reads the export tables from the app's database. The connection keeps the statements it
+ * prepared and runs them again for the same SQL; the cache of a connection opened for the export
+ * is made large enough for all of its queries. The app's own connections keep their cache size.
+ *
+ * {@link #openReadOnly(SQLiteDatabase, boolean)} reads on a connection of its own that cannot write,
+ * so an export never holds the app's writer connection while data entry goes on. On a database in
+ * WAL mode a snapshot export also runs in one read transaction (API 35 and later): all its queries
+ * see the database as it was when the transaction began, whatever is written meanwhile. Without
+ * WAL a long read transaction would keep the app from writing, so the queries run one by one as
+ * before.
+ */
+
+public class SQLiteExportDataSource extends SqlExportDataSource {
+    // more than the statements of the export, the connection keeps 25 by default
+    private static final int STATEMENT_CACHE_SIZE = 64;
+
+    private final SQLiteDatabase db;
+    // the connection was opened for the export and is closed with it
+    private final boolean own;
+    private boolean inTransaction;
+
+    public SQLiteExportDataSource(SQLiteDatabase db) {
+        this(db, false);
+    }
+
+    private SQLiteExportDataSource(SQLiteDatabase db, boolean own) {
+        this.db = db;
+        this.own = own;
+    }
+
+    // reads the database of db on a read-only connection of its own; with snapshot the queries of the
+    // calling thread run in one read transaction until close(), where the database allows it. The
+    // indexes of the ExportIndexAdvisor have to be created on db before.
+    public static SQLiteExportDataSource openReadOnly(SQLiteDatabase db, boolean snapshot) {
+        boolean wal = db.isWriteAheadLoggingEnabled();
+        int flags = SQLiteDatabase.OPEN_READONLY | (wal ? SQLiteDatabase.ENABLE_WRITE_AHEAD_LOGGING : 0);
+        SQLiteDatabase connection = SQLiteDatabase.openDatabase(db.getPath(), null, flags);
+        connection.setMaxSqlCacheSize(STATEMENT_CACHE_SIZE);
+        SQLiteExportDataSource dataSource = new SQLiteExportDataSource(connection, true);
+        if (snapshot && wal && Build.VERSION.SDK_INT >= Build.VERSION_CODES.VANILLA_ICE_CREAM) {
+            try {
+                dataSource.db.beginTransactionReadOnly();
+                dataSource.inTransaction = true;
+            } catch (RuntimeException e) {
+                dataSource.close();
+                throw e;
+            }
+        }
+        return dataSource;
+    }
+
+    // whether the queries see one state of the database, see openReadOnly()
+    public boolean isSnapshot() {
+        return inTransaction;
+    }
+
+    // ends the read transaction, on the thread that began it, and closes a connection of openReadOnly()
+    public void close() {
+        if (inTransaction) {
+            inTransaction = false;
+            db.endTransaction();
+        }
+        if (own) {
+            db.close();
+        }
+    }
+
+    @Override
+    protected TableSnapshot query(String sql, String... args) {
+        return read(db.rawQuery(sql, args));
+    }
+
+    @Override
+    protected void execute(String sql) {
+        db.execSQL(sql);
+    }
+
+    // reads all rows of the cursor and closes it
+    public static TableSnapshot read(Cursor cursor) {
+        try {
+            String[] names = cursor.getColumnNames();
+            List<String[]> rows = new ArrayList<>(Math.max(cursor.getCount(), 0));
+            while (cursor.moveToNext()) {
+                String[] row = new String[names.length];
+                for (int i = 0; i < names.length; i++) {
+                    // blobs are never exported, getString() would throw on them
+                    if (cursor.getType(i) != Cursor.FIELD_TYPE_BLOB) {
+                        row[i] = cursor.getString(i);
+                    }
+                }
+                rows.add(row);
+            }
+            return new TableSnapshot(names, rows);
+        } finally {
+            cursor.close();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package edu.kit.ifgg.vegapp.common;
+
+
+/**
+ * Forward cursor over the rows of a {@link TableSnapshot}. It mirrors the part of
+ * android.database.Cursor the export uses, so loops over snapshot rows read the same as loops
+ * over database rows. Several cursors may walk the same snapshot at once.
+ */
+
+public class SnapshotCursor {
+    private TableSnapshot table;
+    private int start;
+    private int end;
+    private int position;
+
+    SnapshotCursor(TableSnapshot table, int start, int end) {
+        this.table = table;
+        this.start = start;
+        this.end = end;
+        this.position = start - 1;
+    }
+
+    // points the cursor at other rows, positioned before the first of them
+    void reset(TableSnapshot table, int start, int end) {
+        this.table = table;
+        this.start = start;
+        this.end = end;
+        this.position = start - 1;
+    }
+
+    public boolean moveToNext() {
+        if (position < end) {
+            position++;
+        }
+        return position < end;
+    }
+
+    public boolean moveToFirst() {
+        position = start;
+        return start < end;
+    }
+
+    public int getCount() {
+        return end - start;
+    }
+
+    public int getColumnCount() {
+        return table.getColumnCount();
+    }
+
+    public int getColumnIndex(String columnName) {
+        return table.getColumnIndex(columnName);
+    }
+
+    public int getColumnIndexOrThrow(String columnName) {
+        int i = table.getColumnIndex(columnName);
+        if (i < 0) {
+            throw new IllegalArgumentException("column '" + columnName + "' does not exist");
+        }
+        return i;
+    }
+
+    public String getString(int column) {
+        return table.get(row(), column);
+    }
+
+    // same conversion SQLite applies when reading a text or real value as integer, null gives 0
+    public int getInt(int column) {
+        String value = table.get(row(), column);
+        if (value == null) {
+            return 0;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            try {
+                return (int) Double.parseDouble(value);
+            } catch (NumberFormatException e2) {
+                return 0;
+            }
+        }
+    }
+
+    // like a database cursor, reading before the first or after the last row is an error
+    private int row() {
+        if (position < start || position >= end) {
+            throw new IndexOutOfBoundsException("Index " + (position - start) + " requested, with a size of " + (end - start));
+        }
+        return position;
+    }
+
+    // cursor over the current row only, positioned before it
+    SnapshotCursor current() {
+        int row = row();
+        return new SnapshotCursor(table, row, row + 1);
+    }
+
+    // nothing to release, the rows belong to the snapshot
+    public void close() {
+    }
+}
@@ -0,0 +1,92 @@
+package edu.kit.ifgg.vegapp.common;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+
+/**
+ * String to string index of an export, e.g. the party written for a name. Up to a number of
+ * entries it is a hash map; the entries beyond it go to a temporary file whose hash buckets are
+ * the only part kept in memory, so the heap it takes does not grow with the project.
+ *
+ * Entries are only added, never changed. {@link #close()} deletes the file.
+ */
+
+class SpillableIndex {
+    private static final int BUCKETS = 1 << 12;
+
+    private final Map<String, String> entries = new HashMap<>();
+    private final int maxEntries;
+    private final File directory;
+    private RandomAccessFile file;
+    private File path;
+    // file position of the last record of each bucket, -1 for none; a record starts with the position of the one before
+    private long[] heads;
+
+    // directory null uses the default temporary directory
+    SpillableIndex(int maxEntries, File directory) {
+        this.maxEntries = maxEntries;
+        this.directory = directory;
+    }
+
+    String get(String key) throws IOException {
+        String value = entries.get(key);
+        if (value != null || file == null) {
+            return value;
+        }
+        long position = heads[bucket(key)];
+        while (position >= 0) {
+            file.seek(position);
+            long previous = file.readLong();
+            if (file.readUTF().equals(key)) {
+                return file.readUTF();
+            }
+            position = previous;
+        }
+        return null;
+    }
+
+    boolean containsKey(String key) throws IOException {
+        return get(key) != null;
+    }
+
+    // key must not be in the index yet
+    void put(String key, String value) throws IOException {
+        if (entries.size() < maxEntries) {
+            entries.put(key, value);
+            return;
+        }
+        if (file == null) {
+            path = File.createTempFile("vegx-index", ".bin", directory);
+            file = new RandomAccessFile(path, "rw");
+            heads = new long[BUCKETS];
+            Arrays.fill(heads, -1);
+        }
+        int bucket = bucket(key);
+        long position = file.length();
+        file.seek(position);
+        file.writeLong(heads[bucket]);
+        file.writeUTF(key);
+        file.writeUTF(value);
+        heads[bucket] = position;
+    }
+
+    void close() throws IOException {
+        if (file != null) {
+            file.close();
+            file = null;
+            heads = null;
+            if (!path.delete()) {
+                path.deleteOnExit();
+            }
+        }
+    }
+
+    private static int bucket(String key) {
+        return key.hashCode() & (BUCKETS - 1);
+    }
+}
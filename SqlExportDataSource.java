@@ -0,0 +1,207 @@
+package edu.kit.ifgg.vegapp.common;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * The queries of the export against the Vegapp database schema. Subclasses only run them.
+ *
+ * The values are bound as parameters, so a query has the same SQL for every project, plot window
+ * and profile; subclasses prepare each SQL once and run the prepared statement again, or leave that
+ * to the statement cache of their connection. The counts of distinct statements and of runs go into
+ * the {@link ExportMetrics}; the runs beyond the distinct statements may have reused a prepared one,
+ * or prepared it again after the cache evicted it. Only the table of the plot children is part of the SQL, it is one of
+ * the exporter's table names.
+ *
+ * The plots, their children and the individuals are read with the columns the exporter asks for
+ * that the table has, so the wide rows of the plot table are not copied whole. The columns of a
+ * table are looked up once with PRAGMA table_info.
+ */
+
+public abstract class SqlExportDataSource implements ExportDataSource {
+    // a window of the project's rows, and of its plots, after an _id; the index of the project
+    // column ends with the rowid, so the database seeks to the window
+    private static final String WINDOW = " AND _id > ? ORDER BY _id LIMIT ?";
+    private static final String PLOT_WINDOW = "Select _id FROM plot WHERE project_id = ?" + WINDOW;
+
+    // the SQL of the export queries run so far
+    private final Set<String> statements = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+    private final AtomicLong statementRuns = new AtomicLong();
+    // table -> its columns
+    private final ConcurrentMap<String, Set<String>> tableColumns = new ConcurrentHashMap<>();
+
+    // runs the query with the values bound to its parameters and returns all its rows
+    protected abstract TableSnapshot query(String sql, String... args);
+
+    // runs a statement without rows, e.g. of the {@link ExportIndexAdvisor}
+    protected abstract void execute(String sql);
+
+    // distinct SQL of the export queries run so far
+    public long getDistinctStatementCount() {
+        return statements.size();
+    }
+
+    // runs of the export queries
+    public long getStatementRunCount() {
+        return statementRuns.get();
+    }
+
+    @Override
+    public TableSnapshot project(int projectId) {
+        return select("Select * FROM project WHERE _id = ?", String.valueOf(projectId));
+    }
+
+    @Override
+    public TableSnapshot plots(int projectId, String[] columns) {
+        return select("Select " + columns("plot", columns) + " FROM plot WHERE project_id = ?", String.valueOf(projectId));
+    }
+
+    @Override
+    public TableSnapshot plotChildren(String table, int projectId, String[] columns) {
+        return select("Select " + columns(table, columns) + " FROM " + table + " INNER JOIN plot ON " + table + ".plot_id = plot._id"
+                + " WHERE plot.project_id = ? ORDER BY " + table + ".plot_id, " + table + "._id", String.valueOf(projectId));
+    }
+
+    @Override
+    public TableSnapshot individuals(int projectId, String[] columns) {
+        return select("Select " + columns("individuals", columns) + " FROM individuals WHERE project_id = ?", String.valueOf(projectId));
+    }
+
+    @Override
+    public TableSnapshot observers(int projectId) {
+        return select("Select _id, givenname, surname, plot FROM observer WHERE project = ?", String.valueOf(projectId));
+    }
+
+    @Override
+    public int plotCount(int projectId) {
+        return count(select("Select count(*) FROM plot WHERE project_id = ?", String.valueOf(projectId)));
+    }
+
+    @Override
+    public TableSnapshot plots(int projectId, long afterId, int limit, String[] columns) {
+        return select("Select " + columns("plot", columns) + " FROM plot WHERE project_id = ?" + WINDOW, window(projectId, afterId, limit));
+    }
+
+    @Override
+    public TableSnapshot plotChildren(String table, int projectId, long afterId, int limit, String[] columns) {
+        return select("Select " + columns(table, columns) + " FROM " + table + " INNER JOIN (" + PLOT_WINDOW + ") AS w ON "
+                + table + ".plot_id = w._id ORDER BY " + table + ".plot_id, " + table + "._id", window(projectId, afterId, limit));
+    }
+
+    @Override
+    public int plotChildCount(String table, int projectId) {
+        return count(select("Select count(*) FROM " + table + " INNER JOIN plot ON " + table + ".plot_id = plot._id"
+                + " WHERE plot.project_id = ?", String.valueOf(projectId)));
+    }
+
+    @Override
+    public TableSnapshot individuals(int projectId, long afterId, int limit, String[] columns) {
+        return select("Select " + columns("individuals", columns) + " FROM individuals WHERE project_id = ?" + WINDOW, window(projectId, afterId, limit));
+    }
+
+    @Override
+    public int individualCount(int projectId) {
+        return count(select("Select count(*) FROM individuals WHERE project_id = ?", String.valueOf(projectId)));
+    }
+
+    @Override
+    public int observerCount(int projectId) {
+        return count(select("Select count(*) FROM observer WHERE project = ?", String.valueOf(projectId)));
+    }
+
+    @Override
+    public TableSnapshot observers(int projectId, long afterId, int limit) {
+        return select("Select _id, givenname, surname, plot FROM observer WHERE project = ?" + WINDOW, window(projectId, afterId, limit));
+    }
+
+    @Override
+    public TableSnapshot plotObservers(int projectId, long afterId, int limit) {
+        return select("Select observer._id, observer.givenname, observer.surname, observer.plot FROM observer INNER JOIN ("
+                + PLOT_WINDOW + ") AS w ON observer.plot = w._id ORDER BY observer._id", window(projectId, afterId, limit));
+    }
+
+    @Override
+    public TableSnapshot customFields(int profileId) {
+        return select("select * from custom_fields where profile = ?", String.valueOf(profileId));
+    }
+
+    // the parameters cannot be null, a project without layer system or cover scale finds no rows
+    @Override
+    public TableSnapshot layerSystem(String layerSystemId) {
+        if (layerSystemId == null) {
+            return select("SELECT * FROM layer_system WHERE 0");
+        }
+        return select("SELECT * FROM layer_system WHERE _id = ?", layerSystemId);
+    }
+
+    @Override
+    public TableSnapshot coverScaleNames(String codes) {
+        if (codes == null) {
+            return select("select names from cover_scale_lu where 0");
+        }
+        return select("select names from cover_scale_lu where codes = ?", codes);
+    }
+
+    @Override
+    public TableSnapshot coverCodes(String codeId) {
+        if (codeId == null) {
+            return select("select entry from cover_code_lu where 0");
+        }
+        return select("select entry from cover_code_lu where code_id = ?", codeId);
+    }
+
+    // the parameters of a window of the project's rows
+    private static String[] window(int projectId, long afterId, int limit) {
+        return new String[]{String.valueOf(projectId), String.valueOf(afterId), String.valueOf(limit)};
+    }
+
+    // the select list of the columns the table has, in the order asked for; all columns for null
+    // or if the table's columns are unknown
+    private String columns(String table, String[] columns) {
+        Set<String> existing = columns != null ? tableColumns(table) : null;
+        if (existing == null || existing.isEmpty()) {
+            return table + ".*";
+        }
+        StringBuilder sb = new StringBuilder();
+        Set<String> selected = new HashSet<>();
+        for (String column : columns) {
+            if (existing.contains(column) && selected.add(column)) {
+                if (sb.length() > 0) {
+                    sb.append(", ");
+                }
+                sb.append(table).append(".\"").append(column).append('"');
+            }
+        }
+        return sb.length() > 0 ? sb.toString() : table + ".*";
+    }
+
+    private Set<String> tableColumns(String table) {
+        Set<String> columns = tableColumns.get(table);
+        if (columns == null) {
+            columns = new HashSet<>();
+            SnapshotCursor info = query("PRAGMA table_info(" + table + ")").cursor();
+            int name = info.getColumnIndex("name");
+            while (info.moveToNext()) {
+                columns.add(info.getString(name));
+            }
+            tableColumns.put(table, columns);
+        }
+        return columns;
+    }
+
+    private TableSnapshot select(String sql, String... args) {
+        statements.add(sql);
+        statementRuns.incrementAndGet();
+        return query(sql, args);
+    }
+
+    private static int count(TableSnapshot rows) {
+        SnapshotCursor cursor = rows.cursor();
+        return cursor.moveToFirst() ? cursor.getInt(0) : 0;
+    }
+}
@@ -0,0 +1,48 @@
+package edu.kit.ifgg.vegapp.common;
+
+
+/**
+ * A layer of the project's layer system as written to the strata section.
+ */
+
+public class Stratum {
+    private final String id;
+    private final String name;
+    private final String criteria;
+    private final String criteriaDefault;
+    private final String maxHeight;
+    private final String minHeight;
+
+    public Stratum(String id, String name, String criteria, String criteriaDefault, String maxHeight, String minHeight) {
+        this.id = id;
+        this.name = name;
+        this.criteria = criteria;
+        this.criteriaDefault = criteriaDefault;
+        this.maxHeight = maxHeight;
+        this.minHeight = minHeight;
+    }
+
+    public String getID() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getCriteria() {
+        return criteria;
+    }
+
+    public String getCriteriaDefault() {
+        return criteriaDefault;
+    }
+
+    public String getMaxHeight() {
+        return maxHeight;
+    }
+
+    public String getMinHeight() {
+        return minHeight;
+    }
+}
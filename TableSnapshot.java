@@ -0,0 +1,77 @@
+package edu.kit.ifgg.vegapp.common;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * In-memory copy of a query result. The export reads a table like plot once and then lets every
+ * phase walk the same rows through {@link #cursor()} instead of running the query again.
+ *
+ * Values are kept as the strings the database returned, columns are found through a hash index
+ * built once per snapshot. Snapshots are filled by an {@link ExportDataSource}.
+ */
+
+public class TableSnapshot {
+    private final String[] columnNames;
+    private final Map<String, Integer> columnIndex;
+    private final List<String[]> rows;
+
+    // rows hold the values in the order of columnNames, null for NULL
+    public TableSnapshot(String[] columnNames, List<String[]> rows) {
+        this.columnNames = columnNames;
+        this.rows = rows;
+        columnIndex = new HashMap<>(columnNames.length * 2);
+        for (int i = 0; i < columnNames.length; i++) {
+            // same as SQLiteCursor: a later column with the same name wins
+            columnIndex.put(columnNames[i], i);
+        }
+    }
+
+    // new cursor positioned before the first row
+    public SnapshotCursor cursor() {
+        return new SnapshotCursor(this, 0, rows.size());
+    }
+
+    // cursor over the rows start (inclusive) to end (exclusive)
+    SnapshotCursor cursor(int start, int end) {
+        return new SnapshotCursor(this, start, end);
+    }
+
+    public int getCount() {
+        return rows.size();
+    }
+
+    public int getColumnCount() {
+        return columnNames.length;
+    }
+
+    public String[] getColumnNames() {
+        return columnNames.clone();
+    }
+
+    // -1 if there is no such column, like Cursor.getColumnIndex()
+    public int getColumnIndex(String columnName) {
+        Integer i = columnIndex.get(columnName);
+        return i != null ? i : -1;
+    }
+
+    // rough heap size of the rows in bytes, for exports with a memory budget
+    long estimateSize() {
+        long size = 0;
+        for (String[] row : rows) {
+            size += 16 + 4L * row.length;
+            for (String value : row) {
+                if (value != null) {
+                    size += 40 + 2L * value.length();
+                }
+            }
+        }
+        return size;
+    }
+
+    String get(int row, int column) {
+        return rows.get(row)[column];
+    }
+}
@@ -0,0 +1,4528 @@
+package edu.kit.ifgg.vegapp.common;
+
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.security.MessageDigest;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.Future;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.zip.GZIPOutputStream;
+import java.util.logging.Logger;
+
+
+
+/**
+ * Created by Dennis on 12.12.2016.
+ *
+ * Writes one project as VegX document. It runs on the worker thread of an {@link ExportJob} and
+ * reports its phases and plots to an {@link ExportMonitor}, which also cancels it between them.
+ *
+ * It reads the database through an {@link ExportDataSource} only and has no Android dependencies,
+ * so it also runs on a plain JVM.
+ */
+
+public class VegXExporter {
+    private static final Logger log = Logger.getLogger("vegx");
+
+    private final ExportDataSource dataSource;
+    private final int exportedProjectId;
+    private final ExportSettings settings;
+    private final ExportMonitor monitor;
+    private final ExportMetrics metrics = new ExportMetrics();
+    // the data source's statements if it runs SQL, null otherwise, and its counts before the export
+    private final SqlExportDataSource statements;
+    private final long statementsAtStart, statementRunsAtStart;
+    private final String projectName, projectId, coverScale, layersystemID;
+    private int profileId;
+    // with a memory budget the rows of the plot window under the plot cursor, see plotCursor()
+    private TableSnapshot plots;
+    private PlotChildRows speciesRows, individualRows, plotLayerRows;
+    private int plotCount, speciesCount;
+    // plots and their rows are read in windows, see ExportSettings.setMemoryBudget()
+    private final boolean streaming;
+    private CustomFieldCatalog customFields;
+    private Exception writeError;
+    private boolean noQuantityInProject;
+    // set once a plot of aggregateOrganismObservations found a quantity; the sections of a parallel
+    // export set it from their threads, it is never reset
+    private final AtomicBoolean quantityInProject = new AtomicBoolean();
+    // fingerprint of what the plots of a FragmentStore depend on besides their rows
+    private byte[] fragmentContext;
+    private Map<String, List<String>> plotObservatorIds;
+    private Map<String, String> spatialReferenceLookup;
+    private Map<CoordSpatialPair, String> coordinateUnitsLookup;
+    private Set<String> dbhAboveGroundLookup;
+    private Set<String> girthAboveGroundLookup;
+    private Map<String, String> polarCoordinateDirectionLookup;
+    private Map<String, String> polarCoordinateDistanceLookup;
+    private Set<QuarterProtocolPair> individualLocationQuarterProtocolSet;
+    private Map<String, String> individualLocationQuarterLookup;
+
+    private String nominal = "nominal";
+    private String ordinal = "ordinal";
+    private String interval_ratio = "interval/ratio";
+    private String surface_cover = "Surface cover";
+    private String location = "Location";
+    private String plot_geometry = "Plot geometry";
+    private String placement_strategy = "Placement strategy";
+    private String meta_data = "Meta data for the observation";
+    private String legal = "Legal";
+    private String literature_source = "Literature source";
+    private String community_observation = "Community observations";
+    private String site_observation = "Site observations";
+    private String legal_status = "Legal status, land use and management";
+    private String custom = "Custom";
+    private String scope_plots = "plots";
+    private String scope_species = "species";
+    private String scope_individuals = "individuals";
+
+    private PartyRegistry parties;
+    // the organism names of the species and individuals, shared by the sections that write or refer to them
+    private final OrganismNameTable organismNames = new OrganismNameTable();
+
+    // these sections only read what the ones before them collected, they can be written in parallel
+    private static final ExportPhase FIRST_PARALLEL = ExportPhase.ORGANISM_NAMES;
+    private static final ExportPhase LAST_PARALLEL = ExportPhase.SITE_OBSERVATIONS;
+    // the plot loops of the sections are split into chunks of at least this many plots, at most
+    // this many per thread
+    private static final int MIN_CHUNK_PLOTS = 16;
+    private static final int CHUNKS_PER_THREAD = 4;
+    // shares of the memory budget for the plot windows and for the parties kept in memory, and
+    // the heap a party takes there
+    private static final int WINDOW_SHARE = 2;
+    private static final int PARTY_SHARE = 4;
+    private static final int PARTY_SIZE = 256;
+
+    // the columns of the tables the sections read, besides those of the custom fields, the community
+    // concepts, the surface types and the species entries; a column read from a cursor of these
+    // tables has to be in the list
+    private static final String[] PLOT_COLUMNS = {"_id", "name", "date", "remarks", "attribution", "license",
+            "permanent_plot_id", "parent_plot", "source_plot", "source_reference", "source_table", "sampling_scheme",
+            "spatial_reference", "coord_system_zone", "easting", "northing", "easting_lon", "northing_lat", "utm_easting",
+            "utm_northing", "utm_zone", "accuracy", "altitude", "aspect", "aspect_classes", "slope", "landform", "country",
+            "county", "federal_state", "place_name", "marker", "ref_point", "dop", "orientation", "plot_shape", "plot_size",
+            "plot_length", "plot_width", "plot_radius", "survey_grid", "survey_cell", "survey_quadrant",
+            "phenological_state", "succession_stage", "stand_age", "management", "land_use", "fertilization",
+            "legal_status_1", "legal_status_2", "habitat_type_1", "habitat_type_2", "soil_type", "soil_texture",
+            "soil_depth", "humus_type", "rock_type", "watertable_depth", "mosses_ident", "lichens_ident",
+            "owner_givenname", "owner_surname", "owner_organization"};
+    private static final String[] SPECIES_COLUMNS = {"_id", "plot_id", "genus", "spec", "genus_cf", "spec_cf",
+            "taxon_concept", "layer_id", "quantity"};
+    private static final String[] INDIVIDUAL_COLUMNS = {"_id", "plot_id", "genus", "spec", "genus_cf", "spec_cf",
+            "taxon_concept", "protocol", "quarter", "dbh", "dbh_above_ground", "girth", "girth_above_ground",
+            "direction_origin", "distance_origin", "x_coord", "y_coord", "latitude", "longitude", "accuracy", "custom_a",
+            "custom_b"};
+    static final String[] PLOT_LAYER_COLUMNS = {"_id", "plot_id", "plot_layer_id", "cover", "avg_height",
+            "max_height"};
+
+    // the columns read from the tables, with those of the profile's custom fields
+    private final String[] plotColumns, speciesColumns, individualColumns;
+
+    // runs the sections of a parallel export, null otherwise
+    private ForkJoinPool pool;
+    // set once a section of a parallel export failed, the other sections stop at their next plot;
+    // failedSection is the one that failed first
+    private volatile boolean aborted;
+    private volatile Section failedSection;
+
+    // the output of a BLOCK_GZIP export and the writer that kept its marks, null otherwise
+    private BlockGzipOutputStream blocks;
+    private VegXWriter document;
+    private static final int GZIP_BUFFER = 64 * 1024;
+
+    // ids of the methods written so far
+    private Set<String> methods = new HashSet<String>();
+
+    // the default of ExportSettings
+    public static final String encoding = VegXWriter.ISO_8859_1;
+
+    private class CoordSpatialPair {
+        private String coordinateUnits;
+        private String spatialReference;
+
+        public CoordSpatialPair(String coordinateUnits, String spatialReference) {
+            this.coordinateUnits = coordinateUnits;
+            this.spatialReference = spatialReference;
+        }
+
+        public String getCoordinateUnits() {
+            return coordinateUnits;
+        }
+
+        public String getSpatialReference() {
+            return spatialReference;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof CoordSpatialPair)) {
+                return false;
+            }
+            CoordSpatialPair other = (CoordSpatialPair) o;
+            return equal(coordinateUnits, other.coordinateUnits) && equal(spatialReference, other.spatialReference);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * hash(coordinateUnits) + hash(spatialReference);
+        }
+    }
+
+    private class QuarterProtocolPair {
+        private String quarter;
+        private String protocol;
+
+        public QuarterProtocolPair(String quarter, String protocol) {
+            this.quarter = quarter;
+            this.protocol = protocol;
+        }
+
+        public String getQuarter() {
+            return quarter;
+        }
+
+        public String getProtocol() {
+            return protocol;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof QuarterProtocolPair)) {
+                return false;
+            }
+            QuarterProtocolPair other = (QuarterProtocolPair) o;
+            return equal(quarter, other.quarter) && equal(protocol, other.protocol);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * hash(quarter) + hash(protocol);
+        }
+    }
+
+    // the columns an export reads from the plot, species and individuals tables of a profile with the
+    // custom fields, also for the query plans of the ExportIndexAdvisor
+    static String[] plotColumns(CustomFieldCatalog customFields) {
+        return columns(PLOT_COLUMNS, customFields, "plots", communityConcepts, surfaceTypes);
+    }
+
+    static String[] speciesColumns(CustomFieldCatalog customFields) {
+        return columns(SPECIES_COLUMNS, customFields, "species", simpleUserDefinedAggregateOrganismObservationEntries);
+    }
+
+    static String[] individualColumns(CustomFieldCatalog customFields) {
+        return columns(INDIVIDUAL_COLUMNS, customFields, "individuals");
+    }
+
+    // the columns, those of the entries ({text, column}) and those of the custom fields of the scope
+    private static String[] columns(String[] columns, CustomFieldCatalog customFields, String scope, String[][]... entries) {
+        List<String> all = new ArrayList<>(Arrays.asList(columns));
+        for (String[][] table : entries) {
+            for (String[] entry : table) {
+                all.add(entry[1]);
+            }
+        }
+        all.addAll(customFields.getColumnNames(scope));
+        return all.toArray(new String[all.size()]);
+    }
+
+    // the index of the column of each entry ({text, column}) in the rows of the cursor
+    private static int[] columnIndexes(SnapshotCursor cursor, String[][] entries) {
+        int[] indexes = new int[entries.length];
+        for (int i = 0; i < entries.length; i++) {
+            indexes[i] = cursor.getColumnIndex(entries[i][1]);
+        }
+        return indexes;
+    }
+
+    private static boolean equal(String a, String b) {
+        return a == null ? b == null : a.equals(b);
+    }
+
+    private static int hash(String s) {
+        return s == null ? 0 : s.hashCode();
+    }
+
+    public VegXExporter(ExportDataSource dataSource, int exportedProjectId, ExportSettings settings) {
+        this(dataSource, exportedProjectId, settings, new ExportMonitor(null));
+    }
+
+    public VegXExporter(ExportDataSource dataSource, int exportedProjectId, ExportSettings settings, ExportMonitor monitor) {
+
+        // Attributes are also written when Default value is set !!
+
+        ExportDataSource source = dataSource instanceof CachingExportDataSource
+                ? ((CachingExportDataSource) dataSource).getDataSource() : dataSource;
+        statements = source instanceof SqlExportDataSource ? (SqlExportDataSource) source : null;
+        statementsAtStart = statements != null ? statements.getDistinctStatementCount() : 0;
+        statementRunsAtStart = statements != null ? statements.getStatementRunCount() : 0;
+
+        this.dataSource = new MeteredExportDataSource(dataSource, metrics);
+        this.exportedProjectId = exportedProjectId;
+        this.settings = settings;
+        this.monitor = monitor;
+
+        monitor.startPhase(ExportPhase.READ, 0);
+        metrics.startPhase(ExportPhase.READ, null);
+
+        TableSnapshot project = this.dataSource.project(exportedProjectId);
+        SnapshotCursor projectCursor = project.cursor();
+        try {
+            projectCursor.moveToFirst();
+            projectName = projectCursor.getString(projectCursor.getColumnIndex("name"));
+            projectId = projectCursor.getString(projectCursor.getColumnIndex("_id"));
+            coverScale = projectCursor.getString(projectCursor.getColumnIndex("cover_scale_id"));
+            profileId = projectCursor.getInt(projectCursor.getColumnIndex("profile_id"));
+            layersystemID = projectCursor.getString(projectCursor.getColumnIndex("layer_system_id"));
+        } finally {
+            projectCursor.close();
+        }
+
+        // custom fields of the profile, their columns are read with the rows and looked up once in them
+        TableSnapshot customFieldRows = this.dataSource.customFields(profileId);
+        customFields = new CustomFieldCatalog(customFieldRows);
+        plotColumns = plotColumns(customFields);
+        speciesColumns = speciesColumns(customFields);
+        individualColumns = individualColumns(customFields);
+
+        long memoryBudget = settings.getMemoryBudget();
+        streaming = memoryBudget > 0;
+        if (streaming) {
+            // only counts and columns here, the rows are read window by window while writing
+            plotCount = this.dataSource.plotCount(exportedProjectId);
+            speciesCount = this.dataSource.plotChildCount("species", exportedProjectId);
+            plots = this.dataSource.plots(exportedProjectId, WindowedCursor.START_ID, 0, plotColumns);
+            speciesRows = new PlotChildRows(this.dataSource.plotChildren("species", exportedProjectId, WindowedCursor.START_ID, 0, speciesColumns), "plot_id");
+            individualRows = new PlotChildRows(this.dataSource.plotChildren("individuals", exportedProjectId, WindowedCursor.START_ID, 0, individualColumns), "plot_id");
+            plotLayerRows = new PlotChildRows(this.dataSource.plotChildren("plot_layer", exportedProjectId, WindowedCursor.START_ID, 0, PLOT_LAYER_COLUMNS), "plot_id");
+            int partyEntries = (int) Math.max(16, Math.min(Integer.MAX_VALUE, memoryBudget / PARTY_SHARE / PARTY_SIZE));
+            parties = new PartyRegistry(new SpillableIndex(partyEntries, settings.getFragmentDirectory()), false);
+        } else {
+            // read the plots once, all phases below work on this snapshot
+            plots = this.dataSource.plots(exportedProjectId, plotColumns);
+            // children of all plots, one query per table instead of one per plot
+            speciesRows = new PlotChildRows(this.dataSource.plotChildren("species", exportedProjectId, speciesColumns), "plot_id");
+            individualRows = new PlotChildRows(this.dataSource.plotChildren("individuals", exportedProjectId, individualColumns), "plot_id");
+            plotLayerRows = new PlotChildRows(this.dataSource.plotChildren("plot_layer", exportedProjectId, PLOT_LAYER_COLUMNS), "plot_id");
+            plotCount = plots.getCount();
+            speciesCount = speciesRows.getCount();
+            parties = new PartyRegistry();
+        }
+        customFields.resolveColumns(scope_plots, plots);
+        customFields.resolveColumns(scope_species, speciesRows.getRows());
+        customFields.resolveColumns(scope_individuals, individualRows.getRows());
+        if (settings.isDistinctOrganismNames() && !streaming) {
+            // the sections of a parallel export would resolve the names in the order of their threads;
+            // a streaming export is never parallel and resolves them as it walks the windows
+            resolveOrganismNames();
+        }
+
+        if (settings.getFragmentStore() != null) {
+            fragmentContext = fragmentContext(project, customFieldRows);
+        }
+
+        plotObservatorIds = new HashMap<String, List<String>>();
+        spatialReferenceLookup = new HashMap<>();
+        // insertion ordered, the attributes are written in the order the methods were
+        coordinateUnitsLookup = new LinkedHashMap<>();
+        dbhAboveGroundLookup = new HashSet<>();
+        girthAboveGroundLookup = new HashSet<>();
+        polarCoordinateDirectionLookup = new HashMap<>();
+        polarCoordinateDistanceLookup = new HashMap<>();
+        individualLocationQuarterProtocolSet = new LinkedHashSet<>();
+        individualLocationQuarterLookup = new HashMap<>();
+        metrics.finish(null);
+    }
+
+    // writes the document to fileos, which stays open
+    public void write(OutputStream fileos) throws IOException {
+        final int level = settings.getCompressionLevel();
+        OutputStream out = fileos;
+        LevelGzipOutputStream gzip = null;
+        if (settings.getCompression() == Compression.GZIP) {
+            out = gzip = new LevelGzipOutputStream(fileos, level);
+        } else if (settings.getCompression() == Compression.BLOCK_GZIP) {
+            out = blocks = new BlockGzipOutputStream(fileos, level);
+        }
+        try {
+            VegXWriter serializer = new VegXWriter(out, settings.getEncoding());
+            if (blocks != null) {
+                // the sections and plots for the index
+                serializer.keepMarks();
+                document = serializer;
+            }
+
+            //start writing
+            try {
+
+                serializer.startDocument(null, true);
+                serializer.setFeature(VegXWriter.FEATURE_INDENT_OUTPUT, !settings.isCompact());
+
+                // start vegx root class
+                serializer.setPrefix("xsi", "http://www.w3.org/2001/XMLSchema-instance");
+                serializer.setPrefix("dwg", "http://rs.tdwg.org/dwc/geospatial/");
+                serializer.setPrefix("tcs", "http://www.tdwg.org/schemas/tcs/1.01");
+                serializer.startTag(null, "vegX");
+                // serializer.attribute("http://www.w3.org/2001/XMLSchema-instance", "noNamespaceSchemaLocation", "F:\\project\\vegX\\VegX_Schema_1.5.1\\veg.xsd");  // for easier testing, remove later
+
+                if (settings.getParallelism() > 1 && !streaming) {
+                    writeParallel(serializer);
+                } else {
+                    for (ExportPhase phase : ExportPhase.values()) {
+                        if (phase != ExportPhase.READ) {
+                            writePhase(serializer, phase);
+                        }
+                    }
+                }
+
+                // end vegx root class
+                serializer.endTag(null, "vegX");
+
+            } catch (CancellationException e) {
+                throw e;
+            } catch (Exception e) {
+                writeError = e;
+                log.log(Level.SEVERE, "Could not write file. " + e, e);
+            } finally {
+                parties.close();
+            }
+
+            //end file, with a line break after the root element
+            serializer.endDocument();
+            if (gzip != null) {
+                gzip.finish();
+            } else if (blocks != null) {
+                blocks.finish();
+            }
+            metrics.finish(serializer);
+            countStatements();
+        } finally {
+            // the deflaters hold native memory until they are ended, also when the export fails or is cancelled
+            if (gzip != null) {
+                gzip.end();
+            } else if (blocks != null) {
+                blocks.end();
+            }
+        }
+    }
+
+    private void countStatements() {
+        if (statements != null) {
+            metrics.statements(statements.getDistinctStatementCount() - statementsAtStart,
+                    statements.getStatementRunCount() - statementRunsAtStart);
+        }
+    }
+
+    // the index of a BLOCK_GZIP export, one line per gzip member with its offset in the document and
+    // in the file, and one per section and plot with its offset in the document
+    public void writeIndex(Writer writer) throws IOException {
+        if (blocks == null) {
+            throw new IllegalStateException("only a BLOCK_GZIP export has an index");
+        }
+        for (int i = 0; i < blocks.getBlockCount(); i++) {
+            writer.write("block\t" + blocks.getUncompressedOffset(i) + "\t" + blocks.getCompressedOffset(i) + "\n");
+        }
+        for (int i = 0; i < document.getMarkCount(); i++) {
+            writer.write("mark\t" + document.getMarkOffset(i) + "\t" + document.getMarkKey(i) + "\n");
+        }
+        writer.flush();
+    }
+
+    // the exception that stopped writing the document, null if it was written completely
+    public ExportMetrics getMetrics() {
+        return metrics;
+    }
+
+    public Exception getWriteError() {
+        return writeError;
+    }
+
+    // true if species were observed but none of them has a quantity
+    public boolean hasNoQuantities() {
+        return noQuantityInProject;
+    }
+
+    // writes one section of the document; the phases depend on the ones before them, so a complete
+    // document writes them in the order of ExportPhase
+    void writePhase(VegXWriter serializer, ExportPhase phase) throws IOException {
+        startPhase(phase, serializer);
+        writeSection(serializer, phase);
+    }
+
+    private void writeSection(VegXWriter serializer, ExportPhase phase) throws IOException {
+        serializer.mark(phase.name());
+        switch (phase) {
+            case PARTIES:
+                // write a veg.xsd <projects><project /></projects> entry
+                writeParties(serializer);
+                break;
+            case LITERATURE_CITATIONS:
+                writeLiteratureCitations(serializer);
+                break;
+            case METHODS:
+                serializer.startTag(null , "methods");
+                writeMethods(serializer); //TODO: are all of these always written?
+                serializer.endTag(null , "methods");
+                break;
+            case ATTRIBUTES:
+                writeAttributes(serializer); //TODO: are all of these always written?
+                break;
+            case STRATA:
+                writeStrata(serializer);
+                break;
+            case SURFACE_TYPES:
+                writeSurfaceTypes(serializer);
+                break;
+            case ORGANISM_NAMES:
+                writeOrganismNames(serializer);
+                break;
+            case TAXON_CONCEPTS:
+                writeTaxonConcepts(serializer);
+                break;
+            case ORGANISM_IDENTITIES:
+                writeOrganismIdentities(serializer);
+                break;
+            case COMMUNITY_CONCEPTS:
+                writeCommunityConcepts(serializer);
+                break;
+            case COMMUNITY_DETERMINATIONS:
+                writeCommunityDeterminations(serializer);
+                break;
+            case PROJECT:
+                writeProject(serializer);
+                break;
+            case PLOTS:
+                writePlots(serializer);
+                break;
+            case INDIVIDUAL_ORGANISMS:
+                writeIndividualOrganisms(serializer);
+                break;
+            case PLOT_OBSERVATIONS:
+                writePlotObversations(serializer);
+                break;
+            case INDIVIDUAL_ORGANISM_OBSERVATIONS:
+                writeIndividualOrganismObservations(serializer);
+                break;
+            case AGGREGATE_ORGANISM_OBSERVATIONS:
+                writeAggregateOrganismObservations(serializer);
+                break;
+            case STRATUM_OBSERVATIONS:
+                writeStratumObversations(serializer);
+                break;
+            case COMMUNITY_OBSERVATIONS:
+                writeCommunityObversations(serializer);
+                break;
+            case SURFACE_COVER_OBSERVATIONS:
+                writeSurfaceCoverObservations(serializer);
+                break;
+            case SITE_OBSERVATIONS:
+                writeSiteObversations(serializer);
+                break;
+            case NOTES:
+                writeNotes(serializer);
+                break;
+            default:
+                break;
+        }
+    }
+
+    // writes the sections from FIRST_PARALLEL to LAST_PARALLEL on a pool of settings.getParallelism()
+    // threads, each into a fragment of its own, and appends the fragments in order; the document is
+    // the same as the one written in turn
+    private void writeParallel(VegXWriter serializer) throws IOException {
+        List<ExportPhase> parallel = new ArrayList<>();
+        // sections that step through the plots, the others report no progress
+        int plotLoops = 0;
+        for (ExportPhase phase : ExportPhase.values()) {
+            if (phase == ExportPhase.READ) {
+                continue;
+            }
+            if (phase.ordinal() < FIRST_PARALLEL.ordinal()) {
+                writePhase(serializer, phase);
+            } else if (phase.ordinal() <= LAST_PARALLEL.ordinal()) {
+                parallel.add(phase);
+                if (phase.isPlotLoop()) {
+                    plotLoops++;
+                }
+            }
+        }
+
+        // the sections report their plots together, as the first of them
+        metrics.finish(serializer);
+        monitor.startPhase(FIRST_PARALLEL, plotCount * plotLoops);
+        final int priority = Thread.currentThread().getPriority();
+        pool = new ForkJoinPool(settings.getParallelism(), new ForkJoinPool.ForkJoinWorkerThreadFactory() {
+            @Override
+            public ForkJoinWorkerThread newThread(ForkJoinPool pool) {
+                ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+                thread.setName("VegX section " + thread.getPoolIndex());
+                thread.setPriority(priority);
+                return thread;
+            }
+        }, null, false);
+        List<Section> sections = new ArrayList<>();
+        boolean complete = false;
+        try {
+            for (ExportPhase phase : parallel) {
+                Section section = new Section(phase);
+                section.writer = serializer.fragment(section.open());
+                section.future = pool.submit(section);
+                sections.add(section);
+            }
+            for (Section section : sections) {
+                try {
+                    section.await();
+                } catch (CancellationException e) {
+                    Section failed = failedSection;
+                    if (failed != null && failed != section) {
+                        // the section was aborted, the failure of the other one is the one to report
+                        failed.await();
+                    }
+                    throw e;
+                }
+                monitor.checkCancelled();
+                section.append(serializer);
+                section.delete();
+                metrics.addPhase(section.phase, section.wallNanos, section.writer.getElementCount(),
+                        section.writer.getAttributeCount(), section.writer.getByteCount());
+            }
+            complete = true;
+        } finally {
+            if (!complete) {
+                // the tasks do not look at interrupts, the sections still running would write all their plots
+                aborted = true;
+            }
+            pool.shutdownNow();
+            pool = null;
+            for (Section section : sections) {
+                section.delete();
+            }
+        }
+
+        for (ExportPhase phase : ExportPhase.values()) {
+            if (phase.ordinal() > LAST_PARALLEL.ordinal()) {
+                writePhase(serializer, phase);
+            }
+        }
+    }
+
+    private void writePlotSection(VegXWriter serializer, String name, PlotSection.Body body) throws IOException {
+        writePlotSection(serializer, name, false, body);
+    }
+
+    private void writePlotSection(VegXWriter serializer, String name, boolean withObservers, PlotSection.Body body) throws IOException {
+        writePlotSection(serializer, name, withObservers, true, body);
+    }
+
+    // runs the plot loop of a section and writes the section's tag around it if the loop started it;
+    // on the pool of a parallel export the plots are split into chunks that are written on the pool
+    // and appended in plot order. withObservers for a loop that reads plotObservatorIds, stored false
+    // for a loop whose plots depend on other plots than their own and cannot come from the FragmentStore.
+    private void writePlotSection(VegXWriter serializer, String name, boolean withObservers, boolean stored,
+                                  PlotSection.Body body) throws IOException {
+        if (stored && settings.getFragmentStore() != null) {
+            writeStoredPlotSection(serializer, name, withObservers, body);
+            return;
+        }
+        int chunkCount = 1;
+        if (pool != null && ForkJoinTask.getPool() == pool) {
+            chunkCount = Math.min(plotCount / MIN_CHUNK_PLOTS, pool.getParallelism() * CHUNKS_PER_THREAD);
+        }
+        if (chunkCount <= 1) {
+            PlotSection section = new PlotSection(serializer, name);
+            writePlotBody(serializer, plotCursor(withObservers), name, body, section);
+            if (section.isStarted()) {
+                serializer.endTag(null, name);
+            }
+            if (section.hasQuantity()) {
+                quantityInProject.set(true);
+            }
+            return;
+        }
+
+        List<PlotChunk> chunks = new ArrayList<>(chunkCount);
+        for (int i = 0; i < chunkCount; i++) {
+            int start = (int) ((long) plotCount * i / chunkCount);
+            int end = (int) ((long) plotCount * (i + 1) / chunkCount);
+            chunks.add(new PlotChunk(serializer, name, body, start, end));
+        }
+        ForkJoinTask.invokeAll(chunks);
+        // the chunks are merged on the section's thread, the quantity is published once for all of them
+        boolean started = false;
+        boolean quantity = false;
+        for (PlotChunk chunk : chunks) {
+            if (chunk.error != null) {
+                throw chunk.error;
+            }
+            started |= chunk.section.isStarted();
+            quantity |= chunk.section.hasQuantity();
+        }
+        if (quantity) {
+            quantityInProject.set(true);
+        }
+        if (started) {
+            serializer.startTag(null, name);
+            for (PlotChunk chunk : chunks) {
+                if (chunk.bytes.size() > 0) {
+                    serializer.append(chunk.writer, chunk.bytes);
+                }
+            }
+            serializer.endTag(null, name);
+        }
+    }
+
+    // the body over the plots of plotCursor, plot by plot if they are marked for the index; the mark
+    // of the first plot is before the section's start tag
+    private void writePlotBody(VegXWriter serializer, SnapshotCursor plotCursor, String name, PlotSection.Body body,
+                               PlotSection section) throws IOException {
+        if (blocks == null) {
+            body.write(serializer, plotCursor, section);
+            return;
+        }
+        while (plotCursor.moveToNext()) {
+            serializer.mark(name + "/" + plotCursor.getString(plotCursor.getColumnIndex("_id")));
+            body.write(serializer, plotCursor.current(), section);
+        }
+    }
+
+    // the plot loop of a section plot by plot: plots whose rows did not change since the last export
+    // are copied from the FragmentStore, the others are written and replace the stored ones
+    private void writeStoredPlotSection(VegXWriter serializer, String name, boolean withObservers, PlotSection.Body body) throws IOException {
+        FragmentStore.Section store = settings.getFragmentStore().open("project" + exportedProjectId + "-" + name, sectionContext());
+        boolean committed = false;
+        try {
+            PlotSection section = new PlotSection(serializer, name);
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            SnapshotCursor plotCursor = plotCursor(withObservers);
+            while (plotCursor.moveToNext()) {
+                String _id = plotCursor.getString(plotCursor.getColumnIndex("_id"));
+                byte[] fingerprint = FragmentStore.fingerprint(plotCursor, withObservers ? plotParties(_id) : "",
+                        speciesRows.forPlot(_id), individualRows.forPlot(_id), plotLayerRows.forPlot(_id));
+                bytes.reset();
+                FragmentStore.Fragment stored = store.find(_id, fingerprint);
+                if (stored != null) {
+                    nextPlot();
+                    store.copy(_id, stored, bytes);
+                    if (stored.started) {
+                        section.start();
+                        serializer.mark(name + "/" + _id);
+                        serializer.appendStored(bytes, stored.elements, stored.attributes, stored.indent);
+                    }
+                    if (stored.quantity) {
+                        quantityInProject.set(true);
+                    }
+                    continue;
+                }
+                // the plot as if the section was not started, it is only started with the first plot that writes
+                VegXWriter writer = section.isStarted() ? serializer.fragment(bytes) : serializer.fragment(bytes, name);
+                PlotSection plot = new PlotSection(null, name);
+                writer.mark(name + "/" + _id);
+                body.write(writer, plotCursor.current(), plot);
+                writer.flush();
+                store.add(_id, fingerprint, plot.isStarted(), plot.hasQuantity(), writer.endsIndented(),
+                        writer.getElementCount(), writer.getAttributeCount(), bytes.toByteArray(), bytes.size());
+                if (plot.isStarted()) {
+                    section.start();
+                    serializer.append(writer, bytes);
+                }
+                if (plot.hasQuantity()) {
+                    quantityInProject.set(true);
+                }
+            }
+            if (section.isStarted()) {
+                serializer.endTag(null, name);
+            }
+            store.commit();
+            committed = true;
+        } finally {
+            if (!committed) {
+                store.abort();
+            }
+        }
+    }
+
+    // the project, its custom fields and the settings including the encoding and layout, which all
+    // plots of a FragmentStore depend on
+    private byte[] fragmentContext(TableSnapshot... tables) {
+        MessageDigest digest = FragmentStore.digest();
+        FragmentStore.update(digest, settings.getApplication());
+        FragmentStore.update(digest, settings.getVersion());
+        FragmentStore.update(digest, settings.getSpeciesListName());
+        FragmentStore.update(digest, settings.getSpeciesListTerms());
+        FragmentStore.update(digest, settings.getEncoding());
+        FragmentStore.update(digest, String.valueOf(settings.isCompact()));
+        for (Stratum stratum : settings.getStrata()) {
+            FragmentStore.update(digest, stratum.getID());
+            FragmentStore.update(digest, stratum.getName());
+            FragmentStore.update(digest, stratum.getCriteria());
+            FragmentStore.update(digest, stratum.getCriteriaDefault());
+            FragmentStore.update(digest, stratum.getMaxHeight());
+            FragmentStore.update(digest, stratum.getMinHeight());
+        }
+        for (TableSnapshot table : tables) {
+            SnapshotCursor cursor = table.cursor();
+            while (cursor.moveToNext()) {
+                FragmentStore.update(digest, cursor);
+            }
+        }
+        return digest.digest();
+    }
+
+    // fragmentContext and the methods the sections before collected, which plots refer to
+    private byte[] sectionContext() {
+        MessageDigest digest = FragmentStore.digest();
+        digest.update(fragmentContext);
+        for (Map.Entry<String, String> entry : spatialReferenceLookup.entrySet()) {
+            FragmentStore.update(digest, entry.getKey());
+            FragmentStore.update(digest, entry.getValue());
+        }
+        for (Map.Entry<CoordSpatialPair, String> entry : coordinateUnitsLookup.entrySet()) {
+            FragmentStore.update(digest, entry.getKey().getCoordinateUnits());
+            FragmentStore.update(digest, entry.getKey().getSpatialReference());
+            FragmentStore.update(digest, entry.getValue());
+        }
+        for (Map<String, String> lookup : Arrays.asList(polarCoordinateDirectionLookup, polarCoordinateDistanceLookup,
+                individualLocationQuarterLookup)) {
+            for (Map.Entry<String, String> entry : lookup.entrySet()) {
+                FragmentStore.update(digest, entry.getKey());
+                FragmentStore.update(digest, entry.getValue());
+            }
+        }
+        for (Set<String> lookup : Arrays.asList(dbhAboveGroundLookup, girthAboveGroundLookup, methods)) {
+            for (String value : lookup) {
+                FragmentStore.update(digest, value);
+            }
+        }
+        for (QuarterProtocolPair pair : individualLocationQuarterProtocolSet) {
+            FragmentStore.update(digest, pair.getQuarter());
+            FragmentStore.update(digest, pair.getProtocol());
+        }
+        FragmentStore.update(digest, String.valueOf(parties.isDataOwner(String.valueOf(profileId))));
+        return digest.digest();
+    }
+
+    // the parties a plot observation names, as written
+    private String plotParties(String plotId) throws IOException {
+        StringBuilder ids = new StringBuilder();
+        List<String> partyIds = plotObservatorIds.get(plotId);
+        if (partyIds != null) {
+            for (String partyId : partyIds) {
+                ids.append(parties.canonicalId(partyId)).append('\n');
+            }
+        }
+        return ids.toString();
+    }
+
+    // before each plot of a plot loop; throws once the export was cancelled or another section failed
+    private void nextPlot() {
+        if (aborted) {
+            throw new CancellationException("export aborted, another section failed");
+        }
+        monitor.nextPlot();
+    }
+
+    // gzip at the given level; end() releases the deflater, the stream underneath stays open
+    private static class LevelGzipOutputStream extends GZIPOutputStream {
+        LevelGzipOutputStream(OutputStream out, int level) throws IOException {
+            super(out, GZIP_BUFFER);
+            def.setLevel(level);
+        }
+
+        void end() {
+            def.end();
+        }
+    }
+
+    // the plots from start to end of a section, written into a buffer of their own
+    private class PlotChunk extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final VegXWriter writer;
+        final PlotSection section;
+        private final String name;
+        private final PlotSection.Body body;
+        private final int start, end;
+        IOException error;
+
+        PlotChunk(VegXWriter serializer, String name, PlotSection.Body body, int start, int end) throws IOException {
+            writer = serializer.fragment(bytes, name);
+            section = new PlotSection(null, name);
+            this.name = name;
+            this.body = body;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected void compute() {
+            try {
+                writePlotBody(writer, plots.cursor(start, end), name, body, section);
+                writer.flush();
+            } catch (IOException e) {
+                error = e;
+            }
+        }
+    }
+
+    // a section written on a thread of the pool, kept in memory or in a temporary file
+    private class Section implements Callable<Void> {
+        final ExportPhase phase;
+        VegXWriter writer;
+        Future<Void> future;
+        long wallNanos;
+        private OutputStream out;
+        private ByteArrayOutputStream bytes;
+        private File file;
+
+        Section(ExportPhase phase) {
+            this.phase = phase;
+        }
+
+        OutputStream open() throws IOException {
+            File directory = settings.getFragmentDirectory();
+            if (directory != null) {
+                file = File.createTempFile("vegx-" + phase.name().toLowerCase(Locale.ROOT), ".part", directory);
+                out = new FileOutputStream(file);
+            } else {
+                bytes = new ByteArrayOutputStream();
+                out = bytes;
+            }
+            return out;
+        }
+
+        @Override
+        public Void call() throws IOException {
+            long start = System.nanoTime();
+            boolean written = false;
+            try {
+                writeSection(writer, phase);
+                writer.flush();
+                written = true;
+            } finally {
+                if (!written) {
+                    // the export fails with this section, the others need not wait to be awaited
+                    if (!aborted) {
+                        failedSection = this;
+                    }
+                    aborted = true;
+                }
+                out.close();
+            }
+            wallNanos = System.nanoTime() - start;
+            return null;
+        }
+
+        // waits for the section, rethrowing what stopped it
+        void await() throws IOException {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CancellationException("export cancelled");
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof IOException) {
+                    throw (IOException) cause;
+                } else if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                } else if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw new IOException(cause);
+            }
+        }
+
+        void append(VegXWriter serializer) throws IOException {
+            if (file == null) {
+                serializer.append(writer, bytes);
+                return;
+            }
+            InputStream in = new FileInputStream(file);
+            try {
+                serializer.append(writer, in);
+            } finally {
+                in.close();
+            }
+        }
+
+        void delete() {
+            if (file != null) {
+                file.delete();
+                file = null;
+            }
+            bytes = null;
+        }
+    }
+
+    private void writeNotes(VegXWriter serializer) throws IOException {
+        Calendar calendar = Calendar.getInstance();
+        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd");
+        String exportDate = dateFormat.format(calendar.getTime());
+
+        serializer.startTag(null, "note");
+        serializer.startTag(null, "text");
+        serializer.text("Data collection and export were done using " + settings.getApplication() + " for Android " + settings.getVersion() + ".");
+        serializer.endTag(null, "text");
+        serializer.startTag(null, "date");
+        serializer.text(exportDate);
+        serializer.endTag(null, "date");
+        serializer.endTag(null, "note");
+
+        serializer.startTag(null, "note");
+        serializer.startTag(null, "text");
+
+        String noteText = "Species reference list used while exporting this data: " + settings.getSpeciesListName() + ". " + settings.getSpeciesListTerms();
+        noteText = noteText.replaceAll("(.{100})", "$1\n");
+
+        serializer.text(noteText);
+        serializer.endTag(null, "text");
+        serializer.startTag(null, "date");
+        serializer.text(exportDate);
+        serializer.endTag(null, "date");
+        serializer.endTag(null, "note");
+
+        // the phases written so far, the notes are the last one
+        if (settings.isMetricsNote()) {
+            countStatements();
+            serializer.startTag(null, "note");
+            serializer.startTag(null, "text");
+            serializer.text(metrics.toText());
+            serializer.endTag(null, "text");
+            serializer.startTag(null, "date");
+            serializer.text(exportDate);
+            serializer.endTag(null, "date");
+            serializer.endTag(null, "note");
+        }
+    }
+
+    // all plots of the project. With a memory budget they are read in windows, each with its rows in
+    // speciesRows, individualRows and plotLayerRows and, withObservers, the observers of its plots in
+    // plotObservatorIds; only one plot cursor may be walked at a time then.
+    private SnapshotCursor plotCursor(final boolean withObservers) {
+        if (!streaming) {
+            return plots.cursor();
+        }
+        return new WindowedCursor(plotCount, settings.getMemoryBudget() / WINDOW_SHARE) {
+            @Override
+            TableSnapshot read(long afterId, int limit) {
+                plots = dataSource.plots(exportedProjectId, afterId, limit, plotColumns);
+                speciesRows = new PlotChildRows(dataSource.plotChildren("species", exportedProjectId, afterId, limit, speciesColumns), "plot_id");
+                individualRows = new PlotChildRows(dataSource.plotChildren("individuals", exportedProjectId, afterId, limit, individualColumns), "plot_id");
+                plotLayerRows = new PlotChildRows(dataSource.plotChildren("plot_layer", exportedProjectId, afterId, limit, PLOT_LAYER_COLUMNS), "plot_id");
+                if (withObservers) {
+                    readPlotObservers(afterId, limit);
+                }
+                return plots;
+            }
+
+            @Override
+            long size(TableSnapshot window) {
+                return window.estimateSize() + speciesRows.getRows().estimateSize() + individualRows.getRows().estimateSize()
+                        + plotLayerRows.getRows().estimateSize();
+            }
+        };
+    }
+
+    // the observers of a plot window, named as in the parties section
+    private void readPlotObservers(long afterId, int limit) {
+        plotObservatorIds.clear();
+        parties.forgetObserverNames();
+        SnapshotCursor observerCursor = dataSource.plotObservers(exportedProjectId, afterId, limit).cursor();
+        try {
+            while (observerCursor.moveToNext()) {
+                String givenname = observerCursor.getString(observerCursor.getColumnIndex("givenname"));
+                String surname = observerCursor.getString(observerCursor.getColumnIndex("surname"));
+                String plot = observerCursor.getString(observerCursor.getColumnIndex("plot"));
+                String originatorId = "originator_" + observerCursor.getString(observerCursor.getColumnIndex("_id"));
+                if (!plotObservatorIds.containsKey(plot)) {
+                    plotObservatorIds.put(plot, new ArrayList<String>());
+                }
+                plotObservatorIds.get(plot).add(originatorId);
+                if (givenname != null && !givenname.isEmpty() || surname != null && !surname.isEmpty()) {
+                    parties.nameObserver(originatorId, partyObserverName(givenname, surname));
+                }
+            }
+        } finally {
+            observerCursor.close();
+        }
+    }
+
+    private static String partyObserverName(String givenname, String surname) {
+        String partyObserverName = "";
+        if (givenname != null) {
+            partyObserverName += givenname;
+        }
+        if (surname != null) {
+            partyObserverName += ", " + surname;
+        }
+        return partyObserverName;
+    }
+
+    private void startPhase(ExportPhase phase, VegXWriter serializer) {
+        monitor.startPhase(phase, phase.isPlotLoop() ? plotCount : 0);
+        metrics.startPhase(phase, serializer);
+    }
+
+
+    //************************************************************//
+    //********************** parties  ****************************//
+    //************************************************************//
+
+    private void writeParties(VegXWriter serializer) throws IOException {
+
+        String _id, givenname, surname, organization, plot, originatorId;
+
+        // party A Originators / observers
+        SnapshotCursor partyObserverCursor;
+        if (streaming) {
+            partyObserverCursor = new WindowedCursor(dataSource.observerCount(exportedProjectId), settings.getMemoryBudget() / WINDOW_SHARE) {
+                @Override
+                TableSnapshot read(long afterId, int limit) {
+                    return dataSource.observers(exportedProjectId, afterId, limit);
+                }
+            };
+        } else {
+            partyObserverCursor = dataSource.observers(exportedProjectId).cursor();
+        }
+        try {
+
+            SnapshotCursor partyOwnerCursor = plotCursor(false);
+            try {
+                // this cursor should have exactly one entry for any given profile_id.
+                if (partyOwnerCursor.moveToNext()) {
+                    String POgivenname = partyOwnerCursor.getString(partyOwnerCursor.getColumnIndex("owner_givenname"));
+                    String POsurname = partyOwnerCursor.getString(partyOwnerCursor.getColumnIndex("owner_surname"));
+                    organization = partyOwnerCursor.getString(partyOwnerCursor.getColumnIndex("owner_organization"));
+                    String plotId = partyOwnerCursor.getString(partyOwnerCursor.getColumnIndex("_id"));
+
+                    boolean writePartiesTag = !(POgivenname != null && POgivenname.isEmpty() && POsurname != null && POsurname.isEmpty() && organization != null && organization.isEmpty() &&
+                            partyObserverCursor.getCount() == 0);
+
+                    if (writePartiesTag) {
+
+                        serializer.startTag(null, "parties");
+
+                        while (partyObserverCursor.moveToNext()) {
+                            _id = partyObserverCursor.getString(partyObserverCursor.getColumnIndex("_id"));
+                            givenname = partyObserverCursor.getString(partyObserverCursor.getColumnIndex("givenname"));
+                            surname = partyObserverCursor.getString(partyObserverCursor.getColumnIndex("surname"));
+                            plot = partyObserverCursor.getString(partyObserverCursor.getColumnIndex("plot"));
+                            originatorId = "originator_" + _id;
+
+                            // map originatorId to plots for later reference, a streaming export
+                            // maps those of each plot window when it writes the plot observations
+                            if (!streaming) {
+                                if (!plotObservatorIds.containsKey(plot)) {
+                                    // no key, create new list
+                                    plotObservatorIds.put(plot, new ArrayList<String>());
+                                }
+                                plotObservatorIds.get(plot).add(originatorId);
+                            }
+                            String partyObserverName = partyObserverName(givenname, surname);
+                            if (!givenname.isEmpty() || !surname.isEmpty()) {
+                                // observers with the same name are written once
+                                if (parties.addObserver(originatorId, partyObserverName)) {
+                                    serializer.startTag(null, "party");
+                                    serializer.attribute(null, "id", originatorId);
+                                    serializer.startTag(null, "individualName");
+                                    serializer.text(partyObserverName);
+                                    serializer.endTag(null, "individualName");
+                                    serializer.endTag(null, "party");
+                                }
+                            }
+                        }
+                            String partyOwnerName = "";
+                            if (POgivenname != null) {
+                                partyOwnerName += POgivenname;
+                            }
+                            if (POsurname != null) {
+                                partyOwnerName += ", " + POsurname;
+                            }
+                            if ( (POgivenname != null && !POgivenname.isEmpty()) || (POsurname != null && !POsurname.isEmpty())) {
+
+                                parties.addDataOwner(String.valueOf(profileId));
+
+                                serializer.startTag(null, "party");
+                                serializer.attribute(null, "id", "owner_" + String.valueOf(profileId));
+                                if (!partyOwnerName.isEmpty()) {
+                                    serializer.startTag(null, "individualName");
+                                    serializer.text(partyOwnerName);
+                                    serializer.endTag(null, "individualName");
+                                } else {
+                                    serializer.startTag(null, "organizationName");
+                                    if (organization != null) {
+                                        serializer.text(organization);
+                                    }
+                                    serializer.endTag(null, "organizationName");
+                                }
+                                serializer.endTag(null, "party");
+                            }
+
+                        serializer.endTag(null, "parties");
+                    }
+                }
+
+            } finally {
+                partyOwnerCursor.close();
+            }
+
+        } finally {
+            partyObserverCursor.close();
+        }
+
+    }
+
+    //************************************************************//
+    //**************** literatureCitations ***********************//
+    //************************************************************//
+
+    private void writeLiteratureCitations(VegXWriter serializer) throws IOException {
+        //cursors
+        SnapshotCursor plotCursor = plotCursor(false);
+        String _id, source_reference;
+        boolean started = false;
+        // the columns are looked up once, every window of rows has the same
+        int plotIdColumn = plotCursor.getColumnIndex("_id");
+        int plotSourceReferenceColumn = plotCursor.getColumnIndex("source_reference");
+        int speciesIdColumn = speciesRows.getRows().getColumnIndex("_id");
+        int speciesTaxonConceptColumn = speciesRows.getRows().getColumnIndex("taxon_concept");
+        int individualIdColumn = individualRows.getRows().getColumnIndex("_id");
+        int individualTaxonConceptColumn = individualRows.getRows().getColumnIndex("taxon_concept");
+
+    
+        //plot loop
+        try {
+            while (plotCursor.moveToNext()) {
+                nextPlot();
+                _id = plotCursor.getString(plotIdColumn);
+                source_reference = plotCursor.getString(plotSourceReferenceColumn);
+                
+                // Check if there is a source_reference before writing the node
+                if (source_reference != null && !source_reference.isEmpty()) {
+                    if (!started) {
+                        serializer.startTag(null, "literatureCitations");
+                        started = true;
+                    }
+                    serializer.startTag(null, "literatureCitation");
+                    serializer.attribute(null, "id", "citation_" + _id);
+                    serializer.startTag(null, "citationString");
+                    serializer.text(source_reference);
+                    serializer.endTag(null, "citationString");
+                    serializer.endTag(null, "literatureCitation");
+                }
+    
+                SnapshotCursor speciesCursor = speciesRows.forPlot(_id);
+                try {
+                    while (speciesCursor.moveToNext()) {
+                        String speciesId = speciesCursor.getString(speciesIdColumn);
+                        String citation = speciesCursor.getString(speciesTaxonConceptColumn);
+                        
+                        // Check if there is a citation before writing the node
+                        if (speciesId != null && !speciesId.isEmpty() && citation != null && !citation.isEmpty()) {
+                            if (!started) {
+                                serializer.startTag(null, "literatureCitations");
+                                started = true;
+                            }
+                            serializer.startTag(null, "literatureCitation");
+                            serializer.attribute(null, "id", "taxonConcept_citation_species_" + speciesId);
+                            serializer.startTag(null, "citationString");
+                            serializer.text(citation);
+                            serializer.endTag(null, "citationString");
+                            serializer.endTag(null, "literatureCitation");
+                        }
+                    }
+                } finally {
+                    speciesCursor.close();
+                }
+    
+                SnapshotCursor individualCursor = individualRows.forPlot(_id);
+                try {
+                    while (individualCursor.moveToNext()) {
+                        String individualId = individualCursor.getString(individualIdColumn);
+                        String citation = individualCursor.getString(individualTaxonConceptColumn);
+                        
+                        // Check if there is a citation before writing the node
+                        if (individualId != null && !individualId.isEmpty() && citation != null && !citation.isEmpty()) {
+                            if (!started) {
+                                serializer.startTag(null, "literatureCitations");
+                                started = true;
+                            }
+                            serializer.startTag(null, "literatureCitation");
+                            serializer.attribute(null, "id", "taxonConcept_citation_individual_" + individualId);
+                            serializer.startTag(null, "citationString");
+                            serializer.text(citation);
+                            serializer.endTag(null, "citationString");
+                            serializer.endTag(null, "literatureCitation");
+                        }
+                    }
+                } finally {
+                    individualCursor.close();
+                }
+            }
+        } finally {
+            plotCursor.close();
+        }
+        if (started) {
+            serializer.endTag(null, "literatureCitations");
+        }
+    }
+
+    //************************************************************//
+    //********************** methods  ****************************//
+    //************************************************************//
+    private void writeMethods(VegXWriter serializer) throws IOException {
+
+
+        SnapshotCursor layerSystemsCursor = dataSource.layerSystem(layersystemID).cursor();
+        layerSystemsCursor.moveToFirst();
+        String layer_name = layerSystemsCursor.getString(layerSystemsCursor.getColumnIndex("name"));
+        if (layer_name.equals("Default")) {
+            /* DONE: don't always just write default layer -> create a new method for custom_layers */
+            // default layer
+            serializer.startTag(null, "method");
+            serializer.attribute(null, "id", "defaultLayerSystem");
+            serializer.startTag(null, "name");
+            serializer.text("VegApp - Default Layer Categories");
+            serializer.endTag(null, "name");
+            serializer.startTag(null, "description");
+            serializer.text("Layer classification using mixed criteria (height and life form)");
+            serializer.endTag(null, "description");
+            serializer.startTag(null, "subject");
+            serializer.text("Classification of vegetation layers (strata, tiers)");
+            serializer.endTag(null, "subject");
+            serializer.endTag(null, "method");
+        } else {
+            // custom layer
+            serializer.startTag(null, "method");
+            serializer.attribute(null, "id", "customLayerSystem");
+            serializer.startTag(null, "name");
+            serializer.text(layer_name);
+            serializer.endTag(null, "name");
+            serializer.startTag(null, "description");
+            try {
+                serializer.text(layerSystemsCursor.getString(layerSystemsCursor.getColumnIndex("layer_system_description")));
+            } catch (NullPointerException e) {
+                e.printStackTrace();
+                serializer.text("");
+            }
+            ;
+            serializer.endTag(null, "description");
+            serializer.startTag(null, "subject");
+            serializer.text("Classification of vegetation layers (strata, tiers)");
+            serializer.endTag(null, "subject");
+            serializer.endTag(null, "method");
+        }
+        layerSystemsCursor.close();
+
+        // method_location_accuracy_in_meter
+        serializer.startTag(null, "method");
+        serializer.attribute(null, "id", "method_location_accuracy_in_meter");
+        serializer.startTag(null, "name");
+        serializer.text("Location accuracy in meters");
+        serializer.endTag(null, "name");
+        serializer.startTag(null, "description");
+        serializer.endTag(null, "description");
+        serializer.startTag(null, "subject");
+        serializer.text("Location accuracy");
+        serializer.endTag(null, "subject");
+        serializer.startTag(null, "citationString");
+        serializer.endTag(null, "citationString");
+        serializer.endTag(null, "method");
+
+        // method_plot_radius_in_meter
+        serializer.startTag(null, "method");
+        serializer.attribute(null, "id", "method_plot_radius_in_meter");
+        serializer.startTag(null, "name");
+        serializer.text("Plot radius in meters");
+        serializer.endTag(null, "name");
+        serializer.startTag(null, "description");
+        serializer.endTag(null, "description");
+        serializer.startTag(null, "subject");
+        serializer.text("Plot radius");
+        serializer.endTag(null, "subject");
+        serializer.startTag(null, "citationString");
+        serializer.endTag(null, "citationString");
+        serializer.endTag(null, "method");
+
+        // method_plot_width_in_meter
+        serializer.startTag(null, "method");
+        serializer.attribute(null, "id", "method_plot_width_in_meter");
+        serializer.startTag(null, "name");
+        serializer.text("Plot width in meters");
+        serializer.endTag(null, "name");
+        serializer.startTag(null, "description");
+        serializer.endTag(null, "description");
+        serializer.startTag(null, "subject");
+        serializer.text("Plot width");
+        serializer.endTag(null, "subject");
+        serializer.startTag(null, "citationString");
+        serializer.endTag(null, "citationString");
+        serializer.endTag(null, "method");
+
+        // method_plot_length_in_meter
+        serializer.startTag(null, "method");
+        serializer.attribute(null, "id", "method_plot_length_in_meter");
+        serializer.startTag(null, "name");
+        serializer.text("Plot length in meters");
+        serializer.endTag(null, "name");
+        serializer.startTag(null, "description");
+        serializer.endTag(null, "description");
+        serializer.startTag(null, "subject");
+        serializer.text("Plot length");
+        serializer.endTag(null, "subject");
+        serializer.startTag(null, "citationString");
+        serializer.endTag(null, "citationString");
+        serializer.endTag(null, "method");
+
+        // method_maximum_height_of_layer_in_meter
+        serializer.startTag(null, "method");
+        serializer.attribute(null, "id", "method_maximum_height_of_layer_in_meter");
+        serializer.startTag(null, "name");
+        serializer.text("Maximum height of layer in meters");
+        serializer.endTag(null, "name");
+        serializer.startTag(null, "description");
+        serializer.endTag(null, "description");
+        serializer.startTag(null, "subject");
+        serializer.text("Maximum height of layer");
+        serializer.endTag(null, "subject");
+        serializer.startTag(null, "citationString");
+        serializer.endTag(null, "citationString");
+        serializer.endTag(null, "method");
+
+        // method_average_stratum_height_in_meter
+        serializer.startTag(null, "method");
+        serializer.attribute(null, "id", "method_average_stratum_height_in_meter");
+        serializer.startTag(null, "name");
+        serializer.text("Average stratum height in meters");
+        serializer.endTag(null, "name");
+        serializer.startTag(null, "description");
+        serializer.endTag(null, "description");
+        serializer.startTag(null, "subject");
+        serializer.text("Average stratum height");
+        serializer.endTag(null, "subject");
+        serializer.startTag(null, "citationString");
+        serializer.endTag(null, "citationString");
+        serializer.endTag(null, "method");
+
+        // method_elevation_above_sea_level_in_meter
+        serializer.startTag(null, "method");
+        serializer.attribute(null, "id", "method_elevation_above_sea_level_in_meter");
+        serializer.startTag(null, "name");
+        serializer.text("Elevation above sea level in meters");
+        serializer.endTag(null, "name");
+        serializer.startTag(null, "description");
+        serializer.endTag(null, "description");
+        serializer.startTag(null, "subject");
+        serializer.text("Elevation above sea level");
+        serializer.endTag(null, "subject");
+        serializer.startTag(null, "citationString");
+        serializer.endTag(null, "citationString");
+        serializer.endTag(null, "method");
+
+        // method_location_accuracy_in_dop
+        serializer.startTag(null, "method");
+        serializer.attribute(null, "id", "method_location_accuracy_in_dop");
+        serializer.startTag(null, "name");
+        serializer.text("Location accuracy in DOP");
+        serializer.endTag(null, "name");
+        serializer.startTag(null, "description");
+        serializer.endTag(null, "description");
+        serializer.startTag(null, "subject");
+        serializer.text("Location accuracy");
+        serializer.endTag(null, "subject");
+        serializer.startTag(null, "citationString");
+        serializer.endTag(null, "citationString");
+        serializer.endTag(null, "method");
+
+        // method_plot_surface_in_square_meter
+        serializer.startTag(null, "method");
+        serializer.attribute(null, "id", "method_plot_surface_in_square_meter");
+        serializer.startTag(null, "name");
+        serializer.text("Plot surface area in square meters");
+        serializer.endTag(null, "name");
+        serializer.startTag(null, "description");
+        serializer.endTag(null, "description");
+        serializer.startTag(null, "subject");
+        serializer.text("Plot surface area");
+        serializer.endTag(null, "subject");
+        serializer.startTag(null, "citationString");
+        serializer.endTag(null, "citationString");
+        serializer.endTag(null, "method");
+
+        // method_plot_orientation_in_degrees
+        serializer.startTag(null, "method");
+        serializer.attribute(null, "id", "method_plot_orientation_in_degrees");
+        serializer.startTag(null, "name");
+        serializer.text("Plot orientation in degrees");
+        serializer.endTag(null, "name");
+        serializer.startTag(null, "description");
+        serializer.endTag(null, "description");
+        serializer.startTag(null, "subject");
+        serializer.text("Plot orientation");
+        serializer.endTag(null, "subject");
+        serializer.startTag(null, "citationString");
+        serializer.endTag(null, "citationString");
+        serializer.endTag(null, "method");
+
+        // method_aspect_in_degrees
+        serializer.startTag(null, "method");
+        serializer.attribute(null, "id", "method_aspect_in_degrees");
+        serializer.startTag(null, "name");
+        serializer.text("Aspect in degrees");
+        serializer.endTag(null, "name");
+        serializer.startTag(null, "description");
+        serializer.endTag(null, "description");
+        serializer.startTag(null, "subject");
+        serializer.text("Aspect");
+        serializer.endTag(null, "subject");
+        serializer.startTag(null, "citationString");
+        serializer.endTag(null, "citationString");
+        serializer.endTag(null, "method");
+
+        // method_slope_in_degrees
+        serializer.startTag(null, "method");
+        serializer.attribute(null, "id", "method_slope_in_degrees");
+        serializer.startTag(null, "name");
+        serializer.text("Slope in degrees");
+        serializer.endTag(null, "name");
+        serializer.startTag(null, "description");
+        serializer.endTag(null, "description");
+        serializer.startTag(null, "subject");
+        serializer.text("Slope");
+        serializer.endTag(null, "subject");
+        serializer.startTag(null, "citationString");
+        serializer.endTag(null, "citationString");
+        serializer.endTag(null, "method");
+
+        // method_percent_cover_of_species
+        serializer.startTag(null, "method");
+        serializer.attribute(null, "id", "method_percent_cover_of_species");
+        serializer.startTag(null, "name");
+        serializer.text("Percent cover of species");
+        serializer.endTag(null, "name");
+        serializer.startTag(null, "description");
+        serializer.text("Projected cover");
+        serializer.endTag(null, "description");
+        serializer.startTag(null, "subject");
+        serializer.text("Species cover");
+        serializer.endTag(null, "subject");
+        serializer.startTag(null, "citationString");
+        serializer.endTag(null, "citationString");
+        serializer.endTag(null, "method");
+
+        // method_percent_cover_of_surface_material
+        serializer.startTag(null, "method");
+        serializer.attribute(null, "id", "method_percent_cover_of_surface_material");
+        serializer.startTag(null, "name");
+        serializer.text("Percent cover of surface material");
+        serializer.endTag(null, "name");
+        serializer.startTag(null, "description");
+        serializer.text("Projected cover");
+        serializer.endTag(null, "description");
+        serializer.startTag(null, "subject");
+        serializer.text("Cover of surface material");
+        serializer.endTag(null, "subject");
+        serializer.startTag(null, "citationString");
+        serializer.endTag(null, "citationString");
+        serializer.endTag(null, "method");
+
+        // method_percent_cover_of_layer_stratum
+        serializer.startTag(null, "method");
+        serializer.attribute(null, "id", "method_percent_cover_of_layer_stratum");
+        serializer.startTag(null, "name");
+        serializer.text("Percent cover of layer (stratum)");
+        serializer.endTag(null, "name");
+        serializer.startTag(null, "description");
+        serializer.text("Projected cover");
+        serializer.endTag(null, "description");
+        serializer.startTag(null, "subject");
+        serializer.text("Cover of layer (stratum)");
+        serializer.endTag(null, "subject");
+        serializer.startTag(null, "citationString");
+        serializer.endTag(null, "citationString");
+        serializer.endTag(null, "method");
+        try {
+            if (coverScale != null && !coverScale.equals("'00'") && !coverScale.equals("") ) {
+                // coverscale
+                serializer.startTag(null, "method");
+                serializer.attribute(null, "id", "method_coverscale");
+                // substring to cut out the leading and trailing apostroph in project column entry
+                SnapshotCursor cover_scale_name_cursor = dataSource.coverScaleNames(coverScale.substring(1, coverScale.length() - 1)).cursor();
+                cover_scale_name_cursor.moveToFirst();
+                String cover_scale_name = cover_scale_name_cursor.getString(cover_scale_name_cursor.getColumnIndex("names"));
+                cover_scale_name_cursor.close();
+                serializer.startTag(null, "name");
+                if (cover_scale_name != null) {
+                    serializer.text(cover_scale_name);
+                }
+                serializer.endTag(null, "name");
+                serializer.startTag(null, "description");
+                serializer.text("Ordinal cover scale");
+                serializer.endTag(null, "description");
+                serializer.startTag(null, "subject");
+                serializer.text("Cover scale");
+                serializer.endTag(null, "subject");
+                serializer.startTag(null, "citationString");
+                serializer.endTag(null, "citationString");
+                serializer.endTag(null, "method");
+            }
+        } catch (Exception e) {
+            log.info(e.toString());
+        }
+
+        // method_geographic_latitude_longitude_in_decimal_degrees
+        serializer.startTag(null, "method");
+        serializer.attribute(null, "id", "method_geographic_latitude_longitude_in_decimal_degrees");
+        serializer.startTag(null, "name");
+        serializer.text("Geographic latitude and longitude");
+        serializer.endTag(null, "name");
+        serializer.startTag(null, "description");
+        serializer.endTag(null, "description");
+        serializer.startTag(null, "subject");
+        serializer.text("Coordinate system");
+        serializer.endTag(null, "subject");
+        serializer.startTag(null, "citationString");
+        serializer.endTag(null, "citationString");
+        serializer.endTag(null, "method");
+
+        // method_universal_transverse_mercator
+        serializer.startTag(null, "method");
+        serializer.attribute(null, "id", "method_universal_transverse_mercator");
+        serializer.startTag(null, "name");
+        serializer.text("Universal Transverse Mercator coordinate system");
+        serializer.endTag(null, "name");
+        serializer.startTag(null, "description");
+        serializer.endTag(null, "description");
+        serializer.startTag(null, "subject");
+        serializer.text("Coordinate system");
+        serializer.endTag(null, "subject");
+        serializer.startTag(null, "citationString");
+        serializer.endTag(null, "citationString");
+        serializer.endTag(null, "method");
+
+        SnapshotCursor plotCursor = plotCursor(false);
+        String _id;
+        try {
+            while (plotCursor.moveToNext()) {
+                nextPlot();
+                _id = plotCursor.getString(plotCursor.getColumnIndex("_id"));
+                String spatial_reference = plotCursor.getString(plotCursor.getColumnIndex("spatial_reference"));
+                if (spatial_reference != null && !spatial_reference.isEmpty()) {
+                    if (!spatialReferenceLookup.containsKey(spatial_reference)) {
+                        spatialReferenceLookup.put(spatial_reference, _id);
+                        // method_geographic_latitude_longitude_in_decimal_degrees with spatial_reference
+                        serializer.startTag(null, "method");
+                        serializer.attribute(null, "id", "method_geographic_latitude_longitude_in_decimal_degrees_" + _id);
+                        serializer.startTag(null, "name");
+                        serializer.text("Geographic latitude and longitude");
+                        serializer.endTag(null, "name");
+                        serializer.startTag(null, "description");
+                        serializer.text(spatial_reference);
+                        serializer.endTag(null, "description");
+                        serializer.startTag(null, "subject");
+                        serializer.text("Coordinate system");
+                        serializer.endTag(null, "subject");
+                        serializer.startTag(null, "citationString");
+                        serializer.endTag(null, "citationString");
+                        serializer.endTag(null, "method");
+
+                        // method_universal_transverse_mercator with spatial_reference
+                        serializer.startTag(null, "method");
+                        serializer.attribute(null, "id", "method_universal_transverse_mercator_" + _id);
+                        serializer.startTag(null, "name");
+                        serializer.text("Universal Transverse Mercator coordinate system");
+                        serializer.endTag(null, "name");
+                        serializer.startTag(null, "description");
+                        serializer.text(spatial_reference);
+                        serializer.endTag(null, "description");
+                        serializer.startTag(null, "subject");
+                        serializer.text("Coordinate system");
+                        serializer.endTag(null, "subject");
+                        serializer.startTag(null, "citationString");
+                        serializer.endTag(null, "citationString");
+                        serializer.endTag(null, "method");
+                    }
+                }
+
+                String northing = plotCursor.getString(plotCursor.getColumnIndex("northing"));
+                String easting = plotCursor.getString(plotCursor.getColumnIndex("easting"));
+                if (northing != null && !northing.isEmpty() && easting != null && !easting.isEmpty()) {
+                    String coordinate_system_zone = plotCursor.getString(plotCursor.getColumnIndex("coord_system_zone"));
+                    CoordSpatialPair coordSpatialPair = new CoordSpatialPair(coordinate_system_zone, spatial_reference);
+                    if (!coordinateUnitsLookup.containsKey(coordSpatialPair)) {
+                        coordinateUnitsLookup.put(coordSpatialPair, _id);
+                        // method_coordinate_units
+                        serializer.startTag(null, "method");
+                        serializer.attribute(null, "id", "method_coordinate_units_" + _id);
+                        serializer.startTag(null, "name");
+                        serializer.text("Coordinate system");
+                        serializer.endTag(null, "name");
+                        serializer.startTag(null, "description");
+                        if (spatial_reference != null && coordinate_system_zone != null) {
+                            serializer.text(spatial_reference + " " + coordinate_system_zone);
+                        } else if (spatial_reference != null) {
+                            serializer.text(spatial_reference);
+                        } else if (coordinate_system_zone != null) {
+                            serializer.text(coordinate_system_zone);
+                        }
+                        serializer.endTag(null, "description");
+                        serializer.startTag(null, "subject");
+                        serializer.text("Coordinate system");
+                        serializer.endTag(null, "subject");
+                        serializer.startTag(null, "citationString");
+                        serializer.endTag(null, "citationString");
+                        serializer.endTag(null, "method");
+                    }
+                }
+            }
+        } finally {
+            plotCursor.close();
+        }
+
+        // method_aspect_class
+        serializer.startTag(null, "method");
+        serializer.attribute(null, "id", "method_aspect_class");
+        serializer.startTag(null, "name");
+        serializer.text("Aspect classes");
+        serializer.endTag(null, "name");
+        serializer.startTag(null, "description");
+        serializer.text("Aspect class such as N, S, E, etc.");
+        serializer.endTag(null, "description");
+        serializer.startTag(null, "subject");
+        serializer.text("Aspect");
+        serializer.endTag(null, "subject");
+        serializer.startTag(null, "citationString");
+        serializer.endTag(null, "citationString");
+        serializer.endTag(null, "method");
+
+        boolean customFieldMethodsWritten = false;
+        SnapshotCursor individualsCursor;
+        if (streaming) {
+            individualsCursor = new WindowedCursor(dataSource.individualCount(exportedProjectId), settings.getMemoryBudget() / WINDOW_SHARE) {
+                @Override
+                TableSnapshot read(long afterId, int limit) {
+                    return dataSource.individuals(exportedProjectId, afterId, limit, individualColumns);
+                }
+            };
+        } else {
+            individualsCursor = dataSource.individuals(exportedProjectId, individualColumns).cursor();
+        }
+        // the columns are looked up once, every window of rows has the same
+        int individualDbhAboveGroundColumn = individualsCursor.getColumnIndex("dbh_above_ground");
+        int individualGirthAboveGroundColumn = individualsCursor.getColumnIndex("girth_above_ground");
+        int individualProtocolColumn = individualsCursor.getColumnIndex("protocol");
+        int individualIdColumn = individualsCursor.getColumnIndex("_id");
+        int individualDirectionOriginColumn = individualsCursor.getColumnIndex("direction_origin");
+        int individualDistanceOriginColumn = individualsCursor.getColumnIndex("distance_origin");
+        int individualQuarterColumn = individualsCursor.getColumnIndex("quarter");
+
+        try {
+            while (individualsCursor.moveToNext()) {
+                String dbh_above_ground = individualsCursor.getString(individualDbhAboveGroundColumn);
+                if (dbh_above_ground == null || dbh_above_ground.isEmpty()) {
+                    dbh_above_ground = "unspecified";
+                }
+                if (!dbhAboveGroundLookup.contains(dbh_above_ground)) {
+                    dbhAboveGroundLookup.add(dbh_above_ground);
+                    // method_diameter_at_breast_height_in_cm
+                    serializer.startTag(null, "method");
+                    serializer.attribute(null, "id", "method_diameter_at_breast_height_in_cm_" + dbh_above_ground);
+                    serializer.startTag(null, "name");
+                    serializer.text("Diameter at breast height (DBH) in cm");
+                    serializer.endTag(null, "name");
+                    serializer.startTag(null, "description");
+                    serializer.text("Diameter measured at " + dbh_above_ground + " m above ground");
+                    serializer.endTag(null, "description");
+                    serializer.startTag(null, "subject");
+                    serializer.text("Diameter");
+                    serializer.endTag(null, "subject");
+                    serializer.startTag(null, "citationString");
+                    serializer.endTag(null, "citationString");
+                    serializer.endTag(null, "method");
+                }
+                String girth_above_ground = individualsCursor.getString(individualGirthAboveGroundColumn);
+                if (girth_above_ground == null || girth_above_ground.isEmpty()) {
+                    girth_above_ground = "unspecified";
+                }
+                if (!girthAboveGroundLookup.contains(girth_above_ground)) {
+                    girthAboveGroundLookup.add(girth_above_ground);
+                    // method_girth_at_breast_height_in_cm
+                    serializer.startTag(null, "method");
+                    serializer.attribute(null, "id", "method_girth_at_breast_height_in_cm_" + girth_above_ground);
+                    serializer.startTag(null, "name");
+                    serializer.text("Girth at breast height in cm");
+                    serializer.endTag(null, "name");
+                    serializer.startTag(null, "description");
+                    serializer.text("Girth measured at " + girth_above_ground + " m above ground");
+                    serializer.endTag(null, "description");
+                    serializer.startTag(null, "subject");
+                    serializer.text("Girth");
+                    serializer.endTag(null, "subject");
+                    serializer.startTag(null, "citationString");
+                    serializer.endTag(null, "citationString");
+                    serializer.endTag(null, "method");
+                }
+
+                String protocol = individualsCursor.getString(individualProtocolColumn);
+                String individualId = individualsCursor.getString(individualIdColumn);
+                String polar_coordinate_direction = individualsCursor.getString(individualDirectionOriginColumn);
+                if (polar_coordinate_direction != null && !polar_coordinate_direction.isEmpty()) {
+                    if (!polarCoordinateDirectionLookup.containsKey(protocol)) {
+                        polarCoordinateDirectionLookup.put(protocol, individualId);
+                        serializer.startTag(null, "method");
+                        serializer.attribute(null, "id", "method_polar_coordinate_direction_" + individualId);
+                        serializer.startTag(null, "name");
+                        serializer.text("Direction of an individual relative to a location as part of a polar coordinate");
+                        serializer.endTag(null, "name");
+                        serializer.startTag(null, "description");
+                        if (protocol != null) {
+                            serializer.text(protocol);
+                        }
+                        serializer.endTag(null, "description");
+                        serializer.startTag(null, "subject");
+                        serializer.text("Location of an individual");
+                        serializer.endTag(null, "subject");
+                        serializer.startTag(null, "citationString");
+                        serializer.endTag(null, "citationString");
+                        serializer.endTag(null, "method");
+                    }
+                }
+                String polar_coordinate_distance = individualsCursor.getString(individualDistanceOriginColumn);
+                if (polar_coordinate_distance != null && !polar_coordinate_distance.isEmpty()) {
+                    if (!polarCoordinateDistanceLookup.containsKey(protocol)) {
+                        polarCoordinateDistanceLookup.put(protocol, individualId);
+                        serializer.startTag(null, "method");
+                        serializer.attribute(null, "id", "method_polar_coordinate_distance_" + individualId);
+                        serializer.startTag(null, "name");
+                        serializer.text("Distance of an individual as part of a polar coordinate");
+                        serializer.endTag(null, "name");
+                        serializer.startTag(null, "description");
+                        if (protocol != null) {
+                            serializer.text(protocol);
+                        }
+                        serializer.endTag(null, "description");
+                        serializer.startTag(null, "subject");
+                        serializer.text("Location of an individual");
+                        serializer.endTag(null, "subject");
+                        serializer.startTag(null, "citationString");
+                        serializer.endTag(null, "citationString");
+                        serializer.endTag(null, "method");
+                    }
+                }
+                String individual_location_quarter = individualsCursor.getString(individualQuarterColumn);
+                if (individual_location_quarter != null && !individual_location_quarter.isEmpty()) {
+                    QuarterProtocolPair quarterProtocolPair = new QuarterProtocolPair(individual_location_quarter, protocol);
+                    individualLocationQuarterProtocolSet.add(quarterProtocolPair);
+                    if (!individualLocationQuarterLookup.containsKey(protocol)) {
+                        individualLocationQuarterLookup.put(protocol, individualId);
+                        serializer.startTag(null, "method");
+                        serializer.attribute(null, "id", "method_individual_location_quarter_" + individualId);
+                        serializer.startTag(null, "name");
+                        serializer.text("Location of an individual in a plot quadrant");
+                        serializer.endTag(null, "name");
+                        serializer.startTag(null, "description");
+                        if (protocol != null) {
+                            serializer.text(protocol);
+                        }
+                        serializer.endTag(null, "description");
+                        serializer.startTag(null, "subject");
+                        serializer.text("Location of an individual");
+                        serializer.endTag(null, "subject");
+                        serializer.startTag(null, "citationString");
+                        serializer.endTag(null, "citationString");
+                        serializer.endTag(null, "method");
+                    }
+                }
+
+                // the methods of the custom fields are the same for every individual, write them once
+                if (!customFieldMethodsWritten) {
+                    customFieldMethodsWritten = true;
+                    for (CustomFieldCatalog.Field field : customFields.getFields()) {
+                        String id = "method_" + field.getAttribute() + "_" + field.getScope();
+                        String name = field.getName();
+                        String description = field.getMethod();
+                        String subject = field.getScope();
+                        String attribute = field.getAttribute();
+
+                        if (attribute == null) {
+                            attribute = "";
+                        }
+
+                        if (name == null) {
+                            name = "";
+                        } else if (description == null) {
+                            description = "";
+                        } else if (subject == null) {
+                            subject = "";
+                        }
+
+                        if (!checkInMethods(id)) {
+                            serializer.startTag(null, "method");
+                            serializer.attribute(null, "id", id);
+                            serializer.startTag(null, "name");
+                            serializer.text(attribute);
+                            serializer.endTag(null, "name");
+                            serializer.startTag(null, "description");
+                            serializer.text(description);
+                            serializer.endTag(null, "description");
+                            serializer.startTag(null, "subject");
+                            serializer.text(subject);
+                            serializer.endTag(null, "subject");
+                            serializer.startTag(null, "citationString");
+                            //serializer.text(/* stays empty */ "");
+                            serializer.endTag(null, "citationString");
+                            serializer.endTag(null, "method");
+
+                            methods.add(id);
+                        }
+                    }
+                }
+            }
+        } finally {
+            individualsCursor.close();
+        }
+
+    }
+
+    private boolean checkInMethods(String id) {
+        return methods.contains(id);
+    }
+
+    //************************************************************//
+    //********************* attributes  **************************//
+    //************************************************************//
+
+    private void writeAttributes(VegXWriter serializer) throws IOException {
+
+        serializer.startTag(null, "attributes");
+
+        // location_accuracy_in_meter
+        serializer.startTag(null, "attribute");
+        serializer.attribute(null, "id", "location_accuracy_in_meter");
+        serializer.startTag(null, "quantitative");
+        serializer.startTag(null, "methodID");
+        serializer.text("method_location_accuracy_in_meter");
+        serializer.endTag(null, "methodID");
+        serializer.startTag(null, "unit");
+        serializer.text("m");
+        serializer.endTag(null, "unit");
+        serializer.endTag(null, "quantitative");
+        serializer.endTag(null, "attribute");
+
+        // plot_radius_in_meter
+        serializer.startTag(null, "attribute");
+        serializer.attribute(null, "id", "plot_radius_in_meter");
+        serializer.startTag(null, "quantitative");
+        serializer.startTag(null, "methodID");
+        serializer.text("method_plot_radius_in_meter");
+        serializer.endTag(null, "methodID");
+        serializer.startTag(null, "unit");
+        serializer.text("m");
+        serializer.endTag(null, "unit");
+        serializer.endTag(null, "quantitative");
+        serializer.endTag(null, "attribute");
+
+        // plot_width_in_meter
+        serializer.startTag(null, "attribute");
+        serializer.attribute(null, "id", "plot_width_in_meter");
+        serializer.startTag(null, "quantitative");
+        serializer.startTag(null, "methodID");
+        serializer.text("method_plot_width_in_meter");
+        serializer.endTag(null, "methodID");
+        serializer.startTag(null, "unit");
+        serializer.text("m");
+        serializer.endTag(null, "unit");
+        serializer.endTag(null, "quantitative");
+        serializer.endTag(null, "attribute");
+
+        // plot_length_in_meter
+        serializer.startTag(null, "attribute");
+        serializer.attribute(null, "id", "plot_length_in_meter");
+        serializer.startTag(null, "quantitative");
+        serializer.startTag(null, "methodID");
+        serializer.text("method_plot_length_in_meter");
+        serializer.endTag(null, "methodID");
+        serializer.startTag(null, "unit");
+        serializer.text("m");
+        serializer.endTag(null, "unit");
+        serializer.endTag(null, "quantitative");
+        serializer.endTag(null, "attribute");
+
+        // maximum_height_of_layer_in_meter
+        serializer.startTag(null, "attribute");
+        serializer.attribute(null, "id", "maximum_height_of_layer_in_meter");
+        serializer.startTag(null, "quantitative");
+        serializer.startTag(null, "methodID");
+        serializer.text("method_maximum_height_of_layer_in_meter");
+        serializer.endTag(null, "methodID");
+        serializer.startTag(null, "unit");
+        serializer.text("m");
+        serializer.endTag(null, "unit");
+        serializer.endTag(null, "quantitative");
+        serializer.endTag(null, "attribute");
+
+        // average_stratum_height_in_meter
+        serializer.startTag(null, "attribute");
+        serializer.attribute(null, "id", "average_stratum_height_in_meter");
+        serializer.startTag(null, "quantitative");
+        serializer.startTag(null, "methodID");
+        serializer.text("method_average_stratum_height_in_meter");
+        serializer.endTag(null, "methodID");
+        serializer.startTag(null, "unit");
+        serializer.text("m");
+        serializer.endTag(null, "unit");
+        serializer.endTag(null, "quantitative");
+        serializer.endTag(null, "attribute");
+
+        // elevation_above_sea_level_in_meter
+        serializer.startTag(null, "attribute");
+        serializer.attribute(null, "id", "elevation_above_sea_level_in_meter");
+        serializer.startTag(null, "quantitative");
+        serializer.startTag(null, "methodID");
+        serializer.text("method_elevation_above_sea_level_in_meter");
+        serializer.endTag(null, "methodID");
+        serializer.startTag(null, "unit");
+        serializer.text("m");
+        serializer.endTag(null, "unit");
+        serializer.endTag(null, "quantitative");
+        serializer.endTag(null, "attribute");
+
+        // location_accuracy_in_dop
+        serializer.startTag(null, "attribute");
+        serializer.attribute(null, "id", "location_accuracy_in_dop");
+        serializer.startTag(null, "quantitative");
+        serializer.startTag(null, "methodID");
+        serializer.text("method_location_accuracy_in_dop");
+        serializer.endTag(null, "methodID");
+        serializer.startTag(null, "unit");
+        serializer.text("Geometric Dilution of Precision (DOP)");
+        serializer.endTag(null, "unit");
+        serializer.endTag(null, "quantitative");
+        serializer.endTag(null, "attribute");
+
+        // plot_surface_in_square_meter
+        serializer.startTag(null, "attribute");
+        serializer.attribute(null, "id", "plot_surface_in_square_meter");
+        serializer.startTag(null, "quantitative");
+        serializer.startTag(null, "methodID");
+        serializer.text("method_plot_surface_in_square_meter");
+        serializer.endTag(null, "methodID");
+        serializer.startTag(null, "unit");
+        serializer.text("m²");
+        serializer.endTag(null, "unit");
+        serializer.endTag(null, "quantitative");
+        serializer.endTag(null, "attribute");
+
+        // plot_orientation_in_degrees
+        serializer.startTag(null, "attribute");
+        serializer.attribute(null, "id", "plot_orientation_in_degrees");
+        serializer.startTag(null, "quantitative");
+        serializer.startTag(null, "methodID");
+        serializer.text("method_plot_orientation_in_degrees");
+        serializer.endTag(null, "methodID");
+        serializer.startTag(null, "unit");
+        serializer.text("°");
+        serializer.endTag(null, "unit");
+        serializer.endTag(null, "quantitative");
+        serializer.endTag(null, "attribute");
+
+        // aspect_in_degrees
+        serializer.startTag(null, "attribute");
+        serializer.attribute(null, "id", "aspect_in_degrees");
+        serializer.startTag(null, "quantitative");
+        serializer.startTag(null, "methodID");
+        serializer.text("method_aspect_in_degrees");
+        serializer.endTag(null, "methodID");
+        serializer.startTag(null, "unit");
+        serializer.text("°");
+        serializer.endTag(null, "unit");
+        serializer.endTag(null, "quantitative");
+        serializer.endTag(null, "attribute");
+
+        // slope_in_degrees
+        serializer.startTag(null, "attribute");
+        serializer.attribute(null, "id", "slope_in_degrees");
+        serializer.startTag(null, "quantitative");
+        serializer.startTag(null, "methodID");
+        serializer.text("method_slope_in_degrees");
+        serializer.endTag(null, "methodID");
+        serializer.startTag(null, "unit");
+        serializer.text("°");
+        serializer.endTag(null, "unit");
+        serializer.endTag(null, "quantitative");
+        serializer.endTag(null, "attribute");
+
+        // percent_cover_of_species
+        serializer.startTag(null, "attribute");
+        serializer.attribute(null, "id", "percent_cover_of_species");
+        serializer.startTag(null, "quantitative");
+        serializer.startTag(null, "methodID");
+        serializer.text("method_percent_cover_of_species");
+        serializer.endTag(null, "methodID");
+        serializer.startTag(null, "unit");
+        serializer.text("%");
+        serializer.endTag(null, "unit");
+        serializer.endTag(null, "quantitative");
+        serializer.endTag(null, "attribute");
+
+        // percent_cover_of_surface_material
+        serializer.startTag(null, "attribute");
+        serializer.attribute(null, "id", "percent_cover_of_surface_material");
+        serializer.startTag(null, "quantitative");
+        serializer.startTag(null, "methodID");
+        serializer.text("method_percent_cover_of_surface_material");
+        serializer.endTag(null, "methodID");
+        serializer.startTag(null, "unit");
+        serializer.text("%");
+        serializer.endTag(null, "unit");
+        serializer.endTag(null, "quantitative");
+        serializer.endTag(null, "attribute");
+
+        // percent_cover_of_layer_stratum
+        serializer.startTag(null, "attribute");
+        serializer.attribute(null, "id", "percent_cover_of_layer_stratum");
+        serializer.startTag(null, "quantitative");
+        serializer.startTag(null, "methodID");
+        serializer.text("method_percent_cover_of_layer_stratum");
+        serializer.endTag(null, "methodID");
+        serializer.startTag(null, "unit");
+        serializer.text("%");
+        serializer.endTag(null, "unit");
+        serializer.endTag(null, "quantitative");
+        serializer.endTag(null, "attribute");
+
+        if (coverScale != null && !coverScale.equals("'00'")) {
+            try{
+            SnapshotCursor cover_scale_codes_cursor = dataSource.coverCodes(coverScale.substring(1, coverScale.length() - 1)).cursor();
+                String code_value;
+                while (cover_scale_codes_cursor.moveToNext()) {
+                    code_value = cover_scale_codes_cursor.getString(cover_scale_codes_cursor.getColumnIndex("entry"));
+                    if (code_value != null && !code_value.isEmpty()) {
+                        serializer.startTag(null, "attribute");
+                        // remove whitespace from code_value for safe use in id
+                        // note: should two cover_codes ever be only different in whitespace,
+                        // this won't work and I hereby declare that cover_code stupid :)
+                        serializer.attribute(null, "id", "attribute_coverscale_" + code_value.replaceAll("\\s+", ""));
+                        serializer.startTag(null, "ordinal");
+                        serializer.startTag(null, "methodID");
+                        serializer.text("method_coverscale");
+                        serializer.endTag(null, "methodID");
+                        serializer.startTag(null, "code");
+                        serializer.text(code_value);
+                        serializer.endTag(null, "code");
+                        serializer.endTag(null, "ordinal");
+                        serializer.endTag(null, "attribute");
+                    }
+                }
+                serializer.startTag(null, "attribute");
+                serializer.attribute(null, "id", "attribute_coverscale_00");
+                serializer.startTag(null, "ordinal");
+                serializer.startTag(null, "methodID");
+                serializer.text("method_coverscale");
+                serializer.endTag(null, "methodID");
+                serializer.startTag(null, "code");
+                serializer.text("NA");
+                serializer.endTag(null, "code");
+                serializer.endTag(null, "ordinal");
+                serializer.endTag(null, "attribute");
+
+            } catch(Exception e) {
+                e.printStackTrace();
+            }
+        } else if (coverScale == null) {
+            /* TODO: is this fitting as a method for when no coverscale is selected? */
+            serializer.startTag(null, "attribute");
+            serializer.attribute(null, "id", "attribute_coverscale_null");
+            serializer.startTag(null, "ordinal");
+            serializer.startTag(null, "methodID");
+            serializer.text("method_coverscale");
+            serializer.endTag(null, "methodID");
+            serializer.startTag(null, "code");
+            serializer.text("NA");
+            serializer.endTag(null, "code");
+            serializer.endTag(null, "ordinal");
+            serializer.endTag(null, "attribute");
+        }
+
+        // geographic_latitude_longitude_in_decimal_degrees
+        serializer.startTag(null, "attribute");
+        serializer.attribute(null, "id", "geographic_latitude_longitude_in_decimal_degrees");
+        serializer.startTag(null, "quantitative");
+        serializer.startTag(null, "methodID");
+        serializer.text("method_geographic_latitude_longitude_in_decimal_degrees");
+        serializer.endTag(null, "methodID");
+        serializer.startTag(null, "unit");
+        serializer.text("Decimal degrees");
+        serializer.endTag(null, "unit");
+        serializer.endTag(null, "quantitative");
+        serializer.endTag(null, "attribute");
+
+        // universal_transverse_mercator
+        serializer.startTag(null, "attribute");
+        serializer.attribute(null, "id", "universal_transverse_mercator");
+        serializer.startTag(null, "quantitative");
+        serializer.startTag(null, "methodID");
+        serializer.text("method_universal_transverse_mercator");
+        serializer.endTag(null, "methodID");
+        serializer.startTag(null, "unit");
+        serializer.text("m");
+        serializer.endTag(null, "unit");
+        serializer.endTag(null, "quantitative");
+        serializer.endTag(null, "attribute");
+
+        for (String value : spatialReferenceLookup.values()) {
+            // geographic_latitude_longitude_in_decimal_degrees with spatial_reference
+            serializer.startTag(null, "attribute");
+            serializer.attribute(null, "id", "geographic_latitude_longitude_in_decimal_degrees_" + value);
+            serializer.startTag(null, "quantitative");
+            serializer.startTag(null, "methodID");
+            serializer.text("method_geographic_latitude_longitude_in_decimal_degrees_" + value);
+            serializer.endTag(null, "methodID");
+            serializer.startTag(null, "unit");
+            serializer.text("Decimal degrees");
+            serializer.endTag(null, "unit");
+            serializer.endTag(null, "quantitative");
+            serializer.endTag(null, "attribute");
+
+            // universal_transverse_mercator with spatial_refernece
+            serializer.startTag(null, "attribute");
+            serializer.attribute(null, "id", "universal_transverse_mercator_" + value);
+            serializer.startTag(null, "quantitative");
+            serializer.startTag(null, "methodID");
+            serializer.text("method_universal_transverse_mercator_" + value);
+            serializer.endTag(null, "methodID");
+            serializer.startTag(null, "unit");
+            serializer.text("m");
+            serializer.endTag(null, "unit");
+            serializer.endTag(null, "quantitative");
+            serializer.endTag(null, "attribute");
+        }
+
+        for (Map.Entry<CoordSpatialPair, String> entry : coordinateUnitsLookup.entrySet()) {
+            // coordinate_units
+            serializer.startTag(null, "attribute");
+            serializer.attribute(null, "id", "coordinate_units_" + entry.getValue());
+            serializer.startTag(null, "quantitative");
+            serializer.startTag(null, "methodID");
+            serializer.text("method_coordinate_units_" + entry.getValue());
+            serializer.endTag(null, "methodID");
+            serializer.startTag(null, "unit");
+            serializer.text(entry.getKey().getCoordinateUnits());
+            serializer.endTag(null, "unit");
+            serializer.endTag(null, "quantitative");
+            serializer.endTag(null, "attribute");
+        }
+
+        String[] aspectClasses = {"N", "NNE", "NE", "ENE", "E", "ESE", "SE", "SSE", "S", "SSW", "SW", "WSW", "W", "WNW", "NW", "NNW"};
+        for (String aspectClass : aspectClasses) {
+            // aspect class attribute for each class
+            serializer.startTag(null, "attribute");
+            serializer.attribute(null, "id", "aspect_class_" + aspectClass);
+            serializer.startTag(null, "qualitative");
+            serializer.startTag(null, "methodID");
+            serializer.text("method_aspect_class");
+            serializer.endTag(null, "methodID");
+            serializer.startTag(null, "code");
+            serializer.text(aspectClass);
+            serializer.endTag(null, "code");
+            serializer.endTag(null, "qualitative");
+            serializer.endTag(null, "attribute");
+        }
+
+        for (String dbhAboveGround : dbhAboveGroundLookup) {
+            // diameter_at_breast_height_in_cm
+            serializer.startTag(null, "attribute");
+            serializer.attribute(null, "id", "diameter_at_breast_height_in_cm_" + dbhAboveGround);
+            serializer.startTag(null, "quantitative");
+            serializer.startTag(null, "methodID");
+            serializer.text("method_diameter_at_breast_height_in_cm_" + dbhAboveGround);
+            serializer.endTag(null, "methodID");
+            serializer.startTag(null, "unit");
+            serializer.text("cm");
+            serializer.endTag(null, "unit");
+            serializer.endTag(null, "quantitative");
+            serializer.endTag(null, "attribute");
+        }
+
+        for (String girthAboveGround : girthAboveGroundLookup) {
+            // girth_at_breast_height_in_cm
+            serializer.startTag(null, "attribute");
+            serializer.attribute(null, "id", "girth_at_breast_height_in_cm_" + girthAboveGround);
+            serializer.startTag(null, "quantitative");
+            serializer.startTag(null, "methodID");
+            serializer.text("method_girth_at_breast_height_in_cm_" + girthAboveGround);
+            serializer.endTag(null, "methodID");
+            serializer.startTag(null, "unit");
+            serializer.text("cm");
+            serializer.endTag(null, "unit");
+            serializer.endTag(null, "quantitative");
+            serializer.endTag(null, "attribute");
+        }
+
+        for (String value : polarCoordinateDirectionLookup.values()) {
+            // polar coordinate direction
+            serializer.startTag(null, "attribute");
+            serializer.attribute(null, "id", "polar_coordinate_direction_" + value);
+            serializer.startTag(null, "quantitative");
+            serializer.startTag(null, "methodID");
+            serializer.text("method_polar_coordinate_direction_" + value);
+            serializer.endTag(null, "methodID");
+            serializer.startTag(null, "unit");
+            serializer.text("");
+            serializer.endTag(null, "unit");
+            serializer.endTag(null, "quantitative");
+            serializer.endTag(null, "attribute");
+        }
+
+        for (String value : polarCoordinateDistanceLookup.values()) {
+            // polar coordinate distance
+            serializer.startTag(null, "attribute");
+            serializer.attribute(null, "id", "polar_coordinate_distance_" + value);
+            serializer.startTag(null, "quantitative");
+            serializer.startTag(null, "methodID");
+            serializer.text("method_polar_coordinate_distance_" + value);
+            serializer.endTag(null, "methodID");
+            serializer.startTag(null, "unit");
+            serializer.text("");
+            serializer.endTag(null, "unit");
+            serializer.endTag(null, "quantitative");
+            serializer.endTag(null, "attribute");
+        }
+
+        for (QuarterProtocolPair quarterProtocolPair : individualLocationQuarterProtocolSet) {
+            // polar coordinate location in plot quarters
+            String methodId = individualLocationQuarterLookup.get(quarterProtocolPair.getProtocol());
+            serializer.startTag(null, "attribute");
+            serializer.attribute(null, "id", "individual_location_quarter_" + methodId + "_" + quarterProtocolPair.getQuarter());
+            serializer.startTag(null, "qualitative");
+            serializer.startTag(null, "methodID");
+            serializer.text("method_individual_location_quarter_" + methodId);
+            serializer.endTag(null, "methodID");
+            serializer.startTag(null, "code");
+            serializer.text(quarterProtocolPair.getQuarter());
+            serializer.endTag(null, "code");
+            serializer.endTag(null, "qualitative");
+            serializer.endTag(null, "attribute");
+        }
+
+        for (CustomFieldCatalog.Field field : customFields.getByLevel(nominal)) {
+            serializer.startTag(null, "attribute");
+            serializer.attribute(null, "id", field.getAttribute() + "_" + field.getScope());
+            serializer.startTag(null, "qualitative");
+            serializer.startTag(null, "methodID");
+            serializer.text("method_" + field.getAttribute() + "_" + field.getScope());
+            serializer.endTag(null, "methodID");
+            serializer.startTag(null, "code");
+            //serializer.text(dbh.getCoverScaleID(Integer.parseInt(projectId)));
+            serializer.text("");
+            serializer.endTag(null, "code");
+            serializer.endTag(null, "qualitative");
+            serializer.endTag(null, "attribute");
+        }
+
+        for (CustomFieldCatalog.Field field : customFields.getByLevel(ordinal)) {
+            serializer.startTag(null, "attribute");
+            serializer.attribute(null, "id", field.getAttribute() + "_" + field.getScope());
+            serializer.startTag(null, "ordinal");
+            serializer.startTag(null, "methodID");
+            serializer.text("method_" + field.getAttribute() + "_" + field.getScope());
+            serializer.endTag(null, "methodID");
+            serializer.startTag(null, "code");
+            //serializer.text(dbh.getCoverScaleID(Integer.parseInt(projectId)));
+            serializer.text("");
+            serializer.endTag(null, "code");
+            serializer.endTag(null, "ordinal");
+            serializer.endTag(null, "attribute");
+        }
+
+        for (CustomFieldCatalog.Field field : customFields.getByLevel(interval_ratio)) {
+            serializer.startTag(null, "attribute");
+            serializer.attribute(null, "id", field.getAttribute() + "_" + field.getScope());
+            serializer.startTag(null, "quantitative");
+            serializer.startTag(null, "methodID");
+            serializer.text("method_" + field.getAttribute() + "_" + field.getScope());
+            serializer.endTag(null, "methodID");
+            serializer.startTag(null, "unit");
+            String value = field.getUnits();
+            if (value != null && !value.isEmpty()) {
+            serializer.text(value);
+            }
+            serializer.endTag(null, "unit");
+            serializer.endTag(null, "quantitative");
+            serializer.endTag(null, "attribute");
+        }
+
+        serializer.endTag(null, "attributes");
+    }
+
+    //************************************************************//
+    //********************** strata  *****************************//
+    //************************************************************//
+
+    private void writeStrata(VegXWriter serializer) throws IOException {
+
+        serializer.startTag(null, "strata");
+        int i = 0;
+
+        for (Stratum layer : settings.getStrata()) {
+            serializer.startTag(null, "stratum");
+            serializer.attribute(null, "id", "stratum_" + layer.getID());
+            serializer.startTag(null, "stratumName");
+            if (layer.getName() != null) {
+                serializer.text(layer.getName());
+            }
+            serializer.endTag(null, "stratumName");
+            serializer.startTag(null, "methodID");
+            SnapshotCursor layerSystemsCursor = dataSource.layerSystem(layersystemID).cursor();
+            layerSystemsCursor.moveToFirst();
+            String layer_name = layerSystemsCursor.getString(layerSystemsCursor.getColumnIndex("name"));
+            if (layer_name.equals("Default")) {
+                serializer.text("defaultLayerSystem");
+            } else {
+                serializer.text("customLayerSystem");
+            }
+            layerSystemsCursor.close();
+            serializer.endTag(null, "methodID");
+            serializer.startTag(null, "definition");
+            if (layer.getCriteria() != null && !layer.getCriteria().isEmpty()) {
+                serializer.text(layer.getCriteria());
+            } else if (layer.getCriteriaDefault() != null) {
+                serializer.text(layer.getCriteriaDefault());
+            }
+            serializer.endTag(null, "definition");
+            serializer.startTag(null, "order");
+            i++;
+            serializer.text(String.valueOf(i));
+            serializer.endTag(null, "order");
+
+            if (layer.getMaxHeight() != null) {
+                serializer.startTag(null, "upperLimit");
+                serializer.text(layer.getMaxHeight());
+                serializer.endTag(null, "upperLimit");
+            }
+            if (layer.getMinHeight() != null) {
+                serializer.startTag(null, "lowerLimit");
+                serializer.text(layer.getMinHeight());
+                serializer.endTag(null, "lowerLimit");
+            }
+            serializer.endTag(null, "stratum");
+        }
+        serializer.endTag(null, "strata");
+    }
+
+    //************************************************************//
+    //******************** surfaceTypes  *************************//
+    //************************************************************//
+
+    // String[i][0] text of surfaceName tag
+    // String[i][1] database column for value tag
+    private static final String[][] surfaceTypes = new String[][]{
+            {"Live Plants (%)", "foliage"},
+            {"Standing deadwood (%)", "standing_dead"},
+            {"Lying deadwood (%)", "dead_stems"},
+            {"Moribund (%)", "moribund"},
+            {"Litter (%)", "litter"},
+            {"Bare rock (%)", "bare_rock"},
+            {"Bare soil(%)", "bare_soil"},
+            {"Bare ground (%)", "bare_ground"},
+            {"Open water (%)", "open_water"},
+            {"Live vascular (%)", "live_vascular"},
+            {"Live non-vascular (%)", "live_non_vascular"}
+    };
+
+    private void writeSurfaceTypes(VegXWriter serializer) throws IOException {
+
+        serializer.startTag(null, "surfaceTypes");
+
+        /* write normal surfaceTypes */
+        for (int i = 0; i < surfaceTypes.length; i++) {
+            serializer.startTag(null, "surfaceType");
+            serializer.attribute(null, "id", "surfaceType_" + surfaceTypes[i][1]);
+            serializer.startTag(null, "surfaceName");
+            serializer.text(surfaceTypes[i][0]);
+            serializer.endTag(null, "surfaceName");
+            serializer.endTag(null, "surfaceType");
+        }
+
+        /* write custom surfaceTypes */
+        for (CustomFieldCatalog.Field field : customFields.getByType(surface_cover)) {
+            serializer.startTag(null, "surfaceType");
+            serializer.attribute(null, "id", "surfaceType_" + field.getName());
+            serializer.startTag(null, "surfaceName");
+            serializer.text(field.getAttribute());
+            serializer.endTag(null, "surfaceName");
+            serializer.endTag(null, "surfaceType");
+        }
+
+        serializer.endTag(null, "surfaceTypes");
+    }
+
+    //************************************************************//
+    //******************** organismNames  ************************//
+    //************************************************************//
+
+    private void writeOrganismNames(VegXWriter serializer) throws IOException {
+        writePlotSection(serializer, "organismNames", false, !settings.isDistinctOrganismNames(), new PlotSection.Body() {
+            @Override
+            public void write(VegXWriter serializer, SnapshotCursor plotCursor, PlotSection section) throws IOException {
+                writeOrganismNamePlots(serializer, plotCursor, section);
+            }
+        });
+    }
+
+    private void writeOrganismNamePlots(VegXWriter serializer, SnapshotCursor plotCursor, PlotSection section) throws IOException {
+        String _id;
+        boolean distinct = settings.isDistinctOrganismNames();
+        // the columns are looked up once, every window of rows has the same
+        int plotIdColumn = plotCursor.getColumnIndex("_id");
+        int speciesIdColumn = speciesRows.getRows().getColumnIndex("_id");
+        int[] speciesNameColumns = nameColumns(speciesRows);
+        int individualIdColumn = individualRows.getRows().getColumnIndex("_id");
+        int[] individualNameColumns = nameColumns(individualRows);
+
+        try {
+            while (plotCursor.moveToNext()) {
+                nextPlot();
+                _id = plotCursor.getString(plotIdColumn);
+                SnapshotCursor speciesCursor = speciesRows.forPlot(_id);
+                try {
+                    while (speciesCursor.moveToNext()) {
+                        String speciesId = speciesCursor.getString(speciesIdColumn);
+                        if (speciesId != null && !speciesId.isEmpty()) {
+                            OrganismNameTable.Entry name = organismName(speciesCursor, speciesNameColumns, speciesId, false);
+                            if (!distinct || name.isFirst(speciesId, false)) {
+                                section.start();
+                                serializer.startTag(null, "organismName");
+                                serializer.attribute(null, "id", "organismName_" + speciesId);
+                                serializer.attribute(null, "taxonName", "true");
+                                serializer.text(name.getName());
+                                serializer.endTag(null, "organismName");
+                            }
+                        }
+                    }
+                } finally {
+                    speciesCursor.close();
+                }
+
+                //and now for individuals
+                SnapshotCursor individualsCursor = individualRows.forPlot(_id);
+                try {
+                    while (individualsCursor.moveToNext()) {
+                        String individualId = individualsCursor.getString(individualIdColumn);
+                        if (individualId != null && !individualId.isEmpty()) {
+                            OrganismNameTable.Entry name = organismName(individualsCursor, individualNameColumns, individualId, true);
+                            if (!distinct || name.isFirst(individualId, true)) {
+                                section.start();
+                                serializer.startTag(null, "organismName");
+                                serializer.attribute(null, "id", "organismName_" + individualId + "_i" );
+                                serializer.attribute(null, "taxonName", "true");
+                                serializer.text(name.getName());
+                                serializer.endTag(null, "organismName");
+                            }
+                        }
+                    }
+                } finally {
+                    individualsCursor.close();
+                }
+            }
+        } finally {
+            plotCursor.close();
+        }
+    }
+
+    // the columns of genus, genus_cf, spec and spec_cf in the rows
+    private static int[] nameColumns(PlotChildRows rows) {
+        TableSnapshot table = rows.getRows();
+        return new int[]{table.getColumnIndex("genus"), table.getColumnIndex("genus_cf"),
+                table.getColumnIndex("spec"), table.getColumnIndex("spec_cf")};
+    }
+
+    // the organism name of the species or individual row under the cursor
+    private OrganismNameTable.Entry organismName(SnapshotCursor cursor, int[] nameColumns, String rowId, boolean individual) {
+        return organismNames.resolve(cursor.getString(nameColumns[0]), cursor.getInt(nameColumns[1]),
+                cursor.getString(nameColumns[2]), cursor.getInt(nameColumns[3]), rowId, individual);
+    }
+
+    // resolves the names of all rows in the order the organismNames section writes them, so that the
+    // first row of each name is the same whichever thread writes it
+    private void resolveOrganismNames() {
+        int plotIdColumn = plots.getColumnIndex("_id");
+        int speciesIdColumn = speciesRows.getRows().getColumnIndex("_id");
+        int[] speciesNameColumns = nameColumns(speciesRows);
+        int individualIdColumn = individualRows.getRows().getColumnIndex("_id");
+        int[] individualNameColumns = nameColumns(individualRows);
+        SnapshotCursor plotCursor = plots.cursor();
+        while (plotCursor.moveToNext()) {
+            String _id = plotCursor.getString(plotIdColumn);
+            SnapshotCursor speciesCursor = speciesRows.forPlot(_id);
+            while (speciesCursor.moveToNext()) {
+                String speciesId = speciesCursor.getString(speciesIdColumn);
+                if (speciesId != null && !speciesId.isEmpty()) {
+                    organismName(speciesCursor, speciesNameColumns, speciesId, false);
+                }
+            }
+            SnapshotCursor individualsCursor = individualRows.forPlot(_id);
+            while (individualsCursor.moveToNext()) {
+                String individualId = individualsCursor.getString(individualIdColumn);
+                if (individualId != null && !individualId.isEmpty()) {
+                    organismName(individualsCursor, individualNameColumns, individualId, true);
+                }
+            }
+        }
+    }
+
+    //************************************************************//
+    //******************** taxonConcepts  ************************//
+    //************************************************************//
+
+    private void writeTaxonConcepts(VegXWriter serializer) throws IOException {
+        writePlotSection(serializer, "taxonConcepts", false, !settings.isDistinctOrganismNames(), new PlotSection.Body() {
+            @Override
+            public void write(VegXWriter serializer, SnapshotCursor plotCursor, PlotSection section) throws IOException {
+                writeTaxonConceptPlots(serializer, plotCursor, section);
+            }
+        });
+    }
+
+    private void writeTaxonConceptPlots(VegXWriter serializer, SnapshotCursor plotCursor, PlotSection section) throws IOException {
+        String _id;
+        // the columns are looked up once, every window of rows has the same
+        int plotIdColumn = plotCursor.getColumnIndex("_id");
+        int speciesIdColumn = speciesRows.getRows().getColumnIndex("_id");
+        int speciesTaxonConceptColumn = speciesRows.getRows().getColumnIndex("taxon_concept");
+        int individualIdColumn = individualRows.getRows().getColumnIndex("_id");
+        int individualTaxonConceptColumn = individualRows.getRows().getColumnIndex("taxon_concept");
+        // the organism names, where each is written only once
+        boolean distinct = settings.isDistinctOrganismNames();
+        int[] speciesNameColumns = nameColumns(speciesRows);
+        int[] individualNameColumns = nameColumns(individualRows);
+
+        try {
+            while (plotCursor.moveToNext()) {
+                nextPlot();
+                _id = plotCursor.getString(plotIdColumn);
+                SnapshotCursor speciesCursor = speciesRows.forPlot(_id);
+                try {
+                    while (speciesCursor.moveToNext()) {
+                        String speciesId = speciesCursor.getString(speciesIdColumn);
+                        if (speciesId != null && !speciesId.isEmpty()) {
+                            String taxonConcept = speciesCursor.getString(speciesTaxonConceptColumn);
+                            if (taxonConcept != null && !taxonConcept.isEmpty()) {
+                                section.start();
+                                serializer.startTag(null, "taxonConcept");
+                                serializer.attribute(null, "id", "taxonConcept_species_" + speciesId);
+                                serializer.startTag(null, "organismNameID");
+                                serializer.text(distinct ? organismName(speciesCursor, speciesNameColumns, speciesId, false).getNameId()
+                                        : "organismName_" + speciesId);
+                                serializer.endTag(null, "organismNameID");
+                                serializer.startTag(null, "accordingToCitationID");
+                                serializer.text("taxonConcept_citation_species_" + speciesId);
+                                serializer.endTag(null, "accordingToCitationID");
+                                serializer.endTag(null, "taxonConcept");
+                            }
+                        }
+                    }
+                } finally {
+                    speciesCursor.close();
+                }
+                SnapshotCursor individualsCursor = individualRows.forPlot(_id);
+                try {
+                    while (individualsCursor.moveToNext()) {
+                        String individualsId = individualsCursor.getString(individualIdColumn);
+                        if (individualsId != null && !individualsId.isEmpty()) {
+                            String taxonConcept = individualsCursor.getString(individualTaxonConceptColumn);
+                            if (taxonConcept != null && !taxonConcept.isEmpty()) {
+                                section.start();
+                                serializer.startTag(null, "taxonConcept");
+                                serializer.attribute(null, "id", "taxonConcept_individual_" + individualsId);
+                                serializer.startTag(null, "organismNameID");
+                                serializer.text(distinct ? organismName(individualsCursor, individualNameColumns, individualsId, true).getNameId()
+                                        : "organismName_" + individualsId);
+                                serializer.endTag(null, "organismNameID");
+                                serializer.startTag(null, "accordingToCitationID");
+                                serializer.text("taxonConcept_citation_individual_" + individualsId);
+                                serializer.endTag(null, "accordingToCitationID");
+                                serializer.endTag(null, "taxonConcept");
+                            }
+                        }
+                    }
+                } finally {
+                    individualsCursor.close();
+                }
+            }
+        } finally {
+            plotCursor.close();
+        }
+    }
+
+    //************************************************************//
+    //****************** organismIdentities  **********************//
+    //************************************************************//
+
+    private void writeOrganismIdentities(VegXWriter serializer) throws IOException {
+        writePlotSection(serializer, "organismIdentities", false, !settings.isDistinctOrganismNames(), new PlotSection.Body() {
+            @Override
+            public void write(VegXWriter serializer, SnapshotCursor plotCursor, PlotSection section) throws IOException {
+                writeOrganismIdentityPlots(serializer, plotCursor, section);
+            }
+        });
+    }
+
+    private void writeOrganismIdentityPlots(VegXWriter serializer, SnapshotCursor plotCursor, PlotSection section) throws IOException {
+        String _id;
+        // the columns are looked up once, every window of rows has the same
+        int plotIdColumn = plotCursor.getColumnIndex("_id");
+        int speciesIdColumn = speciesRows.getRows().getColumnIndex("_id");
+        int speciesTaxonConceptColumn = speciesRows.getRows().getColumnIndex("taxon_concept");
+        int individualIdColumn = individualRows.getRows().getColumnIndex("_id");
+        int individualTaxonConceptColumn = individualRows.getRows().getColumnIndex("taxon_concept");
+        // the organism names, where each is written only once
+        boolean distinct = settings.isDistinctOrganismNames();
+        int[] speciesNameColumns = nameColumns(speciesRows);
+        int[] individualNameColumns = nameColumns(individualRows);
+
+        // written even without plots
+        section.start();
+
+        try {
+            while (plotCursor.moveToNext()) {
+                nextPlot();
+                _id = plotCursor.getString(plotIdColumn);
+
+
+                SnapshotCursor speciesCursor = speciesRows.forPlot(_id);
+                try {
+                    while (speciesCursor.moveToNext()) {
+                        String speciesId = speciesCursor.getString(speciesIdColumn);
+                        String taxonConcept = speciesCursor.getString(speciesTaxonConceptColumn);
+                        if (speciesId != null && !speciesId.isEmpty()) {
+                            serializer.startTag(null, "organismIdentity");
+                            serializer.attribute(null, "id", "organismIdentitiy_" + speciesId);
+                            serializer.startTag(null, "originalOrganismNameID");
+                            serializer.text(distinct ? organismName(speciesCursor, speciesNameColumns, speciesId, false).getNameId()
+                                    : "organismName_" + speciesId);
+                            serializer.endTag(null, "originalOrganismNameID");
+
+                            serializer.startTag(null, "originalIdentificationConcept");
+                            serializer.startTag(null, "taxonConceptID");
+                            if(taxonConcept != null && !taxonConcept.isEmpty()) {
+                                serializer.text("taxonConcept_species_" + taxonConcept);
+                            }
+                            serializer.endTag(null, "taxonConceptID");
+                            serializer.endTag(null, "originalIdentificationConcept");
+                            serializer.endTag(null, "organismIdentity");
+                        }
+                    }
+                } finally {
+                    speciesCursor.close();
+                }
+
+
+                
+                //And now for individuals
+                SnapshotCursor individualCursor = individualRows.forPlot(_id);
+                try {
+                    while (individualCursor.moveToNext()) {
+                        String speciesId = individualCursor.getString(individualIdColumn);
+                        String taxonConcept = individualCursor.getString(individualTaxonConceptColumn);
+                        if (speciesId != null && !speciesId.isEmpty()) {
+                            serializer.startTag(null, "organismIdentity");
+                            serializer.attribute(null, "id", "organismIdentitiy_" + speciesId  );
+                            serializer.startTag(null, "originalOrganismNameID");
+                            serializer.text(distinct ? organismName(individualCursor, individualNameColumns, speciesId, true).getNameId()
+                                    : "organismName_" + speciesId + "_i");
+                            serializer.endTag(null, "originalOrganismNameID");
+
+                            serializer.startTag(null, "originalIdentificationConcept");
+                            serializer.startTag(null, "taxonConceptID");
+                            if(taxonConcept != null && !taxonConcept.isEmpty()) {
+                                serializer.text("taxonConcept_species_" + taxonConcept);
+                            }
+                            serializer.endTag(null, "taxonConceptID");
+                            serializer.endTag(null, "originalIdentificationConcept");
+                            serializer.endTag(null, "organismIdentity");
+                        }
+                    }
+                } finally {
+                    individualCursor.close();
+                }
+                
+
+            }
+        } finally {
+            plotCursor.close();
+        }
+    }
+
+    //************************************************************//
+    //****************** communityConcepts  **********************//
+    //************************************************************//
+
+
+    // String[i][0] text of name tag
+    // String[i][1] database column for value tag
+    private static final String[][] communityConcepts = new String[][]{
+            {"Subassociation", "subassociation"},
+            {"Association", "association"},
+            {"Alliance", "alliance"},
+            {"Community", "community"},
+            {"Formation", "formation"}
+    };
+
+    private void writeCommunityConcepts(VegXWriter serializer) throws IOException {
+
+        //cursors
+        SnapshotCursor plotCursor = plotCursor(false);
+        String _id, value;
+        boolean started = false;
+        // the columns are looked up once, every window of rows has the same
+        int idColumn = plotCursor.getColumnIndex("_id");
+        int[] conceptColumns = columnIndexes(plotCursor, communityConcepts);
+        try {
+            while (plotCursor.moveToNext()) {
+                nextPlot();
+                _id = plotCursor.getString(idColumn);
+
+                for (int i = 0; i < communityConcepts.length; i++) {
+                    value = plotCursor.getString(conceptColumns[i]);
+                    if (value != null && !value.isEmpty()) {
+                        if (!started) {
+                            serializer.startTag(null, "communityConcepts");
+                            started = true;
+                        }
+                        serializer.startTag(null, "communityConcept");
+                        serializer.attribute(null, "id", "communityConcept_" + _id + "_" + communityConcepts[i][1]);
+                        serializer.startTag(null, "name");
+                        serializer.text(value);
+                        serializer.endTag(null, "name");
+                        serializer.startTag(null, "rank");
+                        serializer.text(communityConcepts[i][0]);
+                        serializer.endTag(null, "rank");
+                        serializer.endTag(null, "communityConcept");
+                    }
+                }
+            }
+        } finally {
+            plotCursor.close();
+        }
+        if (started) {
+            serializer.endTag(null, "communityConcepts");
+        }
+    }
+
+    //************************************************************//
+    //**************** communityDeterminations ********************//
+    //************************************************************//
+
+    private void writeCommunityDeterminations(VegXWriter serializer) throws IOException {
+
+        //cursors
+        SnapshotCursor plotCursor = plotCursor(false);
+        String _id, value;
+        boolean started = false;
+        // the columns are looked up once, every window of rows has the same
+        int idColumn = plotCursor.getColumnIndex("_id");
+        int[] conceptColumns = columnIndexes(plotCursor, communityConcepts);
+        try {
+            while (plotCursor.moveToNext()) {
+                nextPlot();
+                _id = plotCursor.getString(idColumn);
+
+                boolean startedRelation = false;
+                for (int i = 0; i < communityConcepts.length; i++) {
+                    value = plotCursor.getString(conceptColumns[i]);
+                    if (value != null && !value.isEmpty()) {
+                        // insgesamt nur anfangen, wenn es auch relations gibt, da erforderlich
+                        if (!startedRelation) {
+                            if (!started) {
+                                serializer.startTag(null, "communityDeterminations");
+                                started = true;
+                            }
+                            serializer.startTag(null, "communityDetermination");
+                            serializer.attribute(null, "id", "communityDetermination_" + _id);
+                            serializer.startTag(null, "plotObservationID");
+                            serializer.text("plotObservation_" + _id);
+                            serializer.endTag(null, "plotObservationID");
+                            startedRelation = true;
+                        }
+                        serializer.startTag(null, "communityRelationshipAssertion");
+                        serializer.startTag(null, "communityConceptID");
+                        serializer.text("communityConcept_" + _id + "_" + communityConcepts[i][1]);
+                        serializer.endTag(null, "communityConceptID");
+                        serializer.endTag(null, "communityRelationshipAssertion");
+                    }
+                }
+                if (startedRelation) {
+                    serializer.endTag(null, "communityDetermination");
+                }
+            }
+        } finally {
+            plotCursor.close();
+        }
+        if (started) {
+            serializer.endTag(null, "communityDeterminations");
+        }
+    }
+
+
+    //************************************************************//
+    //********************** project *****************************//
+    //************************************************************//
+
+    // start projects
+    private void writeProject(VegXWriter serializer) throws IOException {
+        serializer.startTag(null, "projects");
+        serializer.startTag(null, "project");
+        serializer.attribute(null, "id", Integer.toString(exportedProjectId));
+
+        serializer.startTag(null, "title");
+        serializer.text(projectName);
+        serializer.endTag(null, "title");
+
+        serializer.endTag(null, "project");
+        serializer.endTag(null, "projects");
+    }
+
+    //************************************************************//
+    //********************** plots  ******************************//
+    //************************************************************//
+
+
+    // start plots
+    private void writePlots(VegXWriter serializer) throws IOException {
+        writePlotSection(serializer, "plots", new PlotSection.Body() {
+            @Override
+            public void write(VegXWriter serializer, SnapshotCursor plotCursor, PlotSection section) throws IOException {
+                writePlotPlots(serializer, plotCursor, section);
+            }
+        });
+    }
+
+    private void writePlotPlots(VegXWriter serializer, SnapshotCursor plotCursor, PlotSection section) throws IOException {
+        String permanent_plot, plot_name, plot_name_output, _id, value;
+
+        //plot loop
+        try {
+            while (plotCursor.moveToNext()) {
+                nextPlot();
+                //plot attribute loop
+                section.start();
+                // setup plot
+                serializer.startTag(null, "plot");
+
+                _id = plotCursor.getString(plotCursor.getColumnIndex("_id"));
+                serializer.attribute(null, "id", _id);
+
+                plot_name_output = "";
+                plot_name = plotCursor.getString(plotCursor.getColumnIndex("name"));
+                if (plot_name != null && !plot_name.isEmpty()) {
+                    plot_name_output = plot_name;
+                    permanent_plot = plotCursor.getString(plotCursor.getColumnIndex("permanent_plot_id"));
+                    if (permanent_plot != null && !permanent_plot.isEmpty()) {
+                        plot_name_output += "; Permanent plot name: " + permanent_plot;
+                    }
+                } else {
+                    plot_name_output = _id;
+                }
+                serializer.startTag(null, "plotName");
+                serializer.text(plot_name_output);
+                serializer.endTag(null, "plotName");
+
+                value = plotCursor.getString(plotCursor.getColumnIndex("parent_plot"));
+                if (value != null && !value.isEmpty()) {
+                    serializer.startTag(null, "relatedPlot");
+                    serializer.startTag(null, "relatedPlotID");
+                    serializer.text(value);
+                    serializer.endTag(null, "relatedPlotID");
+                    serializer.startTag(null, "plotRelationship");
+                    serializer.text("higher-level plot");
+                    serializer.endTag(null, "plotRelationship");
+                    serializer.endTag(null, "relatedPlot");
+                }
+
+                value = plotCursor.getString(plotCursor.getColumnIndex("sampling_scheme"));
+                serializer.startTag(null, "placementMethod");
+                if (value != null) {
+                    serializer.text(value);
+                }
+                serializer.endTag(null, "placementMethod");
+
+                locationPlotEntries(serializer, plotCursor);
+                geometryPlotEntries(serializer, plotCursor);
+                topographyPlotEntries(serializer, plotCursor);
+
+                serializer.startTag(null, "parentMaterial");
+                serializer.startTag(null, "value");
+                value = plotCursor.getString(plotCursor.getColumnIndex("rock_type"));
+                if (value != null) {
+                    serializer.text(value);
+                }
+                serializer.endTag(null, "value");
+                serializer.endTag(null, "parentMaterial");
+
+                simpleUserDefinedEntries(serializer, plotCursor, location, scope_plots);
+                simpleUserDefinedEntries(serializer, plotCursor, plot_geometry, scope_plots);
+                simpleUserDefinedEntries(serializer, plotCursor, placement_strategy, scope_plots);
+
+                // end plot
+                serializer.endTag(null, "plot");
+            }
+        } finally {
+            plotCursor.close();
+        }
+    }
+
+    // the column of every field was resolved against the plot, species or individuals rows when the catalog was read
+    private void simpleUserDefinedEntries(VegXWriter serializer, SnapshotCursor cursor, String type, String scope) throws IOException {
+        try {
+            for (CustomFieldCatalog.Field field : customFields.get(type, scope)) {
+                String v = cursor.getString(field.getColumnIndex());
+                serializer.startTag(null, "simpleUserDefined");
+                if (v != null && !v.isEmpty()) {
+                    serializer.startTag(null, "name");
+                    serializer.text(field.getAttribute());
+                    serializer.endTag(null, "name");
+                    serializer.startTag(null, "value");
+                    serializer.text(v);
+                    serializer.endTag(null, "value");
+                    serializer.startTag(null, "attributeID");
+                    serializer.text(field.getAttribute() + "_" + scope);
+                    serializer.endTag(null, "attributeID");
+                }
+                serializer.endTag(null, "simpleUserDefined");
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    private void writeObservationNote(VegXWriter serializer, SnapshotCursor cursor, String type, String scope) throws IOException {
+        try {
+            for (CustomFieldCatalog.Field field : customFields.get(type, scope)) {
+                String v = cursor.getString(field.getColumnIndex());
+                serializer.startTag(null, "observationNote");
+                if (v != null && !v.isEmpty()) {
+                    serializer.text(v);
+                }
+                serializer.endTag(null, "observationNote");
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    // write location plot entry
+    private void locationPlotEntries(VegXWriter serializer, SnapshotCursor cursor) throws IOException {
+        String value;
+
+        String _id = cursor.getString(cursor.getColumnIndex("_id"));
+        String spatial_reference = cursor.getString(cursor.getColumnIndex("spatial_reference"));
+        String coord_units = cursor.getString(cursor.getColumnIndex("coord_system_zone"));
+
+        serializer.startTag(null, "location");
+        // latitude/longitude coordinates
+        serializer.startTag(null, "horizontalCoordinates");
+        serializer.startTag(null, "coordinates");
+        serializer.startTag(null, "valueX");
+        value = cursor.getString(cursor.getColumnIndex("easting_lon"));
+        if (value != null) {
+            serializer.text(value);
+        }
+        serializer.endTag(null, "valueX");
+        serializer.startTag(null, "valueY");
+        value = cursor.getString(cursor.getColumnIndex("northing_lat"));
+        if (value != null) {
+            serializer.text(value);
+        }
+        serializer.endTag(null, "valueY");
+        serializer.startTag(null, "attributeID");
+        if (spatial_reference != null && spatialReferenceLookup.containsKey(spatial_reference)) {
+            serializer.text("geographic_latitude_longitude_in_decimal_degrees_" + spatialReferenceLookup.get(spatial_reference));
+        } else {
+            serializer.text("geographic_latitude_longitude_in_decimal_degrees");
+        }
+        serializer.endTag(null, "attributeID");
+        serializer.startTag(null, "spatialReference");
+        if (spatial_reference != null && !spatial_reference.isEmpty()) {
+            serializer.text(spatial_reference);
+        }
+        serializer.endTag(null, "spatialReference");
+        horizontalCoordinatesLocationAccuracy(serializer, cursor);
+        serializer.endTag(null, "coordinates");
+        serializer.endTag(null, "horizontalCoordinates");
+
+        // utm coordinates
+        serializer.startTag(null, "horizontalCoordinates");
+        serializer.startTag(null, "coordinates");
+        serializer.startTag(null, "valueX");
+        value = cursor.getString(cursor.getColumnIndex("utm_easting"));
+        if (value != null) {
+            serializer.text(value);
+        }
+        serializer.endTag(null, "valueX");
+        serializer.startTag(null, "valueY");
+        value = cursor.getString(cursor.getColumnIndex("utm_northing"));
+        if (value != null) {
+            serializer.text(value);
+        }
+        serializer.endTag(null, "valueY");
+        serializer.startTag(null, "attributeID");
+        if (spatial_reference != null && spatialReferenceLookup.containsKey(spatial_reference)) {
+            serializer.text("universal_transverse_mercator_" + spatialReferenceLookup.get(spatial_reference));
+        } else {
+            serializer.text("universal_transverse_mercator");
+        }
+        serializer.endTag(null, "attributeID");
+        serializer.startTag(null, "spatialReference");
+        value = cursor.getString(cursor.getColumnIndex("utm_zone"));
+        if (value != null && !value.isEmpty()) {
+            if (spatial_reference != null && !spatial_reference.isEmpty()) {
+                serializer.text(spatial_reference);
+            } else {
+                serializer.text("WGS84 / UTM zone " + value);
+            }
+        }
+        serializer.endTag(null, "spatialReference");
+        horizontalCoordinatesLocationAccuracy(serializer, cursor);
+        serializer.endTag(null, "coordinates");
+        serializer.endTag(null, "horizontalCoordinates");
+
+        // northing easting coord system
+        serializer.startTag(null, "horizontalCoordinates");
+        serializer.startTag(null, "coordinates");
+        serializer.startTag(null, "valueX");
+        value = cursor.getString(cursor.getColumnIndex("easting"));
+        if (value != null) {
+            serializer.text(value);
+        }
+        serializer.endTag(null, "valueX");
+        serializer.startTag(null, "valueY");
+        value = cursor.getString(cursor.getColumnIndex("northing"));
+        if (value != null) {
+            serializer.text(value);
+        }
+        serializer.endTag(null, "valueY");
+        serializer.startTag(null, "attributeID");
+        CoordSpatialPair coordSpatialPair = new CoordSpatialPair(coord_units, spatial_reference);
+        if (coordinateUnitsLookup.containsKey(coordSpatialPair)) {
+            serializer.text("coordinate_units_" + coordinateUnitsLookup.get(coordSpatialPair));
+        }
+        serializer.endTag(null, "attributeID");
+        serializer.startTag(null, "spatialReference");
+        if (spatial_reference != null && !spatial_reference.isEmpty()) {
+            serializer.text(spatial_reference);
+        }
+        serializer.endTag(null, "spatialReference");
+        horizontalCoordinatesLocationAccuracy(serializer, cursor);
+        serializer.endTag(null, "coordinates");
+        serializer.endTag(null, "horizontalCoordinates");
+
+
+        // vertical coordinates
+        value = cursor.getString(cursor.getColumnIndex("altitude"));
+        if (value != null && !value.isEmpty()) {
+            serializer.startTag(null, "verticalCoordinates");
+            serializer.startTag(null, "elevation");
+            serializer.startTag(null, "value");
+            serializer.text(value);
+            serializer.endTag(null, "value");
+            serializer.startTag(null, "attributeID");
+            serializer.text("elevation_above_sea_level_in_meter");
+            serializer.endTag(null, "attributeID");
+            serializer.endTag(null, "elevation");
+            serializer.endTag(null, "verticalCoordinates");
+        }
+
+        // markers
+        serializer.startTag(null, "markers");
+        value = cursor.getString(cursor.getColumnIndex("marker"));
+        if (value != null) {
+            serializer.text(value);
+        }
+        serializer.endTag(null, "markers");
+
+        // grid position
+        serializer.startTag(null, "gridPosition");
+        serializer.startTag(null, "gridSystem");
+        value = cursor.getString(cursor.getColumnIndex("survey_grid"));
+        if (value != null) {
+            serializer.text(value);
+        }
+        serializer.endTag(null, "gridSystem");
+        serializer.startTag(null, "gridCell");
+        value = cursor.getString(cursor.getColumnIndex("survey_cell"));
+        if (value != null) {
+            serializer.text(value);
+        }
+        serializer.endTag(null, "gridCell");
+        serializer.startTag(null, "gridCellQuadrant");
+        value = cursor.getString(cursor.getColumnIndex("survey_quadrant"));
+        if (value != null) {
+            serializer.text(value);
+        }
+        serializer.endTag(null, "gridCellQuadrant");
+        serializer.endTag(null, "gridPosition");
+
+        // places
+        serializer.startTag(null, "places");
+        serializer.startTag(null, "placeName");
+        value = cursor.getString(cursor.getColumnIndex("place_name"));
+        if (value != null) {
+            serializer.text(value);
+        }
+        serializer.endTag(null, "placeName");
+        serializer.startTag(null, "placeType");
+        serializer.text("Place name");
+        serializer.endTag(null, "placeType");
+        serializer.endTag(null, "places");
+
+        serializer.startTag(null, "places");
+        serializer.startTag(null, "placeName");
+        value = cursor.getString(cursor.getColumnIndex("country"));
+        if (value != null) {
+            serializer.text(value);
+        }
+        serializer.endTag(null, "placeName");
+        serializer.startTag(null, "placeType");
+        serializer.text("Country");
+        serializer.endTag(null, "placeType");
+
+        serializer.endTag(null, "places");
+
+        serializer.startTag(null, "places");
+        serializer.startTag(null, "placeName");
+        value = cursor.getString(cursor.getColumnIndex("federal_state"));
+        if (value != null) {
+            serializer.text(value);
+        }
+        serializer.endTag(null, "placeName");
+        serializer.startTag(null, "placeType");
+        serializer.text("Federated State");
+        serializer.endTag(null, "placeType");
+
+        serializer.endTag(null, "places");
+
+        serializer.startTag(null, "places");
+        serializer.startTag(null, "placeName");
+        value = cursor.getString(cursor.getColumnIndex("county"));
+        if (value != null) {
+            serializer.text(value);
+        }
+        serializer.endTag(null, "placeName");
+        serializer.startTag(null, "placeType");
+        serializer.text("County");
+        serializer.endTag(null, "placeType");
+
+        serializer.endTag(null, "places");
+
+        // finish location
+        serializer.endTag(null, "location");
+    }
+
+    private void horizontalCoordinatesLocationAccuracy(VegXWriter serializer, SnapshotCursor cursor) throws IOException {
+        String value;
+        // meter
+        serializer.startTag(null, "locationAccuracy");
+        serializer.startTag(null, "value");
+        value = cursor.getString(cursor.getColumnIndex("accuracy"));
+        if (value != null) {
+            serializer.text(value);
+        }
+        serializer.endTag(null, "value");
+        serializer.startTag(null, "attributeID");
+        serializer.text("location_accuracy_in_meter");
+        serializer.endTag(null, "attributeID");
+        serializer.endTag(null, "locationAccuracy");
+        // dop
+        serializer.startTag(null, "locationAccuracy");
+        serializer.startTag(null, "value");
+        value = cursor.getString(cursor.getColumnIndex("dop"));
+        if (value != null) {
+            serializer.text(value);
+        }
+        serializer.endTag(null, "value");
+        serializer.startTag(null, "attributeID");
+        serializer.text("location_accuracy_in_dop");
+        serializer.endTag(null, "attributeID");
+        serializer.endTag(null, "locationAccuracy");
+    }
+
+    // write geometry plot entry
+    private void geometryPlotEntries(VegXWriter serializer, SnapshotCursor cursor) throws IOException {
+        String value;
+
+        serializer.startTag(null, "geometry");
+
+        serializer.startTag(null, "area");
+        serializer.startTag(null, "value");
+        value = cursor.getString(cursor.getColumnIndex("plot_size"));
+        if (value != null) {
+            serializer.text(value);
+        }
+        serializer.endTag(null, "value");
+        serializer.startTag(null, "attributeID");
+        serializer.text("plot_surface_in_square_meter");
+        serializer.endTag(null, "attributeID");
+        serializer.endTag(null, "area");
+
+        serializer.startTag(null, "shape");
+        value = cursor.getString(cursor.getColumnIndex("plot_shape"));
+        if (value != null) {
+            serializer.text(value);
+        }
+        serializer.endTag(null, "shape");
+
+        serializer.startTag(null, "plotOrigin");
+        serializer.startTag(null, "plotOriginPosition");
+        value = cursor.getString(cursor.getColumnIndex("ref_point"));
+        if (value != null) {
+            serializer.text(value);
+        }
+        serializer.endTag(null, "plotOriginPosition");
+        serializer.endTag(null, "plotOrigin");
+
+        serializer.startTag(null, "radius");
+        serializer.startTag(null, "value");
+        value = cursor.getString(cursor.getColumnIndex("plot_radius"));
+        if (value != null) {
+            serializer.text(value);
+        }
+        serializer.endTag(null, "value");
+        serializer.startTag(null, "attributeID");
+        serializer.text("plot_radius_in_meter");
+        serializer.endTag(null, "attributeID");
+        serializer.endTag(null, "radius");
+
+        serializer.startTag(null, "width");
+        serializer.startTag(null, "value");
+        value = cursor.getString(cursor.getColumnIndex("plot_width"));
+        if (value != null) {
+            serializer.text(value);
+        }
+        serializer.endTag(null, "value");
+        serializer.startTag(null, "attributeID");
+        serializer.text("plot_width_in_meter");
+        serializer.endTag(null, "attributeID");
+        serializer.endTag(null, "width");
+
+        serializer.startTag(null, "length");
+        serializer.startTag(null, "value");
+        value = cursor.getString(cursor.getColumnIndex("plot_length"));
+        if (value != null) {
+            serializer.text(value);
+        }
+        serializer.endTag(null, "value");
+        serializer.startTag(null, "attributeID");
+        serializer.text("plot_length_in_meter");
+        serializer.endTag(null, "attributeID");
+        serializer.endTag(null, "length");
+
+        serializer.startTag(null, "orientation");
+        serializer.startTag(null, "value");
+        value = cursor.getString(cursor.getColumnIndex("orientation"));
+        if (value != null) {
+            serializer.text(value);
+        }
+        serializer.endTag(null, "value");
+        serializer.startTag(null, "attributeID");
+        serializer.text("plot_orientation_in_degrees");
+        serializer.endTag(null, "attributeID");
+        serializer.endTag(null, "orientation");
+
+        serializer.endTag(null, "geometry");
+    }
+
+    // write topography plot entry
+    private void topographyPlotEntries(VegXWriter serializer, SnapshotCursor cursor) throws IOException {
+        String value_aspect_deg = "";
+        serializer.startTag(null, "topography");
+        serializer.startTag(null, "aspect");
+
+        serializer.startTag(null, "value");
+        value_aspect_deg = cursor.getString(cursor.getColumnIndex("aspect"));
+
+        String value_aspect_classes = cursor.getString(cursor.getColumnIndex("aspect_classes"));
+
+        if (value_aspect_deg != null && !value_aspect_deg.isEmpty() ) {
+            serializer.text(value_aspect_deg);
+        }else if (value_aspect_classes != null && !value_aspect_classes.isEmpty()) {
+            serializer.text(value_aspect_classes);
+        }
+        serializer.endTag(null, "value");
+
+
+        serializer.startTag(null, "attributeID");
+
+
+        if (value_aspect_deg != null && !value_aspect_deg.isEmpty() ) {
+            serializer.text("aspect_in_degrees");
+        }else if (value_aspect_classes != null && !value_aspect_classes.isEmpty()) {
+            serializer.text("aspect_class_"+value_aspect_classes);
+        }
+
+
+
+        serializer.endTag(null, "attributeID");
+
+        /*
+        serializer.startTag(null, "value");
+        value = cursor.getString(cursor.getColumnIndex("aspect_classes"));
+        if (value != null) {
+            serializer.text(value);
+        }
+        serializer.endTag(null, "value");
+
+         */
+
+        serializer.endTag(null, "aspect");
+
+        String value = "";
+
+        serializer.startTag(null, "slope");
+        serializer.startTag(null, "value");
+        value = cursor.getString(cursor.getColumnIndex("slope"));
+        if (value != null) {
+            serializer.text(value);
+        }
+        serializer.endTag(null, "value");
+        serializer.startTag(null, "attributeID");
+        serializer.text("slope_in_degrees");
+        serializer.endTag(null, "attributeID");
+        serializer.endTag(null, "slope");
+
+        serializer.startTag(null, "landform");
+        value = cursor.getString(cursor.getColumnIndex("landform"));
+        if (value != null) {
+            serializer.text(value);
+        }
+        serializer.endTag(null, "landform");
+        serializer.endTag(null, "topography");
+    }
+
+    //************************************************************//
+    //********************** individual organisms *******************//
+    //************************************************************//
+    private void writeIndividualOrganisms(VegXWriter serializer) throws IOException {
+        //cursors
+        SnapshotCursor plotCursor = plotCursor(false);
+        String _id;
+        boolean started = false;
+        // the columns are looked up once, every window of rows has the same
+        int plotIdColumn = plotCursor.getColumnIndex("_id");
+        int individualIdColumn = individualRows.getRows().getColumnIndex("_id");
+        int individualProtocolColumn = individualRows.getRows().getColumnIndex("protocol");
+        int individualPlotIdColumn = individualRows.getRows().getColumnIndex("plot_id");
+        int individualXCoordColumn = individualRows.getRows().getColumnIndex("x_coord");
+        int individualYCoordColumn = individualRows.getRows().getColumnIndex("y_coord");
+        int individualDirectionOriginColumn = individualRows.getRows().getColumnIndex("direction_origin");
+        int individualDistanceOriginColumn = individualRows.getRows().getColumnIndex("distance_origin");
+        int individualQuarterColumn = individualRows.getRows().getColumnIndex("quarter");
+        int individualLongitudeColumn = individualRows.getRows().getColumnIndex("longitude");
+        int individualLatitudeColumn = individualRows.getRows().getColumnIndex("latitude");
+        int individualAccuracyColumn = individualRows.getRows().getColumnIndex("accuracy");
+
+        try {
+            while (plotCursor.moveToNext()) {
+                nextPlot();
+                _id = plotCursor.getString(plotIdColumn);
+                SnapshotCursor individualsCursor = individualRows.forPlot(_id);
+                try {
+                    while (individualsCursor.moveToNext()) {
+                        String indiviualId = individualsCursor.getString(individualIdColumn);
+                        if (indiviualId != null && !indiviualId.isEmpty()) {
+                            if (!started) {
+                                serializer.startTag(null, "individualOrganisms");
+                                started = true;
+                            }
+                            String protocol = individualsCursor.getString(individualProtocolColumn);
+                            serializer.startTag(null, "individualOrganism");
+                            serializer.attribute(null, "id", "individualOrganism_" + indiviualId);
+                            serializer.startTag(null, "plotID");
+                            serializer.text(_id);
+                            serializer.endTag(null, "plotID");
+                            serializer.startTag(null, "individualOrganismLabel");
+                            serializer.text(indiviualId);
+                            serializer.endTag(null, "individualOrganismLabel");
+                            serializer.startTag(null, "organismIdentityID");
+                            String speciesNr = individualsCursor.getString(individualPlotIdColumn);
+                            if (speciesNr != null) {
+                                serializer.text("organismIdentitiy_" + indiviualId);
+                            }
+                            serializer.endTag(null, "organismIdentityID");
+
+                            /* TODO: I think we need latitude, longitude and accuracy here rather than x and y
+                             *   but x and y coords should also be exported if available */
+                            String x_coord = individualsCursor.getString(individualXCoordColumn);
+                            String y_coord = individualsCursor.getString(individualYCoordColumn);
+
+                            String direction_origin = individualsCursor.getString(individualDirectionOriginColumn);
+                            String distance_origin = individualsCursor.getString(individualDistanceOriginColumn);
+                            String quarter = individualsCursor.getString(individualQuarterColumn);
+
+                            String longitude = individualsCursor.getString(individualLongitudeColumn);
+                            String latitude = individualsCursor.getString(individualLatitudeColumn);
+                            String accuracy = individualsCursor.getString(individualAccuracyColumn);
+
+
+                            serializer.startTag(null, "location");
+
+                            if (x_coord != null && !x_coord.isEmpty()
+                                    || y_coord != null && !y_coord.isEmpty()
+                                    || direction_origin != null && !direction_origin.isEmpty()
+                                    || distance_origin != null && !distance_origin.isEmpty()
+                                    || longitude != null && !longitude.isEmpty()
+                                    || latitude != null && !latitude.isEmpty()
+                                    || accuracy != null && !accuracy.isEmpty()) {
+                                /* TODO: change tag-names (same as in Plots?) and also add tag for lat - lon with:
+                                 *   - add AttributeID depending on spatial reference */
+                                /*  - add Spatial reference if available */
+                                /*  - Accuracy */
+                                serializer.startTag(null, "horizontalLocation");
+
+                                if (longitude != null && !longitude.isEmpty() || latitude != null && !latitude.isEmpty() || accuracy != null && !accuracy.isEmpty()) {
+                                    serializer.startTag(null, "xyCoordinates");
+                                    if (longitude != null && !longitude.isEmpty() || latitude != null && !latitude.isEmpty()) {
+
+                                        if (longitude != null && !longitude.isEmpty()) {
+                                            serializer.startTag(null, "valueX");
+                                            serializer.text(longitude);
+                                            serializer.endTag(null, "valueX");
+                                        }
+                                        if (latitude != null && !latitude.isEmpty()) {
+                                            serializer.startTag(null, "valueY");
+                                            serializer.text(latitude);
+                                            serializer.endTag(null, "valueY");
+                                        }
+
+                                        serializer.startTag(null, "attributeID");
+                                        serializer.text("geographic_latitude_longitude_in_decimal_degrees");
+                                        serializer.endTag(null, "attributeID");
+
+                                        serializer.startTag(null, "spatialReference");
+                                        serializer.text("EPSG:4326");
+                                        serializer.endTag(null, "spatialReference");
+
+                                    }
+                                    if (accuracy != null && !accuracy.isEmpty()) {
+                                        serializer.startTag(null, "locationAccuracy");
+                                        serializer.startTag(null, "value");
+                                        serializer.text(accuracy);
+                                        serializer.endTag(null, "value");
+                                        serializer.startTag(null, "attributeID");
+                                        serializer.text("location_accuracy_in_meter");
+                                        serializer.endTag(null, "attributeID");
+                                        serializer.endTag(null, "locationAccuracy");
+                                    }
+                                    serializer.endTag(null, "xyCoordinates");
+
+
+                                }
+
+                                // polar coords
+                                if (direction_origin != null && !direction_origin.isEmpty() || distance_origin != null && !distance_origin.isEmpty()) {
+                                    serializer.startTag(null, "polarCoordinates");
+                                    if (direction_origin != null && !direction_origin.isEmpty()) {
+                                        serializer.startTag(null, "direction");
+                                        serializer.startTag(null, "value");
+                                        serializer.text(direction_origin);
+                                        serializer.endTag(null, "value");
+                                        serializer.startTag(null, "attributeID");
+                                        serializer.text("polar_coordinate_direction_" + polarCoordinateDirectionLookup.get(protocol));
+                                        serializer.endTag(null, "attributeID");
+                                        serializer.endTag(null, "direction");
+                                    }
+                                    if (distance_origin != null && !distance_origin.isEmpty()) {
+                                        serializer.startTag(null, "distance");
+                                        serializer.startTag(null, "value");
+                                        serializer.text(distance_origin);
+                                        serializer.endTag(null, "value");
+                                        serializer.startTag(null, "attributeID");
+                                        serializer.text("polar_coordinate_distance_" + polarCoordinateDistanceLookup.get(protocol));
+                                        serializer.endTag(null, "attributeID");
+                                        serializer.endTag(null, "distance");
+                                    }
+                                    serializer.endTag(null, "polarCoordinates");
+                                }
+                                serializer.endTag(null, "horizontalLocation");
+                            }
+
+                            if (quarter != null && !quarter.isEmpty()) {
+                                serializer.startTag(null, "quadrant");
+                                serializer.startTag(null, "value");
+                                serializer.text(quarter);
+                                serializer.endTag(null, "value");
+                                serializer.startTag(null, "attributeID");
+                                serializer.text("individual_location_quarter_" + individualLocationQuarterLookup.get(protocol) + "_" + quarter);
+                                serializer.endTag(null, "attributeID");
+                                serializer.endTag(null, "quadrant");
+                            }
+
+                            serializer.endTag(null, "location");
+
+                            serializer.endTag(null, "individualOrganism");
+                        }
+                    }
+                } finally {
+                    individualsCursor.close();
+                }
+            }
+        } finally {
+            plotCursor.close();
+        }
+        if (started) {
+            serializer.endTag(null, "individualOrganisms");
+        }
+
+    }
+
+    //************************************************************//
+    //********************** plot observations *******************//
+    //************************************************************//
+
+    private void writePlotObversations(VegXWriter serializer) throws IOException {
+        // the observers of the plots are part of what a plot is written from
+        writePlotSection(serializer, "plotObservations", true, new PlotSection.Body() {
+            @Override
+            public void write(VegXWriter serializer, SnapshotCursor plotCursor, PlotSection section) throws IOException {
+                writePlotObservationPlots(serializer, plotCursor, section);
+            }
+        });
+    }
+
+    private void writePlotObservationPlots(VegXWriter serializer, SnapshotCursor plotCursor, PlotSection section) throws IOException {
+        String _id, value;
+
+        //plot observations loop
+        try {
+            while (plotCursor.moveToNext()) {
+                nextPlot();
+                section.start();
+                // setup
+                serializer.startTag(null, "plotObservation");
+                _id = plotCursor.getString(plotCursor.getColumnIndex("_id"));
+                serializer.attribute(null, "id", "plotObservation_" + _id);
+                serializer.startTag(null, "plotID");
+                serializer.text(_id);
+                serializer.endTag(null, "plotID");
+                serializer.startTag(null, "obsStartDate");
+                value = plotCursor.getString(plotCursor.getColumnIndex("date"));
+                serializer.text(ddmmyyyToyyyymmdd(value));
+                serializer.endTag(null, "obsStartDate");
+                serializer.startTag(null, "projectID");
+                serializer.text(projectId);
+                serializer.endTag(null, "projectID");
+                serializer.startTag(null, "communityObservationID");
+                serializer.text("communityObservation_" + _id);
+                serializer.endTag(null, "communityObservationID");
+                serializer.startTag(null, "siteObservationID");
+                serializer.text("siteObservation_" + _id);
+                serializer.endTag(null, "siteObservationID");
+                if (plotObservatorIds.containsKey(_id)) {
+                    List<String> observationParties = plotObservatorIds.get(_id);
+                    for (String partyId : observationParties) {
+                        serializer.startTag(null, "observationPartyID");
+                        serializer.text(parties.canonicalId(partyId));
+                        serializer.endTag(null, "observationPartyID");
+                    }
+                }
+                String license = plotCursor.getString(plotCursor.getColumnIndex("license"));
+                String attribution = plotCursor.getString(plotCursor.getColumnIndex("attribution"));
+                if (license != null && !license.isEmpty() || attribution != null && !attribution.isEmpty() || parties.isDataOwner(String.valueOf(profileId))) {
+                    serializer.startTag(null, "license");
+                    if (license != null && !license.isEmpty()) {
+                        serializer.startTag(null, "licenseName");
+                        serializer.text(license);
+                        serializer.endTag(null, "licenseName");
+                    }
+                    if (attribution != null && !attribution.isEmpty()) {
+                        serializer.startTag(null, "attribution");
+                        serializer.text(attribution);
+                        serializer.endTag(null, "attribution");
+                    }
+
+                    if (parties.isDataOwner(String.valueOf(profileId))) {
+                        serializer.startTag(null, "partyID");
+                        serializer.text("owner_" + profileId);
+                        serializer.endTag(null, "partyID");
+                    }
+                    serializer.endTag(null, "license");
+                }
+                serializer.startTag(null, "taxonomicQuality");
+                serializer.startTag(null, "qualityAssessment");
+                value = plotCursor.getString(plotCursor.getColumnIndex("mosses_ident"));
+                if (value != null) {
+                    serializer.text(value);
+                }
+                serializer.endTag(null, "qualityAssessment");
+                serializer.startTag(null, "assessmentType");
+                serializer.text("Mosses identified (true or false)");
+                serializer.endTag(null, "assessmentType");
+                serializer.endTag(null, "taxonomicQuality");
+
+                serializer.startTag(null, "taxonomicQuality");
+                serializer.startTag(null, "qualityAssessment");
+                value = plotCursor.getString(plotCursor.getColumnIndex("lichens_ident"));
+                if (value != null) {
+                    serializer.text(value);
+                }
+                serializer.endTag(null, "qualityAssessment");
+                serializer.startTag(null, "assessmentType");
+                serializer.text("Lichens identified (true or false)");
+                serializer.endTag(null, "assessmentType");
+                serializer.endTag(null, "taxonomicQuality");
+
+                serializer.startTag(null, "observationNarrative");
+                value = plotCursor.getString(plotCursor.getColumnIndex("remarks"));
+                if (value != null) {
+                    serializer.text(value);
+                }
+                serializer.endTag(null, "observationNarrative");
+
+                serializer.startTag(null, "referencePublication");
+                serializer.startTag(null, "citationID");
+                serializer.text("citation_" + _id);
+                serializer.endTag(null, "citationID");
+                serializer.startTag(null, "referenceTable");
+                value = plotCursor.getString(plotCursor.getColumnIndex("source_table"));
+                if (value != null) {
+                    serializer.text(value);
+                }
+                serializer.endTag(null, "referenceTable");
+                serializer.startTag(null, "referencePlot");
+                value = plotCursor.getString(plotCursor.getColumnIndex("source_plot"));
+                if (value != null) {
+                    serializer.text(value);
+                }
+                serializer.endTag(null, "referencePlot");
+                serializer.endTag(null, "referencePublication");
+
+                writeObservationNote(serializer, plotCursor, "Remarks", scope_plots);
+
+                simpleUserDefinedEntries(serializer, plotCursor, "Custom", scope_plots);
+                //writeObservationNote(serializer, plotCursor, "Remarks", scope_plots);
+                simpleUserDefinedEntries(serializer, plotCursor, meta_data, scope_plots);
+                simpleUserDefinedEntries(serializer, plotCursor, legal, scope_plots);
+                simpleUserDefinedEntries(serializer, plotCursor, literature_source, scope_plots);
+
+
+                serializer.endTag(null, "plotObservation");
+
+            }
+        } finally {
+            plotCursor.close();
+        }
+    }
+
+    //************************************************************//
+    //********* individualOrganismObservations***************//
+    //************************************************************//
+
+    private void writeIndividualOrganismObservations(VegXWriter serializer) throws IOException {
+        //cursors
+        SnapshotCursor plotCursor = plotCursor(false);
+        String _id;
+        boolean started = false;
+        // the columns are looked up once, every window of rows has the same
+        int plotIdColumn = plotCursor.getColumnIndex("_id");
+        int individualIdColumn = individualRows.getRows().getColumnIndex("_id");
+        int individualDbhColumn = individualRows.getRows().getColumnIndex("dbh");
+        int individualDbhAboveGroundColumn = individualRows.getRows().getColumnIndex("dbh_above_ground");
+        int individualGirthColumn = individualRows.getRows().getColumnIndex("girth");
+        int individualGirthAboveGroundColumn = individualRows.getRows().getColumnIndex("girth_above_ground");
+        int individualCustomBColumn = individualRows.getRows().getColumnIndex("custom_b");
+
+        try {
+            while (plotCursor.moveToNext()) {
+                nextPlot();
+                _id = plotCursor.getString(plotIdColumn);
+                SnapshotCursor individualsCursor = individualRows.forPlot(_id);
+                try {
+                    while (individualsCursor.moveToNext()) {
+                        String indiviualId = individualsCursor.getString(individualIdColumn);
+                        if (indiviualId != null && !indiviualId.isEmpty()) {
+                            if (!started) {
+                                serializer.startTag(null, "individualOrganismObservations");
+                                started = true;
+                            }
+                            serializer.startTag(null, "individualOrganismObservation");
+                            serializer.attribute(null, "id", "individualOrganismObservation_" + indiviualId);
+                            serializer.startTag(null, "plotObservationID");
+                            serializer.text("plotObservation_" + _id);
+                            serializer.endTag(null, "plotObservationID");
+                            serializer.startTag(null, "individualOrganismID");
+                            serializer.text("individualOrganism_" + indiviualId);
+                            serializer.endTag(null, "individualOrganismID");
+
+                            String dbh = individualsCursor.getString(individualDbhColumn);
+                            String dbh_above_ground = individualsCursor.getString(individualDbhAboveGroundColumn);
+                            if (dbh != null && !dbh.isEmpty()) {
+                                serializer.startTag(null, "individualOrganismMeasurement");
+                                serializer.startTag(null, "value");
+                                serializer.text(dbh);
+                                serializer.endTag(null, "value");
+                                serializer.startTag(null, "attributeID");
+                                if (dbh_above_ground == null || dbh_above_ground.isEmpty()) {
+                                    serializer.text("diameter_at_breast_height_in_cm_unspecified");
+                                } else {
+                                    serializer.text("diameter_at_breast_height_in_cm_" + dbh_above_ground);
+                                }
+                                serializer.endTag(null, "attributeID");
+                                serializer.endTag(null, "individualOrganismMeasurement");
+                            }
+                            String girth = individualsCursor.getString(individualGirthColumn);
+                            String girth_above_ground = individualsCursor.getString(individualGirthAboveGroundColumn);
+                            if (girth != null && !girth.isEmpty()) {
+                                serializer.startTag(null, "individualOrganismMeasurement");
+                                serializer.startTag(null, "value");
+                                serializer.text(girth);
+                                serializer.endTag(null, "value");
+                                serializer.startTag(null, "attributeID");
+                                if (girth_above_ground == null || girth_above_ground.isEmpty()) {
+                                    serializer.text("girth_at_breast_height_in_cm_unspecified");
+                                } else {
+                                    serializer.text("girth_at_breast_height_in_cm_" + girth_above_ground);
+                                }
+                                serializer.endTag(null, "attributeID");
+                                serializer.endTag(null, "individualOrganismMeasurement");
+                            }
+
+                            /*String custom_a = individualsCursor.getString(individualsCursor.getColumnIndex("custom_a"));
+                            if (custom_a != null && !custom_a.isEmpty()) {
+                                serializer.startTag(null, "complexUserDefined");
+                                serializer.startTag(null, "name");
+                                serializer.text("Custom attribute A");
+                                serializer.endTag(null, "name");
+                                serializer.startTag(null, "value");
+                                serializer.text(custom_a);
+                                serializer.endTag(null, "value");
+                                serializer.startTag(null, "attributeID");
+                                serializer.endTag(null, "attributeID");
+                                serializer.endTag(null, "complexUserDefined");
+                            }
+
+                            String custom_b = individualsCursor.getString(individualCustomBColumn);
+                            if (custom_b != null && !custom_b.isEmpty()) {
+                                serializer.startTag(null, "simpleUserDefined");
+                                serializer.startTag(null, "name");
+                                serializer.text("Custom attribute B");
+                                serializer.endTag(null, "name");
+                                serializer.startTag(null, "value");
+                                serializer.text(custom_b);
+                                serializer.endTag(null, "value");
+                                serializer.startTag(null, "methodID");
+                                serializer.endTag(null, "methodID");
+                                serializer.endTag(null, "simpleUserDefined");
+                            }*/
+
+                            simpleUserDefinedEntries(serializer, individualsCursor, custom, scope_individuals);
+
+                            serializer.endTag(null, "individualOrganismObservation");
+                        }
+                    }
+                } finally {
+                    individualsCursor.close();
+                }
+            }
+        } finally {
+            plotCursor.close();
+        }
+        if (started) {
+            serializer.endTag(null, "individualOrganismObservations");
+        }
+    }
+
+    //************************************************************//
+    //*********** aggregateOrganismObservation  ******************//
+    //************************************************************//
+
+    // String[i][0] text of name tag
+    // String[i][1] database column for value tag
+    private static final String[][] simpleUserDefinedAggregateOrganismObservationEntries = new String[][]{
+            {"Sociability", "sociability"},
+            {"Vitality", "vitality"},
+            {"Additional information related to this species observation A", "custom_a"},
+            {"Additional information related to this species observation B", "custom_b"}
+    };
+
+    private void writeAggregateOrganismObservations(VegXWriter serializer) throws IOException {
+        writePlotSection(serializer, "aggregateOrganismObservations", new PlotSection.Body() {
+            @Override
+            public void write(VegXWriter serializer, SnapshotCursor plotCursor, PlotSection section) throws IOException {
+                writeAggregateOrganismObservationPlots(serializer, plotCursor, section);
+            }
+        });
+
+        // reported to the user once the export is finished
+        if (speciesCount > 0) {
+            noQuantityInProject = !quantityInProject.get();
+        }
+    }
+
+    private void writeAggregateOrganismObservationPlots(VegXWriter serializer, SnapshotCursor plotCursor, PlotSection section) throws IOException {
+        String _id, speciesId, value;
+        // species of all plots of the project
+        boolean observationsAvailable = speciesCount > 0;
+
+        if (observationsAvailable) {
+            section.start();
+        }
+
+        // the columns are looked up once, every window of rows has the same
+        int plotIdColumn = plotCursor.getColumnIndex("_id");
+        int speciesIdColumn = speciesRows.getRows().getColumnIndex("_id");
+        int speciesPlotIdColumn = speciesRows.getRows().getColumnIndex("plot_id");
+        int speciesQuantityColumn = speciesRows.getRows().getColumnIndex("quantity");
+
+        try {
+            while (plotCursor.moveToNext()) {
+                nextPlot();
+                _id = plotCursor.getString(plotIdColumn);
+                SnapshotCursor speciesCursor = speciesRows.forPlot(_id);
+                if (speciesCursor.getCount() > 0) {
+                    //serializer.startTag(null, "aggregateOrganismObservations");
+                }
+                try {
+                    while (speciesCursor.moveToNext()) {
+                        speciesId = speciesCursor.getString(speciesIdColumn);
+                        if (speciesId != null && !speciesId.isEmpty()) {
+                            serializer.startTag(null, "aggregateOrganismObservation");
+                            serializer.attribute(null, "id", "aggregateObservation_" + speciesId);
+                            serializer.startTag(null, "plotObservationID");
+                            serializer.text("plotObservation_" + speciesCursor.getString(speciesPlotIdColumn));
+                            serializer.endTag(null, "plotObservationID");
+                            serializer.startTag(null, "organismIdentityID");
+                            serializer.text("organismIdentitiy_" + speciesId);
+                            serializer.endTag(null, "organismIdentityID");
+
+                            serializer.startTag(null, "aggregateOrganismMeasurement");
+                            /* DONE: write a value even if it's null */
+                            /* DONE: Link attributeID even if value is null */
+                            value = speciesCursor.getString(speciesQuantityColumn);
+
+                            serializer.startTag(null, "value");
+                            serializer.text(value != null && !value.isEmpty() ? value : "NA");
+                            serializer.endTag(null, "value");
+                            serializer.startTag(null, "attributeID");
+
+                            if (value != null && !value.isEmpty()) {
+                                section.foundQuantity();
+                            }
+
+                            if (coverScale != null) {
+                                if (coverScale.equals("'00'")) {
+                                    serializer.text("percent_cover_of_species");
+                                } else {
+                                    if (value != null && !value.isEmpty()) {
+                                        serializer.text("attribute_coverscale_" + value.replaceAll("\\s+", ""));
+                                    } else {
+                                        /* TODO: what should we write for the attributeID if the value is null?
+                                         *   for now this will be 00
+                                         *   we use 00 because it is free (if it _is_ 00 then the method would be a different one, thus we can assure this number is free */
+                                        serializer.text("attribute_coverscale_00");
+                                    }
+                                }
+                            } else {
+                                /* TODO: what should be done if no coverscale was selected for the project?
+                                 *   for now this will be called coverscale_null*/
+                                serializer.text("attribute_coverscale_null");
+                            }
+                            serializer.endTag(null, "attributeID");
+                            serializer.endTag(null, "aggregateOrganismMeasurement");
+
+                            aggregateOrganismObservationGetStratumObservationID(serializer, _id, speciesCursor);
+
+                            //simpleUserDefinedAggregateOrganismObservationEntries(serializer, speciesCursor);
+                            simpleUserDefinedEntries(serializer, speciesCursor, custom, scope_species);
+
+                            serializer.endTag(null, "aggregateOrganismObservation");
+                        }
+                    }
+                } finally {
+                    if (speciesCursor.getCount() > 0 ) {
+                        //serializer.endTag(null, "aggregateOrganismObservations");
+                    }
+                    speciesCursor.close();
+                }
+            }
+        } finally {
+            plotCursor.close();
+        }
+    }
+
+    /* DONE: check when this is written (refers to VGK-7)
+     *   this works as expected */
+    private void aggregateOrganismObservationGetStratumObservationID(VegXWriter serializer, String plot_id, SnapshotCursor speciesCursor) throws IOException {
+        String layer_id = speciesCursor.getString(speciesCursor.getColumnIndex("layer_id"));
+        SnapshotCursor stratumObservationIDcursor = plotLayerRows.forPlot(plot_id);
+        int layerIdColumn = stratumObservationIDcursor.getColumnIndex("plot_layer_id");
+        int idColumn = stratumObservationIDcursor.getColumnIndex("_id");
+        try {
+            while (stratumObservationIDcursor.moveToNext()) {
+                String plot_layer_id = stratumObservationIDcursor.getString(layerIdColumn);
+                if (layer_id == null || !layer_id.equals(plot_layer_id)) {
+                    continue;
+                }
+                String stratum_observation_id = stratumObservationIDcursor.getString(idColumn);
+                if (stratum_observation_id != null && !stratum_observation_id.isEmpty()) {
+                    serializer.startTag(null, "stratumObservationID");
+                    serializer.text("stratumObservation_" + stratum_observation_id);
+                    serializer.endTag(null, "stratumObservationID");
+                    //serializer.startTag(null, "stratumObservations");
+                    //serializer.text("layer_" + layer_id);
+                    //serializer.endTag(null, "stratumObservations");
+
+                }
+            }
+        } finally {
+            stratumObservationIDcursor.close();
+        }
+
+    }
+
+    private void simpleUserDefinedAggregateOrganismObservationEntries(VegXWriter serializer, SnapshotCursor cursor) throws IOException {
+        String value;
+        for (int i = 0; i < simpleUserDefinedAggregateOrganismObservationEntries.length; i++) {
+            value = cursor.getString(cursor.getColumnIndex(simpleUserDefinedAggregateOrganismObservationEntries[i][1]));
+            if (value != null && !value.isEmpty()) {
+                serializer.startTag(null, "simpleUserDefined");
+                serializer.startTag(null, "name");
+                serializer.text(simpleUserDefinedAggregateOrganismObservationEntries[i][0]);
+                serializer.endTag(null, "name");
+                serializer.startTag(null, "value");
+                if (value != null) {
+                    serializer.text(value);
+                }
+                serializer.endTag(null, "value");
+                serializer.startTag(null, "methodID");
+                serializer.endTag(null, "methodID");
+                serializer.endTag(null, "simpleUserDefined");
+            }
+        }
+    }
+
+    //************************************************************//
+    //**************** stratumObservation  ***********************//
+    //************************************************************//
+
+    /* DONE: check when this is written and if it works properly (refers to VGK-7)
+     *   this works as expected */
+    private void writeStratumObversations(VegXWriter serializer) throws IOException {
+        //cursors
+        SnapshotCursor plotCursor = plotCursor(false);
+        String _id;
+        boolean started = false;
+        // the columns are looked up once, every window of rows has the same
+        int plotIdColumn = plotCursor.getColumnIndex("_id");
+        int layerIdColumn = plotLayerRows.getRows().getColumnIndex("_id");
+        int layerPlotLayerIdColumn = plotLayerRows.getRows().getColumnIndex("plot_layer_id");
+        int layerPlotIdColumn = plotLayerRows.getRows().getColumnIndex("plot_id");
+        int layerMaxHeightColumn = plotLayerRows.getRows().getColumnIndex("max_height");
+        int layerAvgHeightColumn = plotLayerRows.getRows().getColumnIndex("avg_height");
+        int layerCoverColumn = plotLayerRows.getRows().getColumnIndex("cover");
+
+        try {
+
+            while (plotCursor.moveToNext()) {
+                nextPlot();
+                _id = plotCursor.getString(plotIdColumn);
+                SnapshotCursor plotLayerCursor = plotLayerRows.forPlot(_id);
+                try {
+                    String layerId, value;
+                    while (plotLayerCursor.moveToNext()) {
+                        layerId = plotLayerCursor.getString(layerIdColumn);
+                        if (layerId != null && !layerId.isEmpty()) {
+                            if (!started) {
+                                serializer.startTag(null, "stratumObservations");
+                                started = true;
+                            }
+                            serializer.startTag(null, "stratumObservation");
+                            serializer.attribute(null, "id", "stratumObservation_" + layerId);
+                            serializer.startTag(null, "stratumID");
+                            serializer.text("stratum_" + plotLayerCursor.getString(layerPlotLayerIdColumn));
+                            serializer.endTag(null, "stratumID");
+                            serializer.startTag(null, "plotObservationID");
+                            serializer.text("plotObservation_" + plotLayerCursor.getString(layerPlotIdColumn));
+                            serializer.endTag(null, "plotObservationID");
+
+                            // max height
+                            serializer.startTag(null, "upperLimitMeasurement");
+                            /* DONE: write a value even if it's null */
+                            /* DONE: Link attributeID even if value is null */
+                            value = plotLayerCursor.getString(layerMaxHeightColumn);
+
+                            serializer.startTag(null, "value");
+                            serializer.text(value != null && !value.isEmpty() ? value : "");
+                            serializer.endTag(null, "value");
+                            serializer.startTag(null, "attributeID");
+                            serializer.text("maximum_height_of_layer_in_meter");
+                            serializer.endTag(null, "attributeID");
+
+                            serializer.endTag(null, "upperLimitMeasurement");
+
+                            /* DONE: write a value even if it's null */
+                            /* DONE: Link attributeID even if value is null */
+
+                            String avg_height = plotLayerCursor.getString(layerAvgHeightColumn);
+                            String cover = plotLayerCursor.getString(layerCoverColumn);
+                            if ((avg_height == null || avg_height.isEmpty()) && (cover == null || cover.isEmpty())) {
+                                serializer.startTag(null, "stratumMeasurement");
+                                serializer.startTag(null, "value");
+                                serializer.text("");
+                                serializer.endTag(null, "value");
+                                serializer.startTag(null, "attributeID");
+                                /* TODO: is it better to have avg_height or cover here? */
+                                serializer.text("average_stratum_height_in_meter");
+                                serializer.endTag(null, "attributeID");
+                                serializer.endTag(null, "stratumMeasurement");
+                            } else {
+                                // avg height
+                                value = plotLayerCursor.getString(layerAvgHeightColumn);
+                                if (value != null && !value.isEmpty()) {
+                                    serializer.startTag(null, "stratumMeasurement");
+                                    serializer.startTag(null, "value");
+                                    serializer.text(value);
+                                    serializer.endTag(null, "value");
+                                    serializer.startTag(null, "attributeID");
+                                    serializer.text("average_stratum_height_in_meter");
+                                    serializer.endTag(null, "attributeID");
+                                    serializer.endTag(null, "stratumMeasurement");
+                                }
+                                // cover
+                                value = plotLayerCursor.getString(layerCoverColumn);
+                                if (value != null && !value.isEmpty()) {
+                                    serializer.startTag(null, "stratumMeasurement");
+                                    serializer.startTag(null, "value");
+                                    serializer.text(value);
+                                    serializer.endTag(null, "value");
+                                    serializer.startTag(null, "attributeID");
+                                    serializer.text("percent_cover_of_layer_stratum");
+                                    serializer.endTag(null, "attributeID");
+                                    serializer.endTag(null, "stratumMeasurement");
+                                }
+                            }
+
+                            serializer.endTag(null, "stratumObservation");
+                        }
+                    }
+                } finally {
+                    plotLayerCursor.close();
+                }
+            }
+        } finally {
+            plotCursor.close();
+        }
+        if (started) {
+            serializer.endTag(null, "stratumObservations");
+        }
+    }
+
+    //************************************************************//
+    //******************* community observations *****************//
+    //************************************************************//
+
+    private void writeCommunityObversations(VegXWriter serializer) throws IOException {
+        //cursors
+        SnapshotCursor plotCursor = plotCursor(false);
+        String _id;
+        boolean started = false;
+        //plot observations loop
+        try {
+            while (plotCursor.moveToNext()) {
+                nextPlot();
+                String succesion_stage = plotCursor.getString(plotCursor.getColumnIndex("succession_stage"));
+                String stand_age = plotCursor.getString(plotCursor.getColumnIndex("stand_age"));
+                String phenological_state = plotCursor.getString(plotCursor.getColumnIndex("phenological_state"));
+                if (!started) {
+                    serializer.startTag(null, "communityObservations");
+                    started = true;
+                }
+                // setup
+                serializer.startTag(null, "communityObservation");
+                _id = plotCursor.getString(plotCursor.getColumnIndex("_id"));
+                serializer.attribute(null, "id", "communityObservation_" + _id);
+                serializer.startTag(null, "plotObservationID");
+                serializer.text("plotObservation_" + _id);
+                serializer.endTag(null, "plotObservationID");
+
+                if (succesion_stage != null) {
+                    serializer.startTag(null, "successionalType");
+                    serializer.startTag(null, "value");
+                    serializer.text(succesion_stage);
+                    serializer.endTag(null, "value");
+                    serializer.startTag(null, "qualitativeAttributeID");
+                    serializer.endTag(null, "qualitativeAttributeID");
+                    serializer.endTag(null, "successionalType");
+                }
+                if (stand_age != null) {
+                    serializer.startTag(null, "simpleUserDefined");
+                    serializer.startTag(null, "name");
+                    serializer.text("Stand Age");
+                    serializer.endTag(null, "name");
+                    serializer.startTag(null, "value");
+                    serializer.text(stand_age);
+                    serializer.endTag(null, "value");
+                    serializer.startTag(null, "methodID");
+                    serializer.endTag(null, "methodID");
+                    serializer.endTag(null, "simpleUserDefined");
+                }
+                if (phenological_state != null) {
+                    serializer.startTag(null, "simpleUserDefined");
+                    serializer.startTag(null, "name");
+                    serializer.text("Phenological state");
+                    serializer.endTag(null, "name");
+                    serializer.startTag(null, "value");
+                    serializer.text(phenological_state);
+                    serializer.endTag(null, "value");
+                    serializer.startTag(null, "methodID");
+                    serializer.endTag(null, "methodID");
+                    serializer.endTag(null, "simpleUserDefined");
+                }
+
+                simpleUserDefinedEntries(serializer, plotCursor, community_observation, scope_plots);
+
+                serializer.endTag(null, "communityObservation");
+            }
+        } finally {
+            plotCursor.close();
+        }
+        if (started) {
+            serializer.endTag(null, "communityObservations");
+        }
+    }
+
+    //************************************************************//
+    //***************** surface cover observations ***************//
+    //************************************************************//
+
+    private void writeSurfaceCoverObservations(VegXWriter serializer) throws IOException {
+        //cursors
+        SnapshotCursor plotCursor = plotCursor(false);
+        String _id, value;
+        boolean started = false;
+        boolean surfaceTypesAvailable = false;
+        boolean customSurfaceTypesAvailable = false;
+        List<CustomFieldCatalog.Field> customSurfaceFields = customFields.get(surface_cover, scope_plots);
+
+        // the columns are looked up once, every window of rows has the same
+        int idColumn = plotCursor.getColumnIndex("_id");
+        int[] surfaceColumns = columnIndexes(plotCursor, surfaceTypes);
+
+        //plot observations loop
+        try {
+            while (plotCursor.moveToNext()) {
+                nextPlot();
+
+
+
+                for (int i = 0; i < surfaceTypes.length; i++) {
+                    value = plotCursor.getString(surfaceColumns[i]);
+                    if (value != null) {
+                        surfaceTypesAvailable = true;
+                    }
+                }
+
+
+                if (!customSurfaceFields.isEmpty()) {
+                    customSurfaceTypesAvailable = true;
+                    log.fine("writeSurfaceCoverObservations: Observations available!");
+                }
+                
+                
+                if (!started && (customSurfaceTypesAvailable || surfaceTypesAvailable ) ) {
+                    serializer.startTag(null, "surfaceCoverObservations");
+                    started = true;
+                }
+                _id = plotCursor.getString(idColumn);
+                for (int i = 0; i < surfaceTypes.length; i++) {
+                    value = plotCursor.getString(surfaceColumns[i]);
+                    if (value != null) {
+                        serializer.startTag(null, "surfaceCoverObservation");
+                        serializer.attribute(null, "id", "surfaceCoverObservation_" + _id + "_" + surfaceTypes[i][1]);
+                        serializer.startTag(null, "plotObservationID");
+                        serializer.text("plotObservation_" + _id);
+                        serializer.endTag(null, "plotObservationID");
+
+                        serializer.startTag(null, "surfaceTypeID");
+                        serializer.text("surfaceType_" + surfaceTypes[i][1]);
+                        serializer.endTag(null, "surfaceTypeID");
+
+                        serializer.startTag(null, "surfaceCover");
+                        serializer.startTag(null, "value");
+                        serializer.text(value);
+                        serializer.endTag(null, "value");
+                        serializer.startTag(null, "attributeID");
+                        serializer.text("percent_cover_of_surface_material");
+                        serializer.endTag(null, "attributeID");
+                        serializer.endTag(null, "surfaceCover");
+
+                        serializer.endTag(null, "surfaceCoverObservation");
+                    }
+                }
+
+                try {
+                    for (CustomFieldCatalog.Field field : customSurfaceFields) {
+                        String one = null;
+                        String two = null;
+                        String three = null;
+                        String four = null;
+
+                        try {
+                            one = "surfaceCoverObservation_" + _id + "_" + field.getName();
+                            two = "surfaceType_" + field.getName();
+                            three = plotCursor.getString(field.getColumnIndex());
+                            four = field.getAttribute() + "_" + scope_plots;
+                        } catch (Exception e) {
+                            e.printStackTrace();
+                        }
+
+                        serializer.startTag(null, "surfaceCoverObservation");
+                        serializer.attribute(null, "id", one);
+                        serializer.startTag(null, "plotObservationID");
+                        serializer.text("plotObservation_" + _id);
+                        serializer.endTag(null, "plotObservationID");
+                        serializer.startTag(null, "surfaceTypeID");
+                        serializer.text(two);
+                        serializer.endTag(null, "surfaceTypeID");
+                        serializer.startTag(null, "surfaceCover");
+                        serializer.startTag(null, "value");
+                        if (three != null) {
+                            serializer.text(three);
+                        } else {
+                            serializer.text("null");
+                        }
+                        serializer.endTag(null, "value");
+                        serializer.startTag(null, "attributeID");
+                        serializer.text(four);
+                        serializer.endTag(null, "attributeID");
+                        serializer.endTag(null, "surfaceCover");
+                        serializer.endTag(null, "surfaceCoverObservation");
+                    }
+                } catch (Exception e) {
+                    e.printStackTrace();
+                }
+            }
+        } finally {
+            plotCursor.close();
+        }
+        if (started && (customSurfaceTypesAvailable || surfaceTypesAvailable ) ) {
+
+            serializer.endTag(null, "surfaceCoverObservations");
+        }
+    }
+
+
+    //***********************************************************//
+    //***************** site Observations  **********************//
+    //***********************************************************//
+
+    // start plots
+    private void writeSiteObversations(VegXWriter serializer) throws IOException {
+        writePlotSection(serializer, "siteObservations", new PlotSection.Body() {
+            @Override
+            public void write(VegXWriter serializer, SnapshotCursor plotCursor, PlotSection section) throws IOException {
+                writeSiteObservationPlots(serializer, plotCursor, section);
+            }
+        });
+    }
+
+    private void writeSiteObservationPlots(VegXWriter serializer, SnapshotCursor plotCursor, PlotSection section) throws IOException {
+        //plot loop
+        try {
+            String _id, value;
+            while (plotCursor.moveToNext()) {
+                nextPlot();
+                section.start();
+                _id = plotCursor.getString(plotCursor.getColumnIndex("_id"));
+                serializer.startTag(null, "siteObservation");
+                serializer.attribute(null, "id", "siteObservation_" + _id);
+                serializer.startTag(null, "plotObservationID");
+                serializer.text("plotObservation_" + _id);
+                serializer.endTag(null, "plotObservationID");
+
+                serializer.startTag(null, "soilType");
+                serializer.startTag(null, "value");
+                value = plotCursor.getString(plotCursor.getColumnIndex("soil_type"));
+                if (value != null) {
+                    serializer.text(value);
+                }
+                serializer.endTag(null, "value");
+                serializer.endTag(null, "soilType");
+
+                serializer.startTag(null, "humusType");
+                serializer.startTag(null, "value");
+                value = plotCursor.getString(plotCursor.getColumnIndex("humus_type"));
+                if (value != null) {
+                    serializer.text(value);
+                }
+                serializer.endTag(null, "value");
+                serializer.endTag(null, "humusType");
+
+                serializer.startTag(null, "legalProtection");
+                serializer.startTag(null, "value");
+                value = plotCursor.getString(plotCursor.getColumnIndex("legal_status_1"));
+                if (value != null) {
+                    serializer.text(value);
+                }
+                serializer.endTag(null, "value");
+                serializer.endTag(null, "legalProtection");
+
+                serializer.startTag(null, "legalProtection");
+                serializer.startTag(null, "value");
+                value = plotCursor.getString(plotCursor.getColumnIndex("legal_status_2"));
+                if (value != null) {
+                    serializer.text(value);
+                }
+                serializer.endTag(null, "value");
+                serializer.endTag(null, "legalProtection");
+
+                serializer.startTag(null, "landuse");
+                serializer.startTag(null, "value");
+                value = plotCursor.getString(plotCursor.getColumnIndex("land_use"));
+                if (value != null) {
+                    serializer.text(value);
+                }
+                serializer.endTag(null, "value");
+                serializer.endTag(null, "landuse");
+
+                serializer.startTag(null, "habitat");
+                serializer.startTag(null, "value");
+                value = plotCursor.getString(plotCursor.getColumnIndex("habitat_type_1"));
+                if (value != null) {
+                    serializer.text(value);
+                }
+                serializer.endTag(null, "value");
+                serializer.endTag(null, "habitat");
+
+                serializer.startTag(null, "habitat");
+                serializer.startTag(null, "value");
+                value = plotCursor.getString(plotCursor.getColumnIndex("habitat_type_2"));
+                if (value != null) {
+                    serializer.text(value);
+                }
+                serializer.endTag(null, "value");
+                serializer.endTag(null, "habitat");
+
+                serializer.startTag(null, "simpleUserDefined");
+                serializer.startTag(null, "name");
+                serializer.text("Drainage");
+                serializer.endTag(null, "name");
+                serializer.startTag(null, "value");
+                value = plotCursor.getString(plotCursor.getColumnIndex("watertable_depth"));
+                if (value != null) {
+                    serializer.text(value);
+                }
+                serializer.endTag(null, "value");
+                serializer.startTag(null, "methodID");
+                serializer.endTag(null, "methodID");
+                serializer.endTag(null, "simpleUserDefined");
+
+                serializer.startTag(null, "simpleUserDefined");
+                serializer.startTag(null, "name");
+                serializer.text("Management");
+                serializer.endTag(null, "name");
+                serializer.startTag(null, "value");
+                value = plotCursor.getString(plotCursor.getColumnIndex("management"));
+                if (value != null) {
+                    serializer.text(value);
+                }
+                serializer.endTag(null, "value");
+                serializer.startTag(null, "methodID");
+                serializer.endTag(null, "methodID");
+                serializer.endTag(null, "simpleUserDefined");
+
+                serializer.startTag(null, "simpleUserDefined");
+                serializer.startTag(null, "name");
+                serializer.text("Fertilization");
+                serializer.endTag(null, "name");
+                serializer.startTag(null, "value");
+                value = plotCursor.getString(plotCursor.getColumnIndex("fertilization"));
+                if (value != null) {
+                    serializer.text(value);
+                }
+                serializer.endTag(null, "value");
+                serializer.startTag(null, "methodID");
+                serializer.endTag(null, "methodID");
+                serializer.endTag(null, "simpleUserDefined");
+
+                serializer.startTag(null, "simpleUserDefined");
+                serializer.startTag(null, "name");
+                serializer.text("Soil texture");
+                serializer.endTag(null, "name");
+                serializer.startTag(null, "value");
+                value = plotCursor.getString(plotCursor.getColumnIndex("soil_texture"));
+                if (value != null) {
+                    serializer.text(value);
+                }
+                serializer.endTag(null, "value");
+                serializer.startTag(null, "methodID");
+                serializer.endTag(null, "methodID");
+                serializer.endTag(null, "simpleUserDefined");
+
+                serializer.startTag(null, "simpleUserDefined");
+                serializer.startTag(null, "name");
+                serializer.text("Soil depth");
+                serializer.endTag(null, "name");
+                serializer.startTag(null, "value");
+                value = plotCursor.getString(plotCursor.getColumnIndex("soil_depth"));
+                if (value != null) {
+                    serializer.text(value);
+                }
+                serializer.endTag(null, "value");
+                serializer.startTag(null, "methodID");
+                serializer.endTag(null, "methodID");
+                serializer.endTag(null, "simpleUserDefined");
+
+                simpleUserDefinedEntries(serializer, plotCursor, site_observation, scope_plots);
+                simpleUserDefinedEntries(serializer, plotCursor, legal_status, scope_plots);
+
+                serializer.endTag(null, "siteObservation");
+            }
+        } finally {
+            plotCursor.close();
+        }
+    }
+
+    // formats a dd/mm/yyyy string to yyyy-mm-dd
+    private String ddmmyyyToyyyymmdd(String date) {
+        if (date == null || date.isEmpty()) {
+            return "";
+        }
+        return date.substring(6) + "-"
+                + date.substring(3, 5) + "-"
+                + date.substring(0, 2);
+    }
+
+}
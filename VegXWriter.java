@@ -0,0 +1,625 @@
+package edu.kit.ifgg.vegapp.common;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * XML writer for VegX documents with the calls of XmlSerializer the export uses (startTag,
+ * attribute, text, endTag, setPrefix). It encodes straight into a byte buffer that is handed to
+ * the OutputStream in large chunks. Start and end tags of the VegX vocabulary are encoded once,
+ * and text made of plain ASCII is copied without going through the escaping.
+ *
+ * In compatible mode, the default, the output is byte for byte what android's KXmlSerializer
+ * writes with indent-output, including the "\r\n" line breaks and, in ISO-8859-1, the character
+ * references for everything from U+007F on. Otherwise characters U+00A0 to U+00FF are written as
+ * they are, which ISO-8859-1 allows.
+ *
+ * In UTF-8 all characters of the Basic Multilingual Plane are written as they are, encoded right
+ * into the buffer; KXmlSerializer does the same for UTF-8 and writes references only for the
+ * characters beyond it, which are written as they are too outside compatible mode.
+ *
+ * Only elements and attributes without namespace are supported, namespaces can be declared on
+ * the root element with {@link #setPrefix(String, String)}.
+ *
+ * A {@link #fragment(OutputStream)} writes a part of the document elsewhere, e.g. on another
+ * thread, exactly as this writer would have written it at its position; {@link #append} adds it.
+ *
+ * After {@link #keepMarks()} the writer keeps the offsets of the positions passed to
+ * {@link #mark(String)}, including those of the fragments appended, for the index of the document.
+ */
+
+public class VegXWriter {
+    public static final String FEATURE_INDENT_OUTPUT = "http://xmlpull.org/v1/doc/features.html#indent-output";
+    // the encodings supported
+    public static final String ISO_8859_1 = "ISO-8859-1";
+    public static final String UTF_8 = "UTF-8";
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    // the elements written by the export, their tags are encoded when the class is loaded
+    private static final String[] VOCABULARY = {
+            "accordingToCitationID", "aggregateOrganismMeasurement", "aggregateOrganismObservation", "aggregateOrganismObservations",
+            "area", "aspect", "assessmentType", "attribute", "attributeID", "attributes", "attribution", "citationID",
+            "citationString", "code", "communityConcept", "communityConceptID", "communityConcepts", "communityDetermination",
+            "communityDeterminations", "communityObservation", "communityObservationID", "communityObservations",
+            "communityRelationshipAssertion", "complexUserDefined", "coordinates", "date", "definition", "description",
+            "direction", "distance", "elevation", "geometry", "gridCell", "gridCellQuadrant", "gridPosition", "gridSystem",
+            "habitat", "horizontalCoordinates", "horizontalLocation", "humusType", "individualName", "individualOrganism",
+            "individualOrganismID", "individualOrganismLabel", "individualOrganismMeasurement", "individualOrganismObservation",
+            "individualOrganismObservations", "individualOrganisms", "landform", "landuse", "legalProtection", "length",
+            "license", "licenseName", "literatureCitation", "literatureCitations", "location", "locationAccuracy", "lowerLimit",
+            "markers", "method", "methodID", "methods", "name", "note", "obsStartDate", "observationNarrative", "observationNote",
+            "observationPartyID", "order", "ordinal", "organismIdentities", "organismIdentity", "organismIdentityID",
+            "organismName", "organismNameID", "organismNames", "organizationName", "orientation",
+            "originalIdentificationConcept", "originalOrganismNameID", "parentMaterial", "parties", "party", "partyID",
+            "placeName", "placeType", "placementMethod", "places", "plot", "plotID", "plotName", "plotObservation",
+            "plotObservationID", "plotObservations", "plotOrigin", "plotOriginPosition", "plotRelationship", "plots",
+            "polarCoordinates", "project", "projectID", "projects", "quadrant", "qualitative", "qualitativeAttributeID",
+            "qualityAssessment", "quantitative", "radius", "rank", "referencePlot", "referencePublication", "referenceTable",
+            "relatedPlot", "relatedPlotID", "shape", "simpleUserDefined", "siteObservation", "siteObservationID",
+            "siteObservations", "slope", "soilType", "spatialReference", "strata", "stratum", "stratumID", "stratumMeasurement",
+            "stratumName", "stratumObservation", "stratumObservationID", "stratumObservations", "subject", "successionalType",
+            "surfaceCover", "surfaceCoverObservation", "surfaceCoverObservations", "surfaceName", "surfaceType",
+            "surfaceTypeID", "surfaceTypes", "taxonConcept", "taxonConceptID", "taxonConcepts", "taxonomicQuality", "text",
+            "title", "topography", "unit", "upperLimit", "upperLimitMeasurement", "value", "valueX", "valueY", "vegX",
+            "verticalCoordinates", "width", "xyCoordinates"
+    };
+    private static final Map<String, Tag> vocabulary = new HashMap<>();
+
+    static {
+        for (String name : VOCABULARY) {
+            vocabulary.put(name, new Tag(name, false));
+        }
+    }
+
+    // characters copied as they are: printable ASCII except the ones escaped, tab and line breaks only in text
+    private static final boolean[] PLAIN_TEXT = new boolean[128];
+    private static final boolean[] PLAIN_ATTRIBUTE = new boolean[128];
+
+    static {
+        for (char c = 0x20; c < 0x7f; c++) {
+            PLAIN_TEXT[c] = c != '&' && c != '<' && c != '>';
+            PLAIN_ATTRIBUTE[c] = PLAIN_TEXT[c] && c != '"' && c != '\'';
+        }
+        PLAIN_TEXT['\t'] = PLAIN_TEXT['\n'] = PLAIN_TEXT['\r'] = true;
+    }
+
+    // line break and the indentation of one level
+    private static final byte[] NEWLINE = encode("\r\n", false);
+    private static final byte[] INDENT = encode("  ", false);
+
+    private static class Tag {
+        final String name;
+        final byte[] start;
+        final byte[] end;
+
+        Tag(String name, boolean utf8) {
+            this.name = name;
+            start = encode("<" + name, utf8);
+            end = encode("</" + name + ">", utf8);
+        }
+    }
+
+    private final OutputStream out;
+    private final String encoding;
+    private final boolean utf8;
+    private final boolean compatible;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int position;
+    // bytes handed to out so far
+    private long flushed;
+    private long elementCount, attributeCount;
+    // tags outside the vocabulary
+    private final Map<String, Tag> tags = new HashMap<>();
+
+    // same bookkeeping as KXmlSerializer: depth counts the elements whose start tag is closed,
+    // the element at elements[depth] may still be pending
+    private int depth;
+    private boolean pending;
+    private Tag[] elements = new Tag[16];
+    private boolean[] indent = new boolean[16];
+    private List<String> declarations = new ArrayList<>();
+    // marked positions, null unless they are kept
+    private List<String> markKeys;
+    private long[] markOffsets;
+    private List<String> pendingDeclarations;
+
+    public VegXWriter(OutputStream out, String encoding) {
+        this(out, encoding, true);
+    }
+
+    public VegXWriter(OutputStream out, String encoding, boolean compatible) {
+        utf8 = UTF_8.equalsIgnoreCase(encoding);
+        if (!utf8 && !ISO_8859_1.equalsIgnoreCase(encoding)) {
+            throw new IllegalArgumentException("unsupported encoding " + encoding);
+        }
+        this.out = out;
+        this.encoding = encoding;
+        this.compatible = compatible;
+    }
+
+    public void startDocument(String encoding, Boolean standalone) throws IOException {
+        append("<?xml version='1.0' encoding='");
+        append(encoding != null ? encoding : this.encoding);
+        append("' ");
+        if (standalone != null) {
+            append("standalone='");
+            append(standalone ? "yes" : "no");
+            append("' ");
+        }
+        append("?>");
+    }
+
+    public void setFeature(String name, boolean state) {
+        if (!FEATURE_INDENT_OUTPUT.equals(name)) {
+            throw new IllegalArgumentException("unsupported feature " + name);
+        }
+        indent[depth] = state;
+    }
+
+    // declares a namespace on the next element
+    public void setPrefix(String prefix, String namespace) throws IOException {
+        check(false);
+        declarations.add(prefix);
+        declarations.add(namespace);
+    }
+
+    public VegXWriter startTag(String namespace, String name) throws IOException {
+        check(false);
+        if (namespace != null) {
+            throw new IllegalArgumentException("namespaces are not supported: " + namespace);
+        }
+        if (indent[depth]) {
+            writeIndent(depth);
+        }
+        if (depth == elements.length) {
+            Tag[] grown = new Tag[depth * 2];
+            System.arraycopy(elements, 0, grown, 0, depth);
+            elements = grown;
+        }
+        Tag tag = tag(name);
+        elements[depth] = tag;
+        elementCount++;
+        write(tag.start);
+        if (!declarations.isEmpty()) {
+            pendingDeclarations = declarations;
+            declarations = new ArrayList<>();
+        }
+        pending = true;
+        return this;
+    }
+
+    public VegXWriter attribute(String namespace, String name, String value) throws IOException {
+        if (!pending) {
+            throw new IllegalStateException("illegal position for attribute");
+        }
+        if (namespace != null) {
+            throw new IllegalArgumentException("namespaces are not supported: " + namespace);
+        }
+        attributeCount++;
+        append(' ');
+        append(name);
+        append('=');
+        char quote = value.indexOf('"') == -1 ? '"' : '\'';
+        append(quote);
+        writeEscaped(value, quote);
+        append(quote);
+        return this;
+    }
+
+    public VegXWriter text(String text) throws IOException {
+        check(false);
+        indent[depth] = false;
+        writeEscaped(text, -1);
+        return this;
+    }
+
+    public VegXWriter endTag(String namespace, String name) throws IOException {
+        if (!pending) {
+            depth--;
+        }
+        Tag tag = elements[depth];
+        if (namespace != null || !tag.name.equals(name)) {
+            throw new IllegalArgumentException("</{" + namespace + "}" + name + "> does not match start");
+        }
+        if (pending) {
+            check(true);
+            depth--;
+        } else {
+            if (indent[depth + 1]) {
+                writeIndent(depth);
+            }
+            write(tag.end);
+        }
+        return this;
+    }
+
+    // closes the elements still open, ends the file with a line break and flushes
+    public void endDocument() throws IOException {
+        while (depth > 0) {
+            endTag(null, elements[depth - 1].name);
+        }
+        append('\n');
+        flush();
+    }
+
+    // a writer that continues this one at its current position, writing to out; this writer must
+    // not write anything else until the fragment is appended
+    public VegXWriter fragment(OutputStream out) throws IOException {
+        check(false);
+        VegXWriter fragment = new VegXWriter(out, encoding, compatible);
+        fragment.depth = depth;
+        fragment.elements = elements.clone();
+        fragment.indent = indent.clone();
+        if (markKeys != null) {
+            fragment.keepMarks();
+        }
+        return fragment;
+    }
+
+    // a fragment for the content of an element that is started here only once the fragment is done,
+    // if at all; it writes as if startTag(null, name) had been called before
+    public VegXWriter fragment(OutputStream out, String name) throws IOException {
+        VegXWriter fragment = fragment(out);
+        if (fragment.depth + 1 >= fragment.elements.length) {
+            fragment.elements = Arrays.copyOf(fragment.elements, fragment.elements.length * 2);
+            fragment.indent = Arrays.copyOf(fragment.indent, fragment.indent.length * 2);
+        }
+        fragment.elements[fragment.depth] = fragment.tag(name);
+        fragment.depth++;
+        fragment.indent[fragment.depth] = fragment.indent[fragment.depth - 1];
+        return fragment;
+    }
+
+    // adds the output of a fragment of this writer, which in reads from where the fragment wrote it
+    public void append(VegXWriter fragment, InputStream in) throws IOException {
+        startAppend(fragment);
+        int n;
+        while ((n = in.read(buffer, 0, buffer.length)) > 0) {
+            out.write(buffer, 0, n);
+            flushed += n;
+        }
+        endAppend(fragment);
+    }
+
+    // same for a fragment that wrote to bytes
+    public void append(VegXWriter fragment, ByteArrayOutputStream bytes) throws IOException {
+        startAppend(fragment);
+        bytes.writeTo(out);
+        flushed += bytes.size();
+        endAppend(fragment);
+    }
+
+    // same for a fragment written at the same position by an earlier export, of which only its
+    // counters and whether it ended indented were kept
+    void appendStored(ByteArrayOutputStream bytes, long elements, long attributes, boolean endsIndented) throws IOException {
+        check(false);
+        flushBuffer();
+        bytes.writeTo(out);
+        flushed += bytes.size();
+        indent[depth] = endsIndented;
+        elementCount += elements;
+        attributeCount += attributes;
+    }
+
+    // what appending the fragment would leave in indent, for appendStored
+    boolean endsIndented() {
+        return indent[depth];
+    }
+
+    private void startAppend(VegXWriter fragment) throws IOException {
+        check(false);
+        if (fragment.depth != depth || fragment.pending) {
+            throw new IllegalStateException("fragment does not end where it started");
+        }
+        fragment.flushBuffer();
+        flushBuffer();
+    }
+
+    private void endAppend(VegXWriter fragment) {
+        if (markKeys != null && fragment.markKeys != null) {
+            // the fragment's output starts at the offset it was appended at
+            long base = getByteCount() - fragment.getByteCount();
+            for (int i = 0; i < fragment.markKeys.size(); i++) {
+                addMark(fragment.markKeys.get(i), base + fragment.markOffsets[i]);
+            }
+        }
+        indent[depth] = fragment.indent[depth];
+        elementCount += fragment.elementCount;
+        attributeCount += fragment.attributeCount;
+    }
+
+    public void keepMarks() {
+        markKeys = new ArrayList<>();
+        markOffsets = new long[64];
+    }
+
+    // keeps the offset the next output starts at, if marks are kept
+    public void mark(String key) {
+        if (markKeys != null) {
+            addMark(key, getByteCount());
+        }
+    }
+
+    public int getMarkCount() {
+        return markKeys != null ? markKeys.size() : 0;
+    }
+
+    public String getMarkKey(int i) {
+        return markKeys.get(i);
+    }
+
+    // offset of the mark in the output, before the line break and indentation of what follows
+    public long getMarkOffset(int i) {
+        return markOffsets[i];
+    }
+
+    private void addMark(String key, long offset) {
+        if (markKeys.size() == markOffsets.length) {
+            markOffsets = Arrays.copyOf(markOffsets, markOffsets.length * 2);
+        }
+        markOffsets[markKeys.size()] = offset;
+        markKeys.add(key);
+    }
+
+    public void flush() throws IOException {
+        check(false);
+        flushBuffer();
+        out.flush();
+    }
+
+    public long getElementCount() {
+        return elementCount;
+    }
+
+    public long getAttributeCount() {
+        return attributeCount;
+    }
+
+    // bytes written so far, including the ones not flushed yet
+    public long getByteCount() {
+        return flushed + position;
+    }
+
+    private void check(boolean close) throws IOException {
+        if (!pending) {
+            return;
+        }
+        depth++;
+        pending = false;
+        if (depth == indent.length) {
+            boolean[] grown = new boolean[depth * 2];
+            System.arraycopy(indent, 0, grown, 0, depth);
+            indent = grown;
+        }
+        indent[depth] = indent[depth - 1];
+        if (pendingDeclarations != null) {
+            for (int i = 0; i < pendingDeclarations.size(); i += 2) {
+                append(" xmlns:");
+                append(pendingDeclarations.get(i));
+                append("=\"");
+                writeEscaped(pendingDeclarations.get(i + 1), '"');
+                append('"');
+            }
+            pendingDeclarations = null;
+        }
+        if (close) {
+            append(" />");
+        } else {
+            append('>');
+        }
+    }
+
+    private Tag tag(String name) {
+        Tag tag = vocabulary.get(name);
+        if (tag == null) {
+            tag = tags.get(name);
+            if (tag == null) {
+                tag = new Tag(name, utf8);
+                tags.put(name, tag);
+            }
+        }
+        return tag;
+    }
+
+    private void writeIndent(int level) throws IOException {
+        write(NEWLINE);
+        for (int i = 0; i < level; i++) {
+            write(INDENT);
+        }
+    }
+
+    // quote is the attribute's quote character, -1 for text
+    private void writeEscaped(String s, int quote) throws IOException {
+        boolean[] plain = quote == -1 ? PLAIN_TEXT : PLAIN_ATTRIBUTE;
+        int length = s.length();
+        int i = 0;
+        while (i < length) {
+            // copy a run of plain ASCII, as much as fits into the buffer
+            if (position == buffer.length) {
+                flushBuffer();
+            }
+            int end = Math.min(length, i + buffer.length - position);
+            byte[] b = buffer;
+            int p = position;
+            char c = 0;
+            while (i < end && (c = s.charAt(i)) < 128 && plain[c]) {
+                b[p++] = (byte) c;
+                i++;
+            }
+            position = p;
+            if (i < end) {
+                if (utf8 && c >= 0x80 && c <= 0xd7ff) {
+                    // the letters of other scripts, written as they are without the checks below
+                    writeUtf8(c);
+                    i++;
+                } else {
+                    i = writeSpecial(s, i, c, quote);
+                }
+            }
+        }
+    }
+
+    // writes the character at i which needs escaping, returns the index of the next character
+    private int writeSpecial(String s, int i, char c, int quote) throws IOException {
+        switch (c) {
+            case '\n':
+            case '\r':
+            case '\t':
+                if (quote == -1) {
+                    append(c);
+                } else {
+                    writeReference(c);
+                }
+                return i + 1;
+            case '&':
+                append("&amp;");
+                return i + 1;
+            case '>':
+                append("&gt;");
+                return i + 1;
+            case '<':
+                append("&lt;");
+                return i + 1;
+            default:
+                if (c == quote) {
+                    append(c == '"' ? "&quot;" : "&apos;");
+                    return i + 1;
+                }
+                // see http://www.w3.org/TR/REC-xml/#charsets
+                boolean allowedInXml = (c >= 0x20 && c <= 0xd7ff) || (c >= 0xe000 && c <= 0xfffd);
+                if (allowedInXml) {
+                    if (c < 127 || utf8 || !compatible && c >= 0xa0 && c <= 0xff) {
+                        append(c);
+                    } else {
+                        writeReference(c);
+                    }
+                    return i + 1;
+                } else if (Character.isHighSurrogate(c) && i < s.length() - 1) {
+                    char low = s.charAt(i + 1);
+                    if (!Character.isLowSurrogate(low)) {
+                        throw new IllegalArgumentException("Bad surrogate pair (U+" + Integer.toHexString((int) c)
+                                + " U+" + Integer.toHexString((int) low) + ")");
+                    }
+                    if (utf8 && !compatible) {
+                        writeUtf8(Character.toCodePoint(c, low));
+                    } else {
+                        writeReference(Character.toCodePoint(c, low));
+                    }
+                    return i + 2;
+                } else {
+                    throw new IllegalArgumentException("Illegal character (U+" + Integer.toHexString((int) c) + ")");
+                }
+        }
+    }
+
+    // &#decimal;
+    private void writeReference(int codePoint) throws IOException {
+        if (buffer.length - position < 12) {
+            flushBuffer();
+        }
+        buffer[position++] = '&';
+        buffer[position++] = '#';
+        int digits = 1;
+        for (int n = codePoint / 10; n > 0; n /= 10) {
+            digits++;
+        }
+        for (int j = position + digits - 1; j >= position; j--) {
+            buffer[j] = (byte) ('0' + codePoint % 10);
+            codePoint /= 10;
+        }
+        position += digits;
+        buffer[position++] = ';';
+    }
+
+    // names and markup, characters that cannot be encoded become '?' like in an OutputStreamWriter
+    private void append(String s) throws IOException {
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (utf8 && Character.isSurrogate(c)) {
+                if (Character.isHighSurrogate(c) && i < s.length() - 1 && Character.isLowSurrogate(s.charAt(i + 1))) {
+                    writeUtf8(Character.toCodePoint(c, s.charAt(++i)));
+                } else {
+                    append('?');
+                }
+            } else {
+                append(c);
+            }
+        }
+    }
+
+    private void append(char c) throws IOException {
+        if (utf8 && c >= 0x80) {
+            writeUtf8(c);
+            return;
+        }
+        if (position == buffer.length) {
+            flushBuffer();
+        }
+        buffer[position++] = (byte) (c <= 0xff ? c : '?');
+    }
+
+    // a character that is not ASCII, in 2 to 4 bytes
+    private void writeUtf8(int codePoint) throws IOException {
+        if (buffer.length - position < 4) {
+            flushBuffer();
+        }
+        byte[] b = buffer;
+        int p = position;
+        if (codePoint < 0x800) {
+            b[p++] = (byte) (0xc0 | codePoint >> 6);
+        } else {
+            if (codePoint < 0x10000) {
+                b[p++] = (byte) (0xe0 | codePoint >> 12);
+            } else {
+                b[p++] = (byte) (0xf0 | codePoint >> 18);
+                b[p++] = (byte) (0x80 | codePoint >> 12 & 0x3f);
+            }
+            b[p++] = (byte) (0x80 | codePoint >> 6 & 0x3f);
+        }
+        b[p++] = (byte) (0x80 | codePoint & 0x3f);
+        position = p;
+    }
+
+    private void write(byte[] bytes) throws IOException {
+        if (bytes.length > buffer.length - position) {
+            flushBuffer();
+            if (bytes.length > buffer.length) {
+                out.write(bytes);
+                flushed += bytes.length;
+                return;
+            }
+        }
+        System.arraycopy(bytes, 0, buffer, position, bytes.length);
+        position += bytes.length;
+    }
+
+    private void flushBuffer() throws IOException {
+        if (position > 0) {
+            out.write(buffer, 0, position);
+            flushed += position;
+            position = 0;
+        }
+    }
+
+    private static byte[] encode(String s, boolean utf8) {
+        if (utf8) {
+            return s.getBytes(StandardCharsets.UTF_8);
+        }
+        byte[] bytes = new byte[s.length()];
+        for (int i = 0; i < bytes.length; i++) {
+            char c = s.charAt(i);
+            bytes[i] = (byte) (c <= 0xff ? c : '?');
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,100 @@
+package edu.kit.ifgg.vegapp.common;
+
+import java.util.ArrayList;
+
+
+/**
+ * Cursor over a table that is read in windows of rows, for exports with a memory budget. Only
+ * the window under the cursor is held; when the cursor passes its end the next one is read.
+ *
+ * The size of the windows follows the budget: after each window the rows per window are set so
+ * that the next one is estimated to fit in it.
+ *
+ * The windows are paged by key: each is read after the largest _id of the one before, so the
+ * database seeks to it instead of stepping past all earlier rows as an OFFSET does.
+ */
+
+abstract class WindowedCursor extends SnapshotCursor {
+    static final int FIRST_WINDOW = 16;
+    static final int MAX_WINDOW = 1 << 16;
+    // below the _id of every row, the first window is read after it
+    static final long START_ID = Long.MIN_VALUE;
+
+    private static final TableSnapshot EMPTY = new TableSnapshot(new String[0], new ArrayList<String[]>());
+
+    private final int count;
+    private final long budget;
+    private int windowSize = FIRST_WINDOW;
+    // the next window is read after this _id, none is left once the last one was read
+    private long afterId = START_ID;
+    private boolean last;
+    private TableSnapshot window = EMPTY;
+
+    // count is the number of rows of all windows together
+    WindowedCursor(int count, long budget) {
+        super(EMPTY, 0, 0);
+        this.count = count;
+        this.budget = budget;
+    }
+
+    // reads the first limit rows with an _id above afterId, ordered by _id
+    abstract TableSnapshot read(long afterId, int limit);
+
+    // estimated heap of the window and of everything read with it
+    long size(TableSnapshot window) {
+        return window.estimateSize();
+    }
+
+    @Override
+    public boolean moveToNext() {
+        if (super.moveToNext()) {
+            return true;
+        }
+        while (!last) {
+            readNext();
+            if (super.moveToNext()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean moveToFirst() {
+        // the rows of the current window come after the first one, they are read again from the start
+        window = EMPTY;
+        reset(EMPTY, 0, 0);
+        afterId = START_ID;
+        last = false;
+        return moveToNext();
+    }
+
+    @Override
+    public int getCount() {
+        return count;
+    }
+
+    @Override
+    public int getColumnIndex(String columnName) {
+        if (window == EMPTY && !last) {
+            // the columns are known once the first window is read
+            readNext();
+        }
+        return super.getColumnIndex(columnName);
+    }
+
+    private void readNext() {
+        // the previous window can go before the next one is read
+        window = EMPTY;
+        reset(EMPTY, 0, 0);
+        window = read(afterId, windowSize);
+        int rows = window.getCount();
+        last = rows < windowSize;
+        if (rows > 0) {
+            afterId = Long.parseLong(window.get(rows - 1, window.getColumnIndex("_id")));
+            long rowSize = Math.max(1, size(window) / rows);
+            windowSize = (int) Math.max(1, Math.min(MAX_WINDOW, budget / rowSize));
+        }
+        reset(window, 0, rows);
+    }
+}
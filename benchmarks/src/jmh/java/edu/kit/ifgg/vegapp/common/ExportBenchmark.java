@@ -0,0 +1,128 @@
+package edu.kit.ifgg.vegapp.common;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.Deflater;
+
+
+/**
+ * End to end export of a synthetic project: reading the tables into the exporter and writing the
+ * whole document. Run with the gc profiler for the allocation rate and with
+ * {@link PeakHeapProfiler} for the peak heap, e.g.
+ *
+ *   java -jar benchmarks.jar ExportBenchmark -prof gc -prof edu.kit.ifgg.vegapp.common.PeakHeapProfiler
+ *
+ * The bytes counter of export is the document bytes per second; divided by the exports per second
+ * it is the size of the document, e.g. to compare the compact output with the indented one:
+ *
+ *   java -jar benchmarks.jar ExportBenchmark.export -p compact=false,true
+ */
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgs = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Benchmark)
+public class ExportBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    public int plots;
+
+    @Param({"30"})
+    public int speciesPerPlot;
+
+    @Param({"5"})
+    public int individualsPerPlot;
+
+    @Param({"10"})
+    public int customFieldsPerScope;
+
+    // threads for the observation sections, 1 writes them in turn
+    @Param({"1", "4"})
+    public int parallelism;
+
+    // heap budget of a streaming export in bytes, 0 reads the project at once
+    @Param({"0"})
+    public long memoryBudget;
+
+    @Param({"NONE"})
+    public Compression compression;
+
+    @Param({"ISO-8859-1"})
+    public String encoding;
+
+    // no line breaks and indentation
+    @Param({"false"})
+    public boolean compact;
+
+    private SyntheticExportDataSource dataSource;
+    private ExportSettings settings;
+
+    @Setup
+    public void setUp() {
+        dataSource = new SyntheticExportDataSource(plots, speciesPerPlot, individualsPerPlot, customFieldsPerScope);
+        settings = new ExportSettings("Vegapp", "benchmark", "GermanSL 1.5", "Synthetic species list",
+                SyntheticExportDataSource.strata());
+        settings.setParallelism(parallelism);
+        settings.setMemoryBudget(memoryBudget);
+        settings.setCompression(compression, Deflater.DEFAULT_COMPRESSION);
+        settings.setEncoding(encoding);
+        settings.setCompact(compact);
+    }
+
+    // the snapshots are already in memory, so this is the indexing the constructor does
+    @Benchmark
+    public VegXExporter read() {
+        return new VegXExporter(dataSource, SyntheticExportDataSource.PROJECT_ID, settings);
+    }
+
+    // returns the document size, so the writes cannot be left out
+    @Benchmark
+    public long export(DocumentSize size) throws IOException {
+        VegXExporter exporter = new VegXExporter(dataSource, SyntheticExportDataSource.PROJECT_ID, settings);
+        CountingOutputStream out = new CountingOutputStream();
+        exporter.write(out);
+        if (exporter.getWriteError() != null) {
+            throw new IllegalStateException(exporter.getWriteError());
+        }
+        size.bytes += out.count;
+        return out.count;
+    }
+
+    // bytes of the documents written, reported next to the exports
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class DocumentSize {
+        public long bytes;
+    }
+
+    // discards the document, the benchmark measures the export and not a disk
+    static class CountingOutputStream extends OutputStream {
+        long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package edu.kit.ifgg.vegapp.common;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * One phase of the export (writeMethods, writeOrganismNames, writeAggregateOrganismObservations
+ * ...) on a synthetic project. The phases depend on the ones before them, so each invocation gets
+ * an exporter that has written all earlier phases; only the phase itself is measured.
+ *
+ * Each phase is a large piece of work, the per invocation setup does not distort the results.
+ */
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgs = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Thread)
+public class ExportPhaseBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    public int plots;
+
+    @Param({"30"})
+    public int speciesPerPlot;
+
+    @Param({"5"})
+    public int individualsPerPlot;
+
+    @Param({"10"})
+    public int customFieldsPerScope;
+
+    @Param({"PARTIES", "LITERATURE_CITATIONS", "METHODS", "ATTRIBUTES", "STRATA", "SURFACE_TYPES", "ORGANISM_NAMES",
+            "TAXON_CONCEPTS", "ORGANISM_IDENTITIES", "COMMUNITY_CONCEPTS", "COMMUNITY_DETERMINATIONS", "PROJECT", "PLOTS",
+            "INDIVIDUAL_ORGANISMS", "PLOT_OBSERVATIONS", "INDIVIDUAL_ORGANISM_OBSERVATIONS",
+            "AGGREGATE_ORGANISM_OBSERVATIONS", "STRATUM_OBSERVATIONS", "COMMUNITY_OBSERVATIONS",
+            "SURFACE_COVER_OBSERVATIONS", "SITE_OBSERVATIONS", "NOTES"})
+    public ExportPhase phase;
+
+    private SyntheticExportDataSource dataSource;
+    private ExportSettings settings;
+    private VegXExporter exporter;
+    private ExportBenchmark.CountingOutputStream out;
+    private VegXWriter serializer;
+
+    @Setup(Level.Trial)
+    public void setUpTrial() {
+        dataSource = new SyntheticExportDataSource(plots, speciesPerPlot, individualsPerPlot, customFieldsPerScope);
+        settings = new ExportSettings("Vegapp", "benchmark", "GermanSL 1.5", "Synthetic species list",
+                SyntheticExportDataSource.strata());
+    }
+
+    @Setup(Level.Invocation)
+    public void setUpInvocation() throws IOException {
+        exporter = new VegXExporter(dataSource, SyntheticExportDataSource.PROJECT_ID, settings);
+        out = new ExportBenchmark.CountingOutputStream();
+        serializer = new VegXWriter(out, VegXExporter.encoding);
+        serializer.startDocument(null, true);
+        serializer.setFeature(VegXWriter.FEATURE_INDENT_OUTPUT, true);
+        serializer.startTag(null, "vegX");
+        for (ExportPhase earlier : ExportPhase.values()) {
+            if (earlier == phase) {
+                break;
+            }
+            if (earlier != ExportPhase.READ) {
+                exporter.writePhase(serializer, earlier);
+            }
+        }
+        serializer.flush();
+    }
+
+    // returns the bytes written so far, so the phase cannot be left out
+    @Benchmark
+    public long writePhase() throws IOException {
+        exporter.writePhase(serializer, phase);
+        serializer.flush();
+        return out.count;
+    }
+}
@@ -0,0 +1,405 @@
+package edu.kit.ifgg.vegapp.common;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+
+/**
+ * A Vegapp project made up for benchmarks: plots with species, individuals, layers and observers,
+ * and custom fields on every scope. The tables have the columns the export reads and are filled
+ * from a fixed seed, so two sources with the same shape return the same rows.
+ *
+ * The tables are built once in the constructor, so the benchmarks measure the export and not the
+ * generator. The windows of an export with a memory budget are views of them; the rows read with
+ * a list of columns are copies with only those columns, as a database would return them.
+ */
+
+public class SyntheticExportDataSource implements ExportDataSource {
+    public static final int PROJECT_ID = 1;
+    private static final String PROFILE_ID = "1";
+    private static final String LAYER_SYSTEM_ID = "1";
+    private static final String COVER_SCALE = "'braun_blanquet'";
+
+    private static final String[] GENERA = {"Abies", "Acer", "Betula", "Carex", "Fagus", "Festuca", "Fraxinus", "Galium",
+            "Hedera", "Luzula", "Oxalis", "Picea", "Pinus", "Poa", "Quercus", "Rubus", "Sorbus", "Vaccinium"};
+    private static final String[] EPITHETS = {"alba", "pseudoplatanus", "pendula", "sylvatica", "rubra", "excelsior",
+            "odoratum", "helix", "luzuloides", "acetosella", "abies", "sylvestris", "nemoralis", "robur", "fruticosus",
+            "aucuparia", "myrtillus", "vulgaris", "montana", "arenaria"};
+    private static final String[] COVER_CODES = {"r", "+", "1", "2m", "2a", "2b", "3", "4", "5"};
+    private static final String[] GIVEN_NAMES = {"Anna", "Ben", "Clara", "David", "Eva", "Felix"};
+    private static final String[] SURNAMES = {"Bauer", "Fischer", "Meyer", "Schmidt", "Wagner", "Weber"};
+    private static final String[] PROTOCOLS = {"", "point_centered_quarter", "polar_coordinates", "xy_coordinates"};
+
+    // type and level of the generated custom fields, cycled through per scope
+    private static final String[][] CUSTOM_FIELD_KINDS = {
+            {"Custom", "nominal"},
+            {"Meta data for the observation", "nominal"},
+            {"Location", "interval/ratio"},
+            {"Legal", "nominal"},
+            {"Surface cover", "interval/ratio"},
+            {"Site observations", "ordinal"},
+            {"Community observations", "nominal"},
+    };
+
+    private static final String[] PLOT_COLUMNS = {"_id", "project_id", "name", "date", "remarks", "attribution", "license",
+            "permanent_plot_id", "parent_plot", "source_plot", "source_reference", "source_table", "sampling_scheme",
+            "spatial_reference", "coord_system_zone", "easting", "northing", "easting_lon", "northing_lat", "utm_easting",
+            "utm_northing", "utm_zone", "accuracy", "altitude", "aspect", "aspect_classes", "slope", "landform", "country",
+            "county", "federal_state", "place_name", "marker", "ref_point", "dop", "orientation", "plot_shape", "plot_size",
+            "plot_length", "plot_width", "plot_radius", "survey_grid", "survey_cell", "survey_quadrant",
+            "phenological_state", "succession_stage", "stand_age", "management", "land_use", "fertilization",
+            "legal_status_1", "legal_status_2", "habitat_type_1", "habitat_type_2", "soil_type", "soil_texture",
+            "soil_depth", "humus_type", "rock_type", "watertable_depth", "mosses_ident", "lichens_ident",
+            "subassociation", "association", "alliance", "community", "formation",
+            "foliage", "standing_dead", "dead_stems", "moribund", "litter", "bare_rock", "bare_soil", "bare_ground",
+            "open_water", "live_vascular", "live_non_vascular", "owner_givenname", "owner_surname",
+            "owner_organization"};
+    private static final String[] SPECIES_COLUMNS = {"_id", "plot_id", "genus", "spec", "genus_cf", "spec_cf",
+            "taxon_concept", "layer_id", "quantity", "sociability", "vitality", "custom_a", "custom_b"};
+    private static final String[] INDIVIDUAL_COLUMNS = {"_id", "plot_id", "project_id", "genus", "spec", "genus_cf",
+            "spec_cf", "taxon_concept", "protocol", "quarter", "dbh", "dbh_above_ground", "girth", "girth_above_ground",
+            "direction_origin", "distance_origin", "x_coord", "y_coord", "latitude", "longitude", "accuracy", "custom_a",
+            "custom_b"};
+    private static final String[] PLOT_LAYER_COLUMNS = {"_id", "plot_id", "plot_layer_id", "cover", "avg_height",
+            "max_height"};
+
+    private final TableSnapshot project;
+    private final TableSnapshot plots;
+    private final TableSnapshot species;
+    private final TableSnapshot individuals;
+    private final TableSnapshot plotLayers;
+    private final TableSnapshot observers;
+    private final TableSnapshot customFields;
+    // rows of the tables and, per plot, the first row that belongs to it, for the windows
+    private final List<String[]> plotRows, speciesRows, individualRows, layerRows, observerRows;
+    private final int[] speciesStarts, individualStarts, layerStarts, observerStarts;
+
+    public SyntheticExportDataSource(int plotCount, int speciesPerPlot, int individualsPerPlot, int customFieldsPerScope) {
+        Random random = new Random(42);
+
+        project = new TableSnapshot(new String[]{"_id", "name", "profile_id", "layer_system_id", "cover_scale_id"},
+                rows(new String[]{String.valueOf(PROJECT_ID), "Synthetic project", PROFILE_ID, LAYER_SYSTEM_ID, COVER_SCALE}));
+
+        List<String[]> fieldRows = new ArrayList<>();
+        List<String> plotFields = new ArrayList<>();
+        List<String> speciesFields = new ArrayList<>();
+        List<String> individualFields = new ArrayList<>();
+        for (int i = 0; i < customFieldsPerScope; i++) {
+            String[] kind = CUSTOM_FIELD_KINDS[i % CUSTOM_FIELD_KINDS.length];
+            String name = "field_" + i;
+            fieldRows.add(new String[]{name, "Attribute " + i, kind[0], "plots", kind[1], "Method " + i, "cm"});
+            fieldRows.add(new String[]{name, "Attribute " + i, "Custom", "species", kind[1], "Method " + i, null});
+            fieldRows.add(new String[]{name, "Attribute " + i, "Custom", "individuals", kind[1], "Method " + i, null});
+            plotFields.add(name + "_plots");
+            speciesFields.add(name);
+            individualFields.add(name);
+        }
+        customFields = new TableSnapshot(new String[]{"name", "attribute", "type", "scope", "level", "method", "units",
+                "profile"}, withProfile(fieldRows));
+
+        String[] plotColumns = concat(PLOT_COLUMNS, plotFields);
+        String[] speciesColumns = concat(SPECIES_COLUMNS, speciesFields);
+        String[] individualColumns = concat(INDIVIDUAL_COLUMNS, individualFields);
+
+        plotRows = new ArrayList<>(plotCount);
+        speciesRows = new ArrayList<>(plotCount * speciesPerPlot);
+        individualRows = new ArrayList<>(plotCount * individualsPerPlot);
+        layerRows = new ArrayList<>(plotCount * 4);
+        observerRows = new ArrayList<>(plotCount * 2);
+        speciesStarts = new int[plotCount + 1];
+        individualStarts = new int[plotCount + 1];
+        layerStarts = new int[plotCount + 1];
+        observerStarts = new int[plotCount + 1];
+        int speciesId = 1;
+        int individualId = 1;
+        int layerId = 1;
+        int observerId = 1;
+        for (int p = 1; p <= plotCount; p++) {
+            String plotId = String.valueOf(p);
+            speciesStarts[p - 1] = speciesRows.size();
+            individualStarts[p - 1] = individualRows.size();
+            layerStarts[p - 1] = layerRows.size();
+            observerStarts[p - 1] = observerRows.size();
+            plotRows.add(plotRow(plotColumns, plotId, random));
+            for (int s = 0; s < speciesPerPlot; s++) {
+                speciesRows.add(speciesRow(speciesColumns, speciesId++, plotId, random));
+            }
+            for (int i = 0; i < individualsPerPlot; i++) {
+                individualRows.add(individualRow(individualColumns, individualId++, plotId, random));
+            }
+            for (int l = 1; l <= 4; l++) {
+                layerRows.add(new String[]{String.valueOf(layerId++), plotId, String.valueOf(l),
+                        String.valueOf(random.nextInt(100)), String.valueOf(l * 3), String.valueOf(l * 5)});
+            }
+            // a few recurring observers, so most of them share a name with an earlier one
+            for (int o = 0; o < 2; o++) {
+                observerRows.add(new String[]{String.valueOf(observerId++), GIVEN_NAMES[random.nextInt(GIVEN_NAMES.length)],
+                        SURNAMES[random.nextInt(SURNAMES.length)], plotId});
+            }
+        }
+        speciesStarts[plotCount] = speciesRows.size();
+        individualStarts[plotCount] = individualRows.size();
+        layerStarts[plotCount] = layerRows.size();
+        observerStarts[plotCount] = observerRows.size();
+        plots = new TableSnapshot(plotColumns, plotRows);
+        species = new TableSnapshot(speciesColumns, speciesRows);
+        individuals = new TableSnapshot(individualColumns, individualRows);
+        plotLayers = new TableSnapshot(PLOT_LAYER_COLUMNS, layerRows);
+        observers = new TableSnapshot(new String[]{"_id", "givenname", "surname", "plot"}, observerRows);
+    }
+
+    // strata of the default layer system, for ExportSettings
+    public static List<Stratum> strata() {
+        return Arrays.asList(
+                new Stratum("1", "Tree layer", "height", null, null, "5"),
+                new Stratum("2", "Shrub layer", "height", null, "5", "0.5"),
+                new Stratum("3", "Herb layer", null, "height", "0.5", null),
+                new Stratum("4", "Moss layer", null, "life form", null, null));
+    }
+
+    public int getPlotCount() {
+        return plots.getCount();
+    }
+
+    @Override
+    public TableSnapshot project(int projectId) {
+        return project;
+    }
+
+    @Override
+    public TableSnapshot plots(int projectId, String[] columns) {
+        return select(plots, plotRows, columns);
+    }
+
+    @Override
+    public TableSnapshot plotChildren(String table, int projectId, String[] columns) {
+        if ("species".equals(table)) {
+            return select(species, speciesRows, columns);
+        } else if ("individuals".equals(table)) {
+            return select(individuals, individualRows, columns);
+        } else if ("plot_layer".equals(table)) {
+            return select(plotLayers, layerRows, columns);
+        }
+        throw new IllegalArgumentException("no plot children in " + table);
+    }
+
+    @Override
+    public TableSnapshot individuals(int projectId, String[] columns) {
+        return select(individuals, individualRows, columns);
+    }
+
+    @Override
+    public TableSnapshot observers(int projectId) {
+        return observers;
+    }
+
+    @Override
+    public int plotCount(int projectId) {
+        return plots.getCount();
+    }
+
+    @Override
+    public TableSnapshot plots(int projectId, long afterId, int limit, String[] columns) {
+        int first = first(plotRows, afterId);
+        return select(plots, plotRows.subList(first, Math.min(plotRows.size(), first + limit)), columns);
+    }
+
+    @Override
+    public TableSnapshot plotChildren(String table, int projectId, long afterId, int limit, String[] columns) {
+        if ("species".equals(table)) {
+            return select(species, plotWindow(speciesRows, speciesStarts, first(plotRows, afterId), limit), columns);
+        } else if ("individuals".equals(table)) {
+            return select(individuals, plotWindow(individualRows, individualStarts, first(plotRows, afterId), limit), columns);
+        } else if ("plot_layer".equals(table)) {
+            return select(plotLayers, plotWindow(layerRows, layerStarts, first(plotRows, afterId), limit), columns);
+        }
+        throw new IllegalArgumentException("no plot children in " + table);
+    }
+
+    @Override
+    public int plotChildCount(String table, int projectId) {
+        return plotChildren(table, projectId, null).getCount();
+    }
+
+    @Override
+    public TableSnapshot individuals(int projectId, long afterId, int limit, String[] columns) {
+        int first = first(individualRows, afterId);
+        return select(individuals, individualRows.subList(first, Math.min(individualRows.size(), first + limit)), columns);
+    }
+
+    @Override
+    public int individualCount(int projectId) {
+        return individuals.getCount();
+    }
+
+    @Override
+    public int observerCount(int projectId) {
+        return observers.getCount();
+    }
+
+    @Override
+    public TableSnapshot observers(int projectId, long afterId, int limit) {
+        int first = first(observerRows, afterId);
+        return new TableSnapshot(observers.getColumnNames(), observerRows.subList(first, Math.min(observerRows.size(), first + limit)));
+    }
+
+    @Override
+    public TableSnapshot plotObservers(int projectId, long afterId, int limit) {
+        return new TableSnapshot(observers.getColumnNames(), plotWindow(observerRows, observerStarts, first(plotRows, afterId), limit));
+    }
+
+    @Override
+    public TableSnapshot customFields(int profileId) {
+        return customFields;
+    }
+
+    @Override
+    public TableSnapshot layerSystem(String layerSystemId) {
+        return new TableSnapshot(new String[]{"_id", "name", "layer_system_description"},
+                rows(new String[]{layerSystemId, "Synthetic layers", "Four layers by height and life form"}));
+    }
+
+    @Override
+    public TableSnapshot coverScaleNames(String codes) {
+        return new TableSnapshot(new String[]{"names"}, rows(new String[]{"Braun-Blanquet"}));
+    }
+
+    @Override
+    public TableSnapshot coverCodes(String codeId) {
+        List<String[]> codes = new ArrayList<>();
+        for (String code : COVER_CODES) {
+            codes.add(new String[]{code});
+        }
+        return new TableSnapshot(new String[]{"entry"}, codes);
+    }
+
+    // the index of the first row with an _id above afterId; the _ids of each table count from 1 in
+    // the order of its rows
+    private static int first(List<String[]> rows, long afterId) {
+        return (int) Math.max(0, Math.min(rows.size(), afterId));
+    }
+
+    // the rows of the plots offset to offset + limit
+    private static List<String[]> plotWindow(List<String[]> rows, int[] starts, int offset, int limit) {
+        int first = Math.min(offset, starts.length - 1);
+        int end = Math.min(starts.length - 1, offset + limit);
+        return rows.subList(starts[first], starts[end]);
+    }
+
+    // the rows of the table with the columns it has of columns, all of them for null
+    private static TableSnapshot select(TableSnapshot table, List<String[]> rows, String[] columns) {
+        if (columns == null) {
+            return new TableSnapshot(table.getColumnNames(), rows);
+        }
+        List<String> names = new ArrayList<>();
+        List<Integer> indexes = new ArrayList<>();
+        for (String column : columns) {
+            int index = table.getColumnIndex(column);
+            if (index >= 0 && !names.contains(column)) {
+                names.add(column);
+                indexes.add(index);
+            }
+        }
+        List<String[]> selected = new ArrayList<>(rows.size());
+        for (String[] row : rows) {
+            String[] values = new String[indexes.size()];
+            for (int c = 0; c < values.length; c++) {
+                values[c] = row[indexes.get(c)];
+            }
+            selected.add(values);
+        }
+        return new TableSnapshot(names.toArray(new String[names.size()]), selected);
+    }
+
+    private static String[] plotRow(String[] columns, String plotId, Random random) {
+        String[] row = new String[columns.length];
+        for (int c = 0; c < columns.length; c++) {
+            row[c] = String.valueOf(random.nextInt(1000));
+        }
+        set(row, columns, "_id", plotId);
+        set(row, columns, "project_id", String.valueOf(PROJECT_ID));
+        set(row, columns, "name", "Plot " + plotId);
+        set(row, columns, "date", "2021-0" + (1 + random.nextInt(9)) + "-1" + random.nextInt(10));
+        set(row, columns, "remarks", "Remarks on plot " + plotId + " with <markup> & \"quotes\"");
+        set(row, columns, "spatial_reference", "EPSG:4326");
+        set(row, columns, "easting", String.valueOf(8.4 + random.nextDouble()));
+        set(row, columns, "northing", String.valueOf(49.0 + random.nextDouble()));
+        set(row, columns, "owner_givenname", "Anna");
+        set(row, columns, "owner_surname", "Bauer");
+        set(row, columns, "owner_organization", "KIT");
+        return row;
+    }
+
+    private static String[] speciesRow(String[] columns, int id, String plotId, Random random) {
+        String[] row = new String[columns.length];
+        row[0] = String.valueOf(id);
+        row[1] = plotId;
+        row[2] = GENERA[random.nextInt(GENERA.length)];
+        row[3] = EPITHETS[random.nextInt(EPITHETS.length)];
+        row[4] = random.nextInt(20) == 0 ? "1" : "0";
+        row[5] = "0";
+        row[6] = "Rothmaler 2011";
+        row[7] = String.valueOf(1 + random.nextInt(4));
+        row[8] = COVER_CODES[random.nextInt(COVER_CODES.length)];
+        row[9] = String.valueOf(1 + random.nextInt(5));
+        row[10] = String.valueOf(1 + random.nextInt(3));
+        for (int c = 11; c < columns.length; c++) {
+            row[c] = random.nextBoolean() ? "value " + random.nextInt(50) : null;
+        }
+        return row;
+    }
+
+    private static String[] individualRow(String[] columns, int id, String plotId, Random random) {
+        String[] row = new String[columns.length];
+        row[0] = String.valueOf(id);
+        row[1] = plotId;
+        row[2] = String.valueOf(PROJECT_ID);
+        row[3] = GENERA[random.nextInt(GENERA.length)];
+        row[4] = EPITHETS[random.nextInt(EPITHETS.length)];
+        row[5] = "0";
+        row[6] = "0";
+        row[7] = "Rothmaler 2011";
+        row[8] = PROTOCOLS[random.nextInt(PROTOCOLS.length)];
+        row[9] = String.valueOf(1 + random.nextInt(4));
+        for (int c = 10; c < 18; c++) {
+            row[c] = String.valueOf(random.nextInt(400) / 10.0);
+        }
+        row[18] = String.valueOf(49.0 + random.nextDouble());
+        row[19] = String.valueOf(8.4 + random.nextDouble());
+        row[20] = String.valueOf(random.nextInt(10));
+        for (int c = 21; c < columns.length; c++) {
+            row[c] = random.nextBoolean() ? "value " + random.nextInt(50) : null;
+        }
+        return row;
+    }
+
+    private static void set(String[] row, String[] columns, String column, String value) {
+        row[Arrays.asList(columns).indexOf(column)] = value;
+    }
+
+    private static List<String[]> withProfile(List<String[]> fieldRows) {
+        List<String[]> rows = new ArrayList<>(fieldRows.size());
+        for (String[] field : fieldRows) {
+            String[] row = Arrays.copyOf(field, field.length + 1);
+            row[field.length] = PROFILE_ID;
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    private static String[] concat(String[] columns, List<String> more) {
+        String[] all = Arrays.copyOf(columns, columns.length + more.size());
+        for (int i = 0; i < more.size(); i++) {
+            all[columns.length + i] = more.get(i);
+        }
+        return all;
+    }
+
+    private static List<String[]> rows(String[] row) {
+        List<String[]> rows = new ArrayList<>(1);
+        rows.add(row);
+        return rows;
+    }
+}